@@ -0,0 +1,11 @@
+-- Rotación de refresh tokens: un registro por token emitido (claim jti); used_at marca el canje
+CREATE TABLE refresh_tokens
+(
+    token_id   CHAR(36)     NOT NULL,
+    username   VARCHAR(100) NOT NULL,
+    expires_at TIMESTAMP(3) NOT NULL,
+    used_at    TIMESTAMP(3) NULL,
+    CONSTRAINT pk_refresh_tokens PRIMARY KEY (token_id)
+);
+
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -13,4 +13,11 @@ ALTER TABLE users
     ADD CONSTRAINT uc_users_email UNIQUE (email);
 
 ALTER TABLE users
-    ADD CONSTRAINT uc_users_username UNIQUE (username);
\ No newline at end of file
+    ADD CONSTRAINT uc_users_username UNIQUE (username);
+
+-- Revocación de tokens: época por usuario y marca de modificación para el refresco incremental
+ALTER TABLE users
+    ADD COLUMN token_epoch BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+CREATE INDEX idx_users_updated_at ON users (updated_at);
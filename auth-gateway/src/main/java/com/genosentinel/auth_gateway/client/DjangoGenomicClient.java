@@ -1,14 +1,25 @@
 package com.genosentinel.auth_gateway.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.BatchGetItem;
+import com.genosentinel.auth_gateway.dto.PageResponse;
 import com.genosentinel.auth_gateway.dto.genomic.*;
-import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static com.genosentinel.auth_gateway.client.UpstreamPagination.Style.LIMIT_OFFSET;
 import java.util.UUID;
 
 /**
@@ -16,10 +27,36 @@ import java.util.UUID;
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DjangoGenomicClient {
 
+    private static final String UPSTREAM_NAME = "Django Genomic";
+    /** Clave única de las cachés de listados completos. */
+    private static final String ALL = "all";
+
     private final RestClient djangoGenomicRestClient;
+    private final ObjectMapper objectMapper;
+    private final UpstreamBatch batch;
+    private final UpstreamCache<Long, GeneDto> genesById;
+    private final UpstreamCache<String, List<GeneDto>> allGenes;
+    private final UpstreamCache<UUID, GeneticVariantDto> variantsById;
+    private final UpstreamCache<UUID, PatientVariantReportDto> reportsById;
+    private final VariantRegionIndex regionIndex = new VariantRegionIndex();
+    private final SingleFlight<String, GeneticVariantDto> variantCreations;
+
+    public DjangoGenomicClient(RestClient djangoGenomicRestClient, ObjectMapper objectMapper,
+                               UpstreamCacheFactory cacheFactory, UpstreamHedgingFactory hedging,
+                               UpstreamBatch batch) {
+        this.djangoGenomicRestClient = djangoGenomicRestClient;
+        this.objectMapper = objectMapper;
+        this.batch = batch;
+        this.genesById = cacheFactory.create("genes", "genes.by-id", hedging.wrap("genes", this::fetchGene));
+        this.allGenes = cacheFactory.create("genes", "genes.all", this::fetchAllGenes);
+        this.variantsById = cacheFactory.create("variants", "variants.by-id",
+                hedging.wrap("variants", this::fetchGeneticVariant));
+        this.reportsById = cacheFactory.create("reports", "reports.by-id",
+                hedging.wrap("reports", this::fetchPatientVariantReport));
+        this.variantCreations = cacheFactory.singleFlight("variants.create");
+    }
 
     // ========== GENES ==========
 
@@ -29,18 +66,43 @@ public class DjangoGenomicClient {
     public GeneDto createGene(CreateGeneDto geneData) {
         log.info("Creating gene: {}", geneData);
 
-        return djangoGenomicRestClient.post()
+        GeneDto created = djangoGenomicRestClient.post()
                 .uri("/api/genes/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(geneData)
                 .retrieve()
                 .body(GeneDto.class);
+
+        allGenes.invalidate(ALL);
+        return created;
+    }
+
+    /**
+     * Obtener una página de genes
+     */
+    public PageResponse<GeneDto> getGenesPage(PageWindow window) {
+        log.info("Fetching genes page: {}", window);
+
+        return UpstreamPagination.fetch(djangoGenomicRestClient, objectMapper, "/api/genes/", LIMIT_OFFSET, window, GeneDto.class);
+    }
+
+    /**
+     * Recorrer todos los genes página a página de forma perezosa; cerrar el stream libera la conexión
+     */
+    public Stream<GeneDto> streamGenes() {
+        log.info("Streaming all genes");
+
+        return UpstreamStream.open(djangoGenomicRestClient, objectMapper, "/api/genes/", LIMIT_OFFSET, PageWindow.MAX_LIMIT, GeneDto.class, UPSTREAM_NAME);
     }
 
     /**
      * Obtener todos los genes
      */
     public List<GeneDto> getAllGenes() {
+        return allGenes.get(ALL);
+    }
+
+    private List<GeneDto> fetchAllGenes(String all) {
         log.info("Fetching all genes");
 
         return djangoGenomicRestClient.get()
@@ -53,6 +115,10 @@ public class DjangoGenomicClient {
      * Obtener un gen por ID
      */
     public GeneDto getGeneById(Long id) {
+        return genesById.get(id);
+    }
+
+    private GeneDto fetchGene(Long id) {
         log.info("Fetching gene with id: {}", id);
 
         return djangoGenomicRestClient.get()
@@ -67,12 +133,16 @@ public class DjangoGenomicClient {
     public GeneDto updateGene(Long id, UpdateGeneDto geneData) {
         log.info("Updating gene with id: {}", id);
 
-        return djangoGenomicRestClient.patch()
+        GeneDto updated = djangoGenomicRestClient.patch()
                 .uri("/api/genes/{id}/", id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(geneData)
                 .retrieve()
                 .body(GeneDto.class);
+
+        genesById.invalidate(id);
+        allGenes.invalidate(ALL);
+        return updated;
     }
 
     /**
@@ -85,6 +155,9 @@ public class DjangoGenomicClient {
                 .uri("/api/genes/{id}/", id)
                 .retrieve()
                 .toBodilessEntity();
+
+        genesById.invalidate(id);
+        allGenes.invalidate(ALL);
     }
 
     // ========== GENETIC VARIANTS ==========
@@ -95,12 +168,111 @@ public class DjangoGenomicClient {
     public GeneticVariantDto createGeneticVariant(CreateGeneticVariantDto variantData) {
         log.info("Creating genetic variant: {}", variantData);
 
-        return djangoGenomicRestClient.post()
+        GeneticVariantDto created = djangoGenomicRestClient.post()
                 .uri("/api/variants/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(variantData)
                 .retrieve()
                 .body(GeneticVariantDto.class);
+
+        regionIndex.upsert(created);
+        return created;
+    }
+
+    /**
+     * Indica si el índice local de variantes ya tiene el catálogo completo
+     */
+    public boolean isGeneticVariantIndexLoaded() {
+        return regionIndex.isLoaded();
+    }
+
+    /**
+     * Buscar una variante genética por sitio y alelos en el índice local
+     * (cromosoma normalizado, "17" = "chr17"; alelos sin distinguir mayúsculas)
+     * @return la variante, o null si no existe
+     * @throws ResponseStatusException 503 mientras el índice no se haya cargado
+     */
+    public GeneticVariantDto findGeneticVariant(String chromosome, long position, String referenceBase, String alternateBase) {
+        if (!regionIndex.isLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Variant index is still loading");
+        }
+        return regionIndex.findVariant(chromosome, position, referenceBase, alternateBase);
+    }
+
+    /**
+     * Obtener la variante genética de un sitio y alelos, creándola si no existe.
+     * Las altas simultáneas de la misma variante (desde cualquier carga) comparten una sola llamada
+     * a Django; al terminar la variante ya está en el índice y las siguientes la encuentran
+     */
+    public GeneticVariantDto findOrCreateGeneticVariant(CreateGeneticVariantDto variantData) {
+        String key = GenomicRegion.key(variantData.getChromosome()) + ':' + variantData.getPosition() + ':'
+                + variantData.getReferenceBase().toUpperCase() + '>' + variantData.getAlternateBase().toUpperCase();
+        return variantCreations.execute(key, ignored -> {
+            GeneticVariantDto existing = findGeneticVariant(variantData.getChromosome(), variantData.getPosition(),
+                    variantData.getReferenceBase(), variantData.getAlternateBase());
+            return existing != null ? existing : createGeneticVariant(variantData);
+        });
+    }
+
+    /**
+     * Copia la lista de variantes genéticas tal cual llega de Django a la respuesta,
+     * sin deserializarla (incluye gene_details anidado)
+     */
+    public void copyAllGeneticVariants(HttpServletRequest request, HttpServletResponse response) {
+        log.info("Copying all genetic variants");
+
+        UpstreamPassThrough.get(djangoGenomicRestClient, "/api/variants/", request, response, UPSTREAM_NAME);
+    }
+
+    /**
+     * Obtener una página de variantes genéticas
+     */
+    public PageResponse<GeneticVariantDto> getGeneticVariantsPage(PageWindow window) {
+        log.info("Fetching genetic variants page: {}", window);
+
+        return UpstreamPagination.fetch(djangoGenomicRestClient, objectMapper, "/api/variants/", LIMIT_OFFSET, window, GeneticVariantDto.class);
+    }
+
+    /**
+     * Recorrer todas las variantes genéticas página a página de forma perezosa; cerrar el stream libera la conexión
+     */
+    public Stream<GeneticVariantDto> streamGeneticVariants() {
+        log.info("Streaming all genetic variants");
+
+        return UpstreamStream.open(djangoGenomicRestClient, objectMapper, "/api/variants/", LIMIT_OFFSET, PageWindow.MAX_LIMIT, GeneticVariantDto.class, UPSTREAM_NAME);
+    }
+
+    /**
+     * Obtener las variantes genéticas de una región, ordenadas por posición.
+     * Se responden desde el índice local; mientras no se haya cargado se recorre el listado de Django
+     */
+    public List<GeneticVariantDto> getGeneticVariantsInRegion(GenomicRegion region) {
+        if (regionIndex.isLoaded()) {
+            return regionIndex.query(region);
+        }
+
+        log.info("Region index not loaded yet, scanning genetic variants for {}", region);
+        try (Stream<GeneticVariantDto> variants = streamGeneticVariants()) {
+            return variants.filter(variant -> region.contains(variant.getChromosome(), variant.getPosition()))
+                    .sorted(Comparator.comparing(GeneticVariantDto::getPosition))
+                    .toList();
+        }
+    }
+
+    /**
+     * Obtener las variantes genéticas modificadas desde un instante (updated_at >= since)
+     */
+    List<GeneticVariantDto> getGeneticVariantsUpdatedSince(Instant since) {
+        log.debug("Fetching genetic variants updated since {}", since);
+
+        return djangoGenomicRestClient.get()
+                .uri("/api/variants/?updated_since={since}", since.toString())
+                .retrieve()
+                .body(new ParameterizedTypeReference<>(){});
+    }
+
+    VariantRegionIndex regionIndex() {
+        return regionIndex;
     }
 
     /**
@@ -119,6 +291,19 @@ public class DjangoGenomicClient {
      * Obtener una variante genética por ID
      */
     public GeneticVariantDto getGeneticVariantById(UUID id) {
+        return variantsById.get(id);
+    }
+
+    /**
+     * Obtener varias variantes genéticas por ID en paralelo, con el resultado de cada una
+     */
+    public List<BatchGetItem<GeneticVariantDto>> getGeneticVariantsByIds(List<UUID> ids) {
+        log.info("Fetching {} genetic variants by id", ids.size());
+
+        return batch.getAll(ids, variantsById);
+    }
+
+    private GeneticVariantDto fetchGeneticVariant(UUID id) {
         log.info("Fetching genetic variant with id: {}", id);
 
         return djangoGenomicRestClient.get()
@@ -133,12 +318,16 @@ public class DjangoGenomicClient {
     public GeneticVariantDto updateGeneticVariant(UUID id, UpdateGeneticVariantDto variantData) {
         log.info("Updating genetic variant with id: {}", id);
 
-        return djangoGenomicRestClient.patch()
+        GeneticVariantDto updated = djangoGenomicRestClient.patch()
                 .uri("/api/variants/{id}/", id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(variantData)
                 .retrieve()
                 .body(GeneticVariantDto.class);
+
+        variantsById.invalidate(id);
+        regionIndex.upsert(updated);
+        return updated;
     }
 
     /**
@@ -151,6 +340,9 @@ public class DjangoGenomicClient {
                 .uri("/api/variants/{id}/", id)
                 .retrieve()
                 .toBodilessEntity();
+
+        variantsById.invalidate(id);
+        regionIndex.remove(id);
     }
 
     // ========== PATIENT VARIANT REPORTS ==========
@@ -169,6 +361,46 @@ public class DjangoGenomicClient {
                 .body(PatientVariantReportDto.class);
     }
 
+    /**
+     * Copia la lista de reportes tal cual llega de Django a la respuesta,
+     * sin deserializarla (incluye variant_details anidado)
+     */
+    public void copyAllPatientVariantReports(HttpServletRequest request, HttpServletResponse response) {
+        log.info("Copying all patient variant reports");
+
+        UpstreamPassThrough.get(djangoGenomicRestClient, "/api/reports/", request, response, UPSTREAM_NAME);
+    }
+
+    /**
+     * Obtener una página de reportes de variantes de pacientes
+     */
+    public PageResponse<PatientVariantReportDto> getPatientVariantReportsPage(PageWindow window) {
+        log.info("Fetching patient variant reports page: {}", window);
+
+        return UpstreamPagination.fetch(djangoGenomicRestClient, objectMapper, "/api/reports/", LIMIT_OFFSET, window, PatientVariantReportDto.class);
+    }
+
+    /**
+     * Recorrer todos los reportes de variantes página a página de forma perezosa; cerrar el stream libera la conexión
+     */
+    public Stream<PatientVariantReportDto> streamPatientVariantReports() {
+        log.info("Streaming all patient variant reports");
+
+        return UpstreamStream.open(djangoGenomicRestClient, objectMapper, "/api/reports/", LIMIT_OFFSET, PageWindow.MAX_LIMIT, PatientVariantReportDto.class, UPSTREAM_NAME);
+    }
+
+    /**
+     * Obtener los reportes de variantes de un paciente (filtrados en Django con ?patient_id=)
+     */
+    public List<PatientVariantReportDto> getPatientVariantReportsByPatient(String patientId) {
+        log.info("Fetching patient variant reports for patient {}", patientId);
+
+        return djangoGenomicRestClient.get()
+                .uri("/api/reports/?patient_id={patientId}", patientId)
+                .retrieve()
+                .body(new ParameterizedTypeReference<>(){});
+    }
+
     /**
      * Obtener todos los reportes de variantes de pacientes
      */
@@ -185,6 +417,19 @@ public class DjangoGenomicClient {
      * Obtener un reporte de variante de paciente por ID
      */
     public PatientVariantReportDto getPatientVariantReportById(UUID id) {
+        return reportsById.get(id);
+    }
+
+    /**
+     * Obtener varios reportes de variantes por ID en paralelo, con el resultado de cada uno
+     */
+    public List<BatchGetItem<PatientVariantReportDto>> getPatientVariantReportsByIds(List<UUID> ids) {
+        log.info("Fetching {} patient variant reports by id", ids.size());
+
+        return batch.getAll(ids, reportsById);
+    }
+
+    private PatientVariantReportDto fetchPatientVariantReport(UUID id) {
         log.info("Fetching patient variant report with id: {}", id);
 
         return djangoGenomicRestClient.get()
@@ -199,12 +444,15 @@ public class DjangoGenomicClient {
     public PatientVariantReportDto updatePatientVariantReport(UUID id, UpdatePatientVariantReportDto reportData) {
         log.info("Updating patient variant report with id: {}", id);
 
-        return djangoGenomicRestClient.patch()
+        PatientVariantReportDto updated = djangoGenomicRestClient.patch()
                 .uri("/api/reports/{id}/", id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(reportData)
                 .retrieve()
                 .body(PatientVariantReportDto.class);
+
+        reportsById.invalidate(id);
+        return updated;
     }
 
     /**
@@ -217,5 +465,7 @@ public class DjangoGenomicClient {
                 .uri("/api/reports/{id}/", id)
                 .retrieve()
                 .toBodilessEntity();
+
+        reportsById.invalidate(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.genosentinel.auth_gateway.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Región genómica cerrada [start, end] de un cromosoma, p. ej. "chr17:7660000-7690000".
+ * Los separadores de miles ("7,660,000") se aceptan y el prefijo "chr" es opcional:
+ * "17" y "chr17" son el mismo cromosoma.
+ */
+public record GenomicRegion(String chromosome, long start, long end) {
+
+    private static final Pattern REGION = Pattern.compile("([^:\\s]+):([\\d,]+)-([\\d,]+)");
+
+    /**
+     * Interpreta el parámetro region de la petición.
+     * @throws ResponseStatusException 400 si no tiene la forma cromosoma:inicio-fin o inicio > fin
+     */
+    public static GenomicRegion parse(String region) {
+        Matcher matcher = REGION.matcher(region == null ? "" : region.trim());
+        if (!matcher.matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "region must look like chr17:7660000-7690000");
+        }
+        try {
+            long start = Long.parseLong(matcher.group(2).replace(",", ""));
+            long end = Long.parseLong(matcher.group(3).replace(",", ""));
+            if (start > end) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "region start must not exceed its end");
+            }
+            return new GenomicRegion(matcher.group(1), start, end);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "region coordinates out of range");
+        }
+    }
+
+    /**
+     * Indica si la variante (cromosoma, posición) cae en la región.
+     */
+    public boolean contains(String chromosome, Long position) {
+        return chromosome != null && position != null && position >= start && position <= end
+                && key(chromosome).equals(key(this.chromosome));
+    }
+
+    /**
+     * Nombre del cromosoma sin el prefijo "chr" y en mayúsculas ("chrX" y "x" son "X").
+     */
+    static String key(String chromosome) {
+        String name = chromosome.regionMatches(true, 0, "chr", 0, 3) ? chromosome.substring(3) : chromosome;
+        return name.toUpperCase(Locale.ROOT);
+    }
+}
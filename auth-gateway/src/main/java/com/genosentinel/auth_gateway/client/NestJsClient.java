@@ -1,7 +1,9 @@
 package com.genosentinel.auth_gateway.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.BatchGetItem;
+import com.genosentinel.auth_gateway.dto.PageResponse;
 import com.genosentinel.auth_gateway.dto.nestjs.*;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
@@ -9,16 +11,43 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static com.genosentinel.auth_gateway.client.UpstreamPagination.Style.PAGE;
 
 /**
  * Cliente para consumir los endpoints del microservicio NestJS
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class NestJsClient {
 
+    private static final String UPSTREAM_NAME = "NestJS";
+    /** Clave única de las cachés de listados completos. */
+    private static final String ALL = "all";
+
     private final RestClient nestJsRestClient;
+    private final ObjectMapper objectMapper;
+    private final UpstreamBatch batch;
+    private final UpstreamCache<Integer, PatientResponseDto> patientsById;
+    private final UpstreamCache<Integer, TumorTypeDto> tumorTypesById;
+    private final UpstreamCache<String, List<TumorTypeDto>> allTumorTypes;
+    private final UpstreamCache<Integer, ClinicalRecordDto> clinicalRecordsById;
+
+    public NestJsClient(RestClient nestJsRestClient, ObjectMapper objectMapper,
+                        UpstreamCacheFactory cacheFactory, UpstreamHedgingFactory hedging,
+                        UpstreamBatch batch) {
+        this.nestJsRestClient = nestJsRestClient;
+        this.objectMapper = objectMapper;
+        this.batch = batch;
+        this.patientsById = cacheFactory.create("patients", "patients.by-id",
+                hedging.wrap("patients", this::fetchPatient));
+        this.tumorTypesById = cacheFactory.create("tumor-types", "tumor-types.by-id",
+                hedging.wrap("tumor-types", this::fetchTumorType));
+        this.allTumorTypes = cacheFactory.create("tumor-types", "tumor-types.all", this::fetchAllTumorTypes);
+        this.clinicalRecordsById = cacheFactory.create("clinical-records", "clinical-records.by-id",
+                hedging.wrap("clinical-records", this::fetchClinicalRecord));
+    }
 
     /**
      * Crear un nuevo paciente
@@ -34,6 +63,24 @@ public class NestJsClient {
                 .body(PatientResponseDto.class);
     }
 
+    /**
+     * Obtener una página de pacientes
+     */
+    public PageResponse<PatientResponseDto> getPatientsPage(PageWindow window) {
+        log.info("Fetching patients page: {}", window);
+
+        return UpstreamPagination.fetch(nestJsRestClient, objectMapper, "/api/patients", PAGE, window, PatientResponseDto.class);
+    }
+
+    /**
+     * Recorrer todos los pacientes página a página de forma perezosa; cerrar el stream libera la conexión
+     */
+    public Stream<PatientResponseDto> streamPatients() {
+        log.info("Streaming all patients");
+
+        return UpstreamStream.open(nestJsRestClient, objectMapper, "/api/patients", PAGE, PageWindow.MAX_LIMIT, PatientResponseDto.class, UPSTREAM_NAME);
+    }
+
     /**
      * Obtener todos los pacientes
      */
@@ -50,6 +97,19 @@ public class NestJsClient {
      * Obtener un paciente por ID
      */
     public PatientResponseDto getPatientById(int id) {
+        return patientsById.get(id);
+    }
+
+    /**
+     * Obtener varios pacientes por ID en paralelo, con el resultado de cada uno
+     */
+    public List<BatchGetItem<PatientResponseDto>> getPatientsByIds(List<Integer> ids) {
+        log.info("Fetching {} patients by id", ids.size());
+
+        return batch.getAll(ids, patientsById);
+    }
+
+    private PatientResponseDto fetchPatient(int id) {
         log.info("Fetching patient with id: {}", id);
 
         return nestJsRestClient.get()
@@ -64,12 +124,15 @@ public class NestJsClient {
     public PatientResponseDto updatePatient(int id, UpdatePatientDto patientData) {
         log.info("Updating patient with id: {}", id);
 
-        return nestJsRestClient.patch()
+        PatientResponseDto updated = nestJsRestClient.patch()
                 .uri("/api/patients/{id}", id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(patientData)
                 .retrieve()
                 .body(PatientResponseDto.class);
+
+        patientsById.invalidate(id);
+        return updated;
     }
 
     /**
@@ -78,10 +141,13 @@ public class NestJsClient {
     public PatientResponseDto deactivatePatient(int id) {
         log.info("Deactivating patient with id: {}", id);
 
-        return nestJsRestClient.patch()
+        PatientResponseDto deactivated = nestJsRestClient.patch()
                 .uri("/api/patients/{id}/deactivate", id)
                 .retrieve()
                 .body(PatientResponseDto.class);
+
+        patientsById.invalidate(id);
+        return deactivated;
     }
 
     /**
@@ -90,18 +156,43 @@ public class NestJsClient {
     public TumorTypeDto createTumorType(CreateTumorTypeDto tumorTypeData) {
         log.info("Creating tumor type: {}", tumorTypeData);
 
-        return nestJsRestClient.post()
+        TumorTypeDto created = nestJsRestClient.post()
                 .uri("/api/tumor-types")
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(tumorTypeData)
                 .retrieve()
                 .body(TumorTypeDto.class);
+
+        allTumorTypes.invalidate(ALL);
+        return created;
+    }
+
+    /**
+     * Obtener una página de tipos de tumor
+     */
+    public PageResponse<TumorTypeDto> getTumorTypesPage(PageWindow window) {
+        log.info("Fetching tumor types page: {}", window);
+
+        return UpstreamPagination.fetch(nestJsRestClient, objectMapper, "/api/tumor-types", PAGE, window, TumorTypeDto.class);
+    }
+
+    /**
+     * Recorrer todos los tipos de tumor página a página de forma perezosa; cerrar el stream libera la conexión
+     */
+    public Stream<TumorTypeDto> streamTumorTypes() {
+        log.info("Streaming all tumor types");
+
+        return UpstreamStream.open(nestJsRestClient, objectMapper, "/api/tumor-types", PAGE, PageWindow.MAX_LIMIT, TumorTypeDto.class, UPSTREAM_NAME);
     }
 
     /**
      * Obtener todos los tipos de tumor
      */
     public List<TumorTypeDto> getAllTumorTypes() {
+        return allTumorTypes.get(ALL);
+    }
+
+    private List<TumorTypeDto> fetchAllTumorTypes(String all) {
         log.info("Fetching all tumor types");
 
         return nestJsRestClient.get()
@@ -114,6 +205,10 @@ public class NestJsClient {
      * Obtener un tipo de tumor por ID
      */
     public TumorTypeDto getTumorTypeById(int id) {
+        return tumorTypesById.get(id);
+    }
+
+    private TumorTypeDto fetchTumorType(int id) {
         log.info("Fetching tumor type with id: {}", id);
 
         return nestJsRestClient.get()
@@ -128,12 +223,16 @@ public class NestJsClient {
     public TumorTypeDto updateTumorType(int id, UpdateTumorTypeDto tumorTypeData) {
         log.info("Updating tumor type with id: {}", id);
 
-        return nestJsRestClient.patch()
+        TumorTypeDto updated = nestJsRestClient.patch()
                 .uri("/api/tumor-types/{id}", id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(tumorTypeData)
                 .retrieve()
                 .body(TumorTypeDto.class);
+
+        tumorTypesById.invalidate(id);
+        allTumorTypes.invalidate(ALL);
+        return updated;
     }
 
     /**
@@ -142,10 +241,14 @@ public class NestJsClient {
     public DeleteResponseDto deleteTumorType(int id) {
         log.info("Deleting tumor type with id: {}", id);
 
-        return nestJsRestClient.delete()
+        DeleteResponseDto deleted = nestJsRestClient.delete()
                 .uri("/api/tumor-types/{id}", id)
                 .retrieve()
                 .body(DeleteResponseDto.class);
+
+        tumorTypesById.invalidate(id);
+        allTumorTypes.invalidate(ALL);
+        return deleted;
     }
 
     /**
@@ -162,6 +265,36 @@ public class NestJsClient {
                 .body(ClinicalRecordDto.class);
     }
 
+    /**
+     * Obtener una página de historias clínicas
+     */
+    public PageResponse<ClinicalRecordDto> getClinicalRecordsPage(PageWindow window) {
+        log.info("Fetching clinical records page: {}", window);
+
+        return UpstreamPagination.fetch(nestJsRestClient, objectMapper, "/api/clinical-records", PAGE, window, ClinicalRecordDto.class);
+    }
+
+    /**
+     * Recorrer todas las historias clínicas página a página de forma perezosa; cerrar el stream libera la conexión
+     */
+    public Stream<ClinicalRecordDto> streamClinicalRecords() {
+        log.info("Streaming all clinical records");
+
+        return UpstreamStream.open(nestJsRestClient, objectMapper, "/api/clinical-records", PAGE, PageWindow.MAX_LIMIT, ClinicalRecordDto.class, UPSTREAM_NAME);
+    }
+
+    /**
+     * Obtener las historias clínicas de un paciente (filtradas en NestJS con ?patientId=)
+     */
+    public List<ClinicalRecordDto> getClinicalRecordsByPatient(int patientId) {
+        log.info("Fetching clinical records for patient {}", patientId);
+
+        return nestJsRestClient.get()
+                .uri("/api/clinical-records?patientId={patientId}", patientId)
+                .retrieve()
+                .body(new ParameterizedTypeReference<>(){});
+    }
+
     /**
      * Obtener todas las historias clínicas
      */
@@ -178,6 +311,10 @@ public class NestJsClient {
      * Obtener una historia clínica por ID
      */
     public ClinicalRecordDto getClinicalRecordById(int id) {
+        return clinicalRecordsById.get(id);
+    }
+
+    private ClinicalRecordDto fetchClinicalRecord(int id) {
         log.info("Fetching clinical record with id: {}", id);
 
         return nestJsRestClient.get()
@@ -192,12 +329,15 @@ public class NestJsClient {
     public ClinicalRecordDto updateClinicalRecord(int id, UpdateClinicalRecordDto recordData) {
         log.info("Updating clinical record with id: {}", id);
 
-        return nestJsRestClient.patch()
+        ClinicalRecordDto updated = nestJsRestClient.patch()
                 .uri("/api/clinical-records/{id}", id)
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(recordData)
                 .retrieve()
                 .body(ClinicalRecordDto.class);
+
+        clinicalRecordsById.invalidate(id);
+        return updated;
     }
 
     /**
@@ -206,9 +346,12 @@ public class NestJsClient {
     public DeleteResponseDto deleteClinicalRecord(int id) {
         log.info("Deleting clinical record with id: {}", id);
 
-        return nestJsRestClient.delete()
+        DeleteResponseDto deleted = nestJsRestClient.delete()
                 .uri("/api/clinical-records/{id}", id)
                 .retrieve()
                 .body(DeleteResponseDto.class);
+
+        clinicalRecordsById.invalidate(id);
+        return deleted;
     }
 }
\ No newline at end of file
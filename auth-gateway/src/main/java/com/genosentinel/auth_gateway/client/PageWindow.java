@@ -0,0 +1,68 @@
+package com.genosentinel.auth_gateway.client;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Ventana (offset, limit) de un listado paginado por cursor.
+ * El cursor es opaco para el cliente: codifica el offset y el limit con el que se emitió,
+ * de modo que se traduce tanto a limit/offset (Django REST) como a page/limit (NestJS).
+ */
+public record PageWindow(int offset, int limit) {
+
+    public static final int MAX_LIMIT = 200;
+
+    /**
+     * Construye la ventana a partir de los parámetros de la petición.
+     * @param limit tamaño de página (1..MAX_LIMIT)
+     * @param cursor cursor devuelto por la página anterior, o null para la primera
+     * @throws ResponseStatusException 400 si el limit o el cursor no son válidos
+     */
+    public static PageWindow of(int limit, String cursor) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return new PageWindow(0, limit);
+        }
+
+        PageWindow decoded = decode(cursor);
+        if (decoded.limit() != limit) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "cursor was issued for limit " + decoded.limit());
+        }
+        return decoded;
+    }
+
+    /** Cursor de la ventana siguiente. */
+    public String nextCursor() {
+        String raw = (offset + limit) + ":" + limit;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Número de página (desde 1) para upstreams paginados por page/limit. */
+    public int page() {
+        return offset / limit + 1;
+    }
+
+    private static PageWindow decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int colon = raw.indexOf(':');
+            int offset = Integer.parseInt(raw.substring(0, colon));
+            int limit = Integer.parseInt(raw.substring(colon + 1));
+            if (offset < 0 || limit < 1 || limit > MAX_LIMIT || offset % limit != 0) {
+                throw new IllegalArgumentException("Cursor out of range");
+            }
+            return new PageWindow(offset, limit);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.genosentinel.auth_gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Agrupa lecturas idempotentes concurrentes de la misma clave en una sola llamada al upstream.
+ * El primer hilo hace la llamada; los que llegan mientras sigue en vuelo esperan y reciben
+ * el mismo resultado o la misma excepción. No guarda nada: al terminar, la siguiente
+ * lectura vuelve al upstream.
+ * Publica upstream.single-flight.calls {name=..., result=executed|shared}.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter shared;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = calls(meterRegistry, name, "executed");
+        this.shared = calls(meterRegistry, name, "shared");
+    }
+
+    /**
+     * Ejecuta la llamada o se une a la que ya está en vuelo para la misma clave.
+     * @param key clave de la lectura (p. ej. el id)
+     * @param call lectura en el upstream
+     * @return resultado de la llamada compartida
+     */
+    public V execute(K key, Function<K, V> call) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            shared.increment();
+            return await(running);
+        }
+
+        executed.increment();
+        try {
+            V value = call.apply(key);
+            own.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Cada hilo recibe la excepción original del upstream (p. ej. 404 o 503)
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter calls(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("upstream.single-flight.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,119 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.genosentinel.auth_gateway.dto.BatchGetItem;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Lectura de varios ids en una sola petición del gateway (endpoints :batchGet).
+ * Los ids repetidos se consultan una vez, los que ya están en la caché local se sirven
+ * sin ir al upstream y el resto se piden en paralelo en hilos virtuales, con como mucho
+ * upstream.batch.max-concurrency llamadas simultáneas por lote.
+ * Los resultados siguen el orden de la petición y cada id lleva su propio estado; un id
+ * rechazado por el circuit breaker o el bulkhead del upstream queda como 503, igual que
+ * en una lectura individual (UpstreamExceptionHandler).
+ */
+@Slf4j
+@Component
+public class UpstreamBatch {
+
+    private final int maxConcurrency;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UpstreamBatch(@Value("${upstream.batch.max-concurrency:8}") int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Lee cada id a través de la caché de la entidad.
+     * @param ids ids en el orden de la petición, con posibles repetidos
+     * @param cache caché (o lectura directa) de la entidad
+     * @return un resultado por id distinto, en el orden de la petición
+     */
+    public <K, V> List<BatchGetItem<V>> getAll(List<K> ids, UpstreamCache<K, V> cache) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Map<K, Object> pending = new LinkedHashMap<>();
+        try {
+            for (K id : new LinkedHashSet<>(ids)) {
+                V cached = cache.getIfPresent(id);
+                pending.put(id, cached != null ? BatchGetItem.found(id, cached) : submit(id, cache, permits));
+            }
+
+            List<BatchGetItem<V>> results = new ArrayList<>(pending.size());
+            for (Map.Entry<K, Object> entry : pending.entrySet()) {
+                results.add(result(entry.getKey(), entry.getValue()));
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.values().forEach(value -> {
+                if (value instanceof Future<?> future) {
+                    future.cancel(true);
+                }
+            });
+            throw new IllegalStateException("Interrupted during batch get", e);
+        }
+    }
+
+    private <K, V> Future<V> submit(K id, UpstreamCache<K, V> cache, Semaphore permits) throws InterruptedException {
+        // Se espera el permiso antes de lanzar la tarea: nunca hay más de maxConcurrency hilos por lote
+        permits.acquire();
+        return executor.submit(() -> {
+            try {
+                return cache.get(id);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> BatchGetItem<V> result(K id, Object pending) throws InterruptedException {
+        if (pending instanceof BatchGetItem<?> item) {
+            return (BatchGetItem<V>) item;
+        }
+        try {
+            return BatchGetItem.found(id, ((Future<V>) pending).get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ResponseStatusException status) {
+                return BatchGetItem.failed(id, status.getStatusCode().value(), status.getReason());
+            }
+            if (cause instanceof RestClientResponseException response) {
+                return BatchGetItem.failed(id, response.getStatusCode().value(), response.getStatusText());
+            }
+            if (cause instanceof CallNotPermittedException) {
+                return BatchGetItem.failed(id, HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        "Upstream service temporarily unavailable");
+            }
+            if (cause instanceof BulkheadFullException) {
+                return BatchGetItem.failed(id, HttpStatus.SERVICE_UNAVAILABLE.value(), "Upstream service busy");
+            }
+            log.warn("Batch get of {} failed: {}", id, cause.getMessage());
+            return BatchGetItem.failed(id, HttpStatus.BAD_GATEWAY.value(), "Upstream service unavailable");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,52 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import java.util.function.Function;
+
+/**
+ * Caché read-through delante de una lectura de un upstream.
+ * Si la caché está desactivada para la entidad, cada lectura va al upstream, pero las
+ * lecturas simultáneas de la misma clave comparten una llamada ({@link SingleFlight}).
+ * Los valores cacheados se comparten entre peticiones y no deben modificarse.
+ * Ver {@link UpstreamCacheFactory}.
+ */
+public final class UpstreamCache<K, V> {
+
+    private final LoadingCache<K, V> cache;
+    private final Function<K, V> loader;
+
+    UpstreamCache(LoadingCache<K, V> cache, Function<K, V> loader) {
+        this.cache = cache;
+        this.loader = loader;
+    }
+
+    /**
+     * Devuelve el valor cacheado o lo lee del upstream.
+     * Los errores del upstream se propagan sin cachearse.
+     */
+    public V get(K key) {
+        return cache != null ? cache.get(key) : loader.apply(key);
+    }
+
+    /**
+     * Devuelve el valor solo si ya está en caché, sin ir al upstream.
+     * @return valor cacheado, o null si no está o la caché está desactivada
+     */
+    public V getIfPresent(K key) {
+        return cache != null ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Descarta la entrada tras una escritura en el upstream.
+     */
+    public void invalidate(K key) {
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Cachés de lectura de los upstreams, configurables por entidad con upstream.cache.{entity}.*:
+ * enabled, max-size, ttl-seconds y refresh-seconds.
+ * Una entrada con más de refresh-seconds se sigue sirviendo mientras se refresca en segundo
+ * plano (refresh-ahead); a los ttl-seconds expira. Los clientes invalidan las entradas
+ * en sus métodos de alta, modificación y baja.
+ * Publica cache.* {cache=upstream.{name}} (hits, misses, evictions, tamaño).
+ * Con la caché desactivada, las lecturas concurrentes de la misma clave se agrupan
+ * con {@link SingleFlight}; Caffeine ya agrupa las cargas cuando está activa.
+ */
+@Slf4j
+@Component
+public class UpstreamCacheFactory {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    // Los refrescos hacen llamadas HTTP bloqueantes: no deben ocupar el ForkJoinPool común
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UpstreamCacheFactory(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Crea una caché read-through para una lectura de un upstream.
+     * @param entity entidad cuya configuración se usa (p. ej. "genes")
+     * @param name nombre de la caché en las métricas (p. ej. "genes.by-id")
+     * @param loader lectura en el upstream
+     * @return caché, que delega en el loader (agrupando lecturas concurrentes) si la entidad no tiene caché
+     */
+    public <K, V> UpstreamCache<K, V> create(String entity, String name, Function<K, V> loader) {
+        String prefix = "upstream.cache." + entity + ".";
+        if (!environment.getProperty(prefix + "enabled", Boolean.class, false)) {
+            // Sin caché, al menos las lecturas simultáneas del mismo id comparten la llamada
+            SingleFlight<K, V> singleFlight = new SingleFlight<>(name, meterRegistry);
+            return new UpstreamCache<>(null, key -> singleFlight.execute(key, loader));
+        }
+
+        long ttlSeconds = environment.getProperty(prefix + "ttl-seconds", Long.class, 300L);
+        long refreshSeconds = environment.getProperty(prefix + "refresh-seconds", Long.class, 60L);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty(prefix + "max-size", Long.class, 1000L))
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .executor(refreshExecutor)
+                .recordStats();
+        if (refreshSeconds > 0 && refreshSeconds < ttlSeconds) {
+            builder.refreshAfterWrite(Duration.ofSeconds(refreshSeconds));
+        }
+
+        LoadingCache<K, V> cache = builder.build(loader::apply);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "upstream." + name);
+        log.info("Upstream cache {} enabled (ttl {} s, refresh {} s)", name, ttlSeconds, refreshSeconds);
+        return new UpstreamCache<>(cache, loader);
+    }
+
+    /**
+     * Crea un agrupador de llamadas concurrentes sin caché, con sus métricas.
+     * @param name nombre en upstream.single-flight.calls (p. ej. "variants.create")
+     */
+    public <K, V> SingleFlight<K, V> singleFlight(String name) {
+        return new SingleFlight<>(name, meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+}
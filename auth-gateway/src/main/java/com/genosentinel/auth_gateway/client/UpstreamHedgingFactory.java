@@ -0,0 +1,331 @@
+package com.genosentinel.auth_gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Hedging de lecturas idempotentes, configurable por entidad con upstream.hedging.{entity}.*:
+ * enabled, percentile, min-delay-ms y budget-percent.
+ * Si el primer intento no responde antes del percentil configurado de la latencia reciente,
+ * se lanza un segundo intento; gana la primera respuesta y el otro intento se cancela.
+ * Los intentos corren en hilos virtuales: cancelarlos interrumpe la lectura del socket
+ * y la conexión se descarta. Los hedges no superan budget-percent de las lecturas.
+ * Publica upstream.hedging.latency {name, type=call|attempt}, upstream.hedging.delay {name}
+ * (el retardo actual del hedge) y upstream.hedging.calls {name, result=...}.
+ * La mejora se mide con el p99 de "call": "attempt" incluye las muestras censuradas de los
+ * intentos cancelados, que son cotas inferiores y no latencias reales de un intento.
+ */
+@Slf4j
+@Component
+public class UpstreamHedgingFactory {
+
+    /** Muestras necesarias antes de empezar a hacer hedging. */
+    private static final int MIN_SAMPLES = 50;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public UpstreamHedgingFactory(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Envuelve una lectura con la política de hedging de la entidad.
+     * @param entity entidad cuya configuración se usa (p. ej. "reports")
+     * @param read lectura idempotente en el upstream
+     * @return la misma lectura si la entidad no tiene hedging
+     */
+    public <K, V> Function<K, V> wrap(String entity, Function<K, V> read) {
+        String prefix = "upstream.hedging." + entity + ".";
+        if (!environment.getProperty(prefix + "enabled", Boolean.class, false)) {
+            return read;
+        }
+        Policy policy = new Policy(entity,
+                environment.getProperty(prefix + "percentile", Double.class, 95.0),
+                environment.getProperty(prefix + "min-delay-ms", Long.class, 20L),
+                environment.getProperty(prefix + "budget-percent", Double.class, 10.0));
+        log.info("Hedging enabled for {} (p{}, budget {}%)", entity, policy.percentile, policy.budget.percent);
+        return key -> policy.call(() -> read.apply(key));
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private final class Policy {
+
+        private final double percentile;
+        private final long minDelayNanos;
+        private final LatencyWindow latencies = new LatencyWindow(1024);
+        private final HedgeBudget budget;
+        private final Timer callLatency;
+        private final Timer attemptLatency;
+        private final Counter unhedged;
+        private final Counter hedged;
+        private final Counter hedgeWon;
+        private final Counter budgetExhausted;
+
+        private Policy(String name, double percentile, long minDelayMillis, double budgetPercent) {
+            this.percentile = percentile;
+            this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+            this.budget = new HedgeBudget(budgetPercent);
+            this.callLatency = latency(name, "call");
+            this.attemptLatency = latency(name, "attempt");
+            this.unhedged = calls(name, "unhedged");
+            this.hedged = calls(name, "hedged");
+            this.hedgeWon = calls(name, "hedge-won");
+            this.budgetExhausted = calls(name, "budget-exhausted");
+            TimeGauge.builder("upstream.hedging.delay", this, TimeUnit.NANOSECONDS, policy -> {
+                        long delay = policy.hedgeDelay();
+                        return delay < 0 ? Double.NaN : delay;
+                    })
+                    .tag("name", name)
+                    .register(meterRegistry);
+        }
+
+        <V> V call(Supplier<V> read) {
+            long start = System.nanoTime();
+            budget.deposit();
+
+            CompletionService<V> attempts = new ExecutorCompletionService<>(executor);
+            List<Attempt<V>> started = new ArrayList<>(2);
+            try {
+                Future<V> primary = submit(attempts, read, start, started);
+
+                long delay = hedgeDelay();
+                Future<V> first = delay < 0 ? null : attempts.poll(delay, TimeUnit.NANOSECONDS);
+                if (first == null && delay >= 0) {
+                    if (budget.withdraw()) {
+                        hedged.increment();
+                        submit(attempts, read, start, started);
+                    } else {
+                        budgetExhausted.increment();
+                    }
+                }
+                if (started.size() == 1) {
+                    unhedged.increment();
+                }
+                if (first == null) {
+                    first = attempts.take();
+                }
+
+                try {
+                    V value = first.get();
+                    if (first != primary) {
+                        hedgeWon.increment();
+                    }
+                    return value;
+                } catch (ExecutionException e) {
+                    // Un error definitivo del upstream (4xx) no mejora con el otro intento
+                    if (started.size() == 1 || isClientError(e.getCause())) {
+                        throw unwrap(e);
+                    }
+                    Future<V> other = attempts.take();
+                    if (other != primary) {
+                        hedgeWon.increment();
+                    }
+                    return other.get();
+                }
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for upstream", e);
+            } finally {
+                started.forEach(Attempt::cancel);
+                callLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * @return espera antes del hedge en nanosegundos, o -1 si aún no hay muestras suficientes
+         */
+        private long hedgeDelay() {
+            long delay = latencies.percentile(percentile, MIN_SAMPLES);
+            return delay < 0 ? -1 : Math.max(delay, minDelayNanos);
+        }
+
+        private <V> Future<V> submit(CompletionService<V> attempts, Supplier<V> read, long callStart,
+                                     List<Attempt<V>> started) {
+            Attempt<V> attempt = new Attempt<>(read, callStart);
+            attempt.future = attempts.submit(attempt);
+            started.add(attempt);
+            return attempt.future;
+        }
+
+        private Timer latency(String name, String type) {
+            return Timer.builder("upstream.hedging.latency")
+                    .tag("name", name)
+                    .tag("type", type)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        private Counter calls(String name, String result) {
+            return Counter.builder("upstream.hedging.calls")
+                    .tag("name", name)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Un intento de la llamada. Los que terminan (bien o con error) registran su propia duración.
+         * Los que se cancelan registran una muestra censurada desde el inicio de la llamada: la
+         * respuesta tardaba al menos eso. Medidos desde su propio inicio, un hedge cancelado justo
+         * después de lanzarse dejaría una muestra casi nula y el percentil (y con él el retardo del
+         * hedge) bajaría con cada hedge perdido; descartarlos dejaría fuera la cola lenta.
+         */
+        private final class Attempt<V> implements Callable<V> {
+
+            private final Supplier<V> read;
+            private final long callStart;
+            private final AtomicBoolean recorded = new AtomicBoolean();
+            private Future<V> future;
+
+            private Attempt(Supplier<V> read, long callStart) {
+                this.read = read;
+                this.callStart = callStart;
+            }
+
+            @Override
+            public V call() {
+                long start = System.nanoTime();
+                try {
+                    return read.get();
+                } finally {
+                    record(System.nanoTime() - start);
+                }
+            }
+
+            void cancel() {
+                if (future.cancel(true)) {
+                    record(System.nanoTime() - callStart);
+                }
+            }
+
+            /** Una sola muestra por intento: la cancelación y el final del intento pueden cruzarse. */
+            private void record(long nanos) {
+                if (recorded.compareAndSet(false, true)) {
+                    latencies.record(nanos);
+                    attemptLatency.record(nanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof HttpClientErrorException
+                || (e instanceof ResponseStatusException status && status.getStatusCode().is4xxClientError());
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    /**
+     * Latencias de los últimos intentos (también los fallidos y, censurados, los cancelados), en un buffer circular.
+     * El percentil se recalcula cada 64 muestras para no ordenar en cada lectura.
+     */
+    static final class LatencyWindow {
+
+        private final long[] samples;
+        private int next;
+        private int count;
+        private int sinceSort;
+        private long[] sorted = new long[0];
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceSort++;
+        }
+
+        /**
+         * @return percentil en nanosegundos, o -1 si aún no hay minSamples muestras
+         */
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (sinceSort >= 64 || sorted.length == 0) {
+                sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                sinceSort = 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+
+    /**
+     * Presupuesto de hedges: cada lectura deposita percent/100 de token (hasta un máximo)
+     * y cada hedge gasta uno, así los hedges no superan ese porcentaje del tráfico.
+     */
+    static final class HedgeBudget {
+
+        private static final long TOKEN = 1000;
+        private static final long MAX_TOKENS = 10 * TOKEN;
+
+        private final double percent;
+        private final long perRequest;
+        private final AtomicLong balance = new AtomicLong();
+
+        HedgeBudget(double percent) {
+            this.percent = percent;
+            this.perRequest = Math.round(percent / 100.0 * TOKEN);
+        }
+
+        void deposit() {
+            balance.accumulateAndGet(perRequest, (current, delta) -> Math.min(current + delta, MAX_TOKENS));
+        }
+
+        boolean withdraw() {
+            long current;
+            do {
+                current = balance.get();
+                if (current < TOKEN) {
+                    return false;
+                }
+            } while (!balance.compareAndSet(current, current - TOKEN));
+            return true;
+        }
+    }
+}
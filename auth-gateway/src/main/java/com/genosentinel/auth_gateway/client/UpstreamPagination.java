@@ -0,0 +1,115 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.PageResponse;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriBuilder;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traduce una {@link PageWindow} a la convención de paginación de cada upstream
+ * y normaliza la respuesta a {@link PageResponse}.
+ * Una respuesta con envoltorio (results/data/items + count/total) es una página del upstream.
+ * Un array plano significa que el upstream no pagina (p. ej. DRF sin DEFAULT_PAGINATION_CLASS)
+ * y devolvió la colección completa: la página se recorta en el gateway.
+ */
+public final class UpstreamPagination {
+
+    /** Convención de paginación del upstream. */
+    public enum Style {
+        /** Django REST Framework LimitOffsetPagination: ?limit=N&offset=M. */
+        LIMIT_OFFSET,
+        /** NestJS: ?page=P&limit=N, con P desde 1. */
+        PAGE
+    }
+
+    private UpstreamPagination() {
+    }
+
+    public static <T> PageResponse<T> fetch(
+            RestClient restClient,
+            ObjectMapper objectMapper,
+            String path,
+            Style style,
+            PageWindow window,
+            Class<T> itemType) {
+        JsonNode body = restClient.get()
+                .uri(builder -> pageUri(builder, path, style, window))
+                .retrieve()
+                .body(JsonNode.class);
+
+        return toPage(body, window, objectMapper, itemType);
+    }
+
+    /**
+     * URI de una ventana según la convención del upstream.
+     */
+    static URI pageUri(UriBuilder builder, String path, Style style, PageWindow window) {
+        builder.path(path);
+        if (style == Style.LIMIT_OFFSET) {
+            builder.queryParam("limit", window.limit())
+                    .queryParam("offset", window.offset());
+        } else {
+            builder.queryParam("page", window.page())
+                    .queryParam("limit", window.limit());
+        }
+        return builder.build();
+    }
+
+    static <T> PageResponse<T> toPage(
+            JsonNode body, PageWindow window, ObjectMapper objectMapper, Class<T> itemType) {
+        JsonNode items;
+        Long total;
+        int from;
+        if (body != null && body.isArray()) {
+            // Colección completa: se recorta la ventana localmente
+            items = body;
+            total = (long) body.size();
+            from = Math.min(window.offset(), body.size());
+        } else {
+            items = body == null ? null : firstArray(body, "results", "data", "items");
+            total = body == null ? null : total(body);
+            from = 0;
+        }
+        if (items == null) {
+            items = objectMapper.createArrayNode();
+        }
+
+        int to = Math.min(from + window.limit(), items.size());
+        List<T> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(objectMapper.convertValue(items.get(i), itemType));
+        }
+
+        // Sin total, una página llena puede tener continuación
+        boolean hasNext = total != null
+                ? window.offset() + page.size() < total
+                : page.size() == window.limit();
+
+        return new PageResponse<>(page, window.limit(), hasNext ? window.nextCursor() : null, null, total);
+    }
+
+    private static JsonNode firstArray(JsonNode body, String... fields) {
+        for (String field : fields) {
+            JsonNode node = body.get(field);
+            if (node != null && node.isArray()) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static Long total(JsonNode body) {
+        for (JsonNode candidate : new JsonNode[] {
+                body.get("count"), body.get("total"), body.at("/meta/total"), body.at("/meta/totalItems")}) {
+            if (candidate != null && candidate.isIntegralNumber()) {
+                return candidate.longValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.genosentinel.auth_gateway.client;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Proxy de paso para rutas que no transforman la respuesta del upstream.
+ * Copia los bytes del cuerpo directamente al output stream del servlet con un
+ * buffer de tamaño fijo, sin deserializar a DTOs: el heap del gateway no crece
+ * con el tamaño de la lista.
+ * Reenvía If-None-Match al upstream y su ETag al cliente, de modo que un 304 del
+ * upstream llega al cliente sin cuerpo.
+ */
+@Slf4j
+public final class UpstreamPassThrough {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private UpstreamPassThrough() {
+    }
+
+    /**
+     * Hace GET al upstream y copia estado, Content-Type, Content-Length, ETag y cuerpo a la respuesta.
+     * @param restClient cliente del upstream
+     * @param uri ruta relativa a la URL base del upstream
+     * @param source petición del gateway (If-None-Match)
+     * @param target respuesta del gateway
+     * @param upstreamName nombre del upstream para logs y mensajes de error
+     * @throws ResponseStatusException si el upstream responde con error
+     */
+    public static void get(RestClient restClient, String uri, HttpServletRequest source,
+                           HttpServletResponse target, String upstreamName) {
+        String ifNoneMatch = source.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+        // exchange() no aplica los defaultStatusHandler: los errores se traducen aquí
+        restClient.get()
+                .uri(uri)
+                .headers(headers -> {
+                    if (ifNoneMatch != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                })
+                .exchange((request, response) -> {
+                    HttpStatusCode status = response.getStatusCode();
+                    if (status.isError()) {
+                        throw upstreamError(response, status, upstreamName);
+                    }
+                    copy(response, target);
+                    return null;
+                });
+    }
+
+    private static void copy(ClientHttpResponse upstream, HttpServletResponse target) throws IOException {
+        HttpHeaders headers = upstream.getHeaders();
+        target.setStatus(upstream.getStatusCode().value());
+        if (headers.getContentType() != null) {
+            target.setContentType(headers.getContentType().toString());
+        }
+        if (headers.getContentLength() >= 0) {
+            target.setContentLengthLong(headers.getContentLength());
+        }
+        if (headers.getETag() != null) {
+            target.setHeader(HttpHeaders.ETAG, headers.getETag());
+            // Sin esto Spring Security añade no-store y el cliente no podría revalidar
+            target.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = upstream.getBody()) {
+            OutputStream out = target.getOutputStream();
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.flush();
+        }
+    }
+
+    static ResponseStatusException upstreamError(
+            ClientHttpResponse response, HttpStatusCode status, String upstreamName) throws IOException {
+        log.error("Error {} from {} on pass-through request", status.value(), upstreamName);
+
+        if (status.is4xxClientError()) {
+            // Los errores 4xx son pequeños; se conserva el detalle del upstream
+            byte[] body = response.getBody().readNBytes(200);
+            return new ResponseStatusException(status, new String(body));
+        }
+        return new ResponseStatusException(status, "Error en el servidor de " + upstreamName);
+    }
+}
@@ -0,0 +1,246 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorre un listado completo de un upstream como {@link Stream}, en memoria constante.
+ * Cada página se parsea de forma incremental con {@link JsonParser}, elemento a elemento,
+ * y la paginación se sigue de forma transparente. Un hilo virtual produce los elementos
+ * en una cola acotada al tamaño de página, así que va como mucho una página por delante
+ * del consumidor (la siguiente página se pide mientras se consume la actual).
+ * Cerrar el stream (try-with-resources) detiene al productor y libera la conexión.
+ */
+@Slf4j
+public final class UpstreamStream<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Object END = new Object();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final String path;
+    private final UpstreamPagination.Style style;
+    private final int pageSize;
+    private final Class<T> itemType;
+    private final String upstreamName;
+    private final BlockingQueue<Object> queue;
+    private final Thread producer;
+
+    private volatile boolean closed;
+    private volatile ClientHttpResponse currentResponse;
+    private Object next;
+
+    private UpstreamStream(RestClient restClient, ObjectMapper objectMapper, String path,
+                           UpstreamPagination.Style style, int pageSize, Class<T> itemType, String upstreamName) {
+        this.restClient = restClient;
+        this.objectMapper = objectMapper;
+        this.path = path;
+        this.style = style;
+        this.pageSize = pageSize;
+        this.itemType = itemType;
+        this.upstreamName = upstreamName;
+        this.queue = new ArrayBlockingQueue<>(pageSize + 1);
+        this.producer = Thread.ofVirtual()
+                .name("upstream-stream-" + THREAD_COUNTER.incrementAndGet())
+                .start(this::produce);
+    }
+
+    /**
+     * Abre un stream perezoso sobre todas las páginas del listado.
+     * @param path ruta del listado en el upstream
+     * @param style convención de paginación del upstream
+     * @param pageSize elementos por página pedida al upstream
+     * @param itemType tipo de cada elemento
+     * @param upstreamName nombre del upstream para mensajes de error
+     * @return stream que debe cerrarse (try-with-resources)
+     */
+    public static <T> Stream<T> open(RestClient restClient, ObjectMapper objectMapper, String path,
+                                     UpstreamPagination.Style style, int pageSize, Class<T> itemType,
+                                     String upstreamName) {
+        UpstreamStream<T> iterator =
+                new UpstreamStream<>(restClient, objectMapper, path, style, pageSize, itemType, upstreamName);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(iterator::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while waiting for " + upstreamName, e);
+            }
+        }
+        if (next instanceof Failure failure) {
+            close();
+            throw failure.exception();
+        }
+        return next != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T item = (T) next;
+        next = null;
+        return item;
+    }
+
+    /**
+     * Detiene al productor y cierra la respuesta en curso; la conexión vuelve al pool o se descarta.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ClientHttpResponse response = currentResponse;
+        if (response != null) {
+            response.close();
+        }
+        producer.interrupt();
+        queue.clear();
+        next = END;
+    }
+
+    private void produce() {
+        try {
+            PageWindow window = new PageWindow(0, pageSize);
+            boolean more = true;
+            while (more && !closed) {
+                PageWindow current = window;
+                more = Boolean.TRUE.equals(restClient.get()
+                        .uri(builder -> UpstreamPagination.pageUri(builder, path, style, current))
+                        .exchange((request, response) -> readPage(response, current)));
+                window = new PageWindow(window.offset() + window.limit(), window.limit());
+            }
+            put(END);
+        } catch (InterruptedException e) {
+            // close(): el consumidor ya no espera más elementos
+        } catch (RuntimeException e) {
+            if (!closed) {
+                offerFailure(e);
+            }
+        }
+    }
+
+    /**
+     * Parsea una página elemento a elemento y la encola.
+     * @return true si hay otra página
+     */
+    private boolean readPage(ClientHttpResponse response, PageWindow window) throws IOException {
+        HttpStatusCode status = response.getStatusCode();
+        if (status.isError()) {
+            throw UpstreamPassThrough.upstreamError(response, status, upstreamName);
+        }
+
+        currentResponse = response;
+        try (InputStream body = response.getBody();
+             JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                // Array plano: el upstream no pagina y devuelve la colección completa
+                readItems(parser);
+                return false;
+            }
+            if (first != JsonToken.START_OBJECT) {
+                return false;
+            }
+
+            int count = 0;
+            Long total = null;
+            boolean nextLink = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "results", "data", "items" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            count = readItems(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "count", "total" -> total = value.isNumeric() ? parser.getLongValue() : total;
+                    case "next" -> nextLink = value == JsonToken.VALUE_STRING;
+                    case "meta" -> {
+                        JsonNode meta = objectMapper.readTree(parser);
+                        JsonNode metaTotal = meta.has("total") ? meta.get("total") : meta.get("totalItems");
+                        if (metaTotal != null && metaTotal.isIntegralNumber()) {
+                            total = metaTotal.longValue();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (total != null) {
+                return window.offset() + count < total;
+            }
+            return nextLink || (count > 0 && count == window.limit());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stream closed", e);
+        } finally {
+            currentResponse = null;
+        }
+    }
+
+    private int readItems(JsonParser parser) throws IOException, InterruptedException {
+        int count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            put(objectMapper.readValue(parser, itemType));
+            count++;
+        }
+        return count;
+    }
+
+    private void put(Object item) throws InterruptedException {
+        if (closed) {
+            throw new InterruptedException("Stream closed");
+        }
+        queue.put(item);
+    }
+
+    private void offerFailure(RuntimeException e) {
+        log.error("Streaming from {} failed: {}", upstreamName, e.getMessage());
+        // Detrás de los elementos ya encolados: el consumidor los recibe y luego ve el error.
+        // Si cierra antes, close() interrumpe la espera.
+        try {
+            put(new Failure(e));
+        } catch (InterruptedException closed) {
+            // close(): el consumidor ya no espera más elementos
+        }
+    }
+
+    private record Failure(RuntimeException exception) {
+    }
+}
@@ -0,0 +1,429 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.genosentinel.auth_gateway.dto.genomic.GeneticVariantDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Índice en memoria de las variantes genéticas por cromosoma y posición.
+ * Cada cromosoma es un array ordenado de posiciones (long[]) con sus variantes alineadas:
+ * una consulta por región es una búsqueda binaria más el recorrido de las coincidencias.
+ * Las consultas leen una instantánea inmutable sin bloqueo.
+ * Las escrituras no reordenan el cromosoma: van a un delta pequeño (variantes nuevas o movidas),
+ * que se mantiene ordenado insertando cada variante en su sitio, y a la lista ordenada de índices
+ * ocultos de la base; la consulta combina las tres. Publicar un cromosoma no copia ni ordena nada:
+ * la vista reutiliza los arrays, que nunca se modifican. Cada escritura copia el delta (O(d)) y cada
+ * compactación la base (O(n)), así que el delta se compacta al pasar de max(256, √n) entradas:
+ * el coste por escritura queda en O(√n) en lugar de crecer con todas las anteriores.
+ * Las altas sueltas simultáneas (las de una carga de VCF) se aplican juntas con {@link #upsertAll}.
+ */
+final class VariantRegionIndex {
+
+    private static final Comparator<GeneticVariantDto> BY_POSITION =
+            Comparator.comparingLong(GeneticVariantDto::getPosition);
+    private static final int MIN_COMPACTION_THRESHOLD = 256;
+    private static final int[] NONE = new int[0];
+
+    /** Estado mutable de cada cromosoma; solo se usa bajo el monitor del índice. */
+    private final Map<String, Shard> shards = new HashMap<>();
+    /** Versión indexada de cada variante, para localizarla (cromosoma y posición) al moverla o quitarla. */
+    private final Map<UUID, GeneticVariantDto> indexed = new HashMap<>();
+    /** Altas sueltas a la espera del monitor; las aplica quien lo tome primero. */
+    private final Queue<GeneticVariantDto> queued = new ConcurrentLinkedQueue<>();
+    /**
+     * Escrituras recibidas durante una carga completa (GeneticVariantDto = alta o modificación,
+     * UUID = baja); se vuelven a aplicar sobre el catálogo cargado. Null si no hay carga en curso.
+     */
+    private List<Object> journal;
+
+    private volatile Map<String, Chromosome> snapshot = Map.of();
+    private volatile int size;
+    private volatile boolean loaded;
+
+    /**
+     * Variantes de la región ordenadas por posición.
+     */
+    List<GeneticVariantDto> query(GenomicRegion region) {
+        Chromosome chromosome = snapshot.get(GenomicRegion.key(region.chromosome()));
+        return chromosome == null ? List.of() : chromosome.range(region.start(), region.end());
+    }
+
+    /**
+     * Busca la variante de un sitio y alelos concretos (ref/alt sin distinguir mayúsculas).
+     * @return la variante, o null si no está indexada
+     */
+    GeneticVariantDto findVariant(String chromosome, long position, String referenceBase, String alternateBase) {
+        Chromosome indexed = snapshot.get(GenomicRegion.key(chromosome));
+        if (indexed == null) {
+            return null;
+        }
+        for (GeneticVariantDto variant : indexed.range(position, position)) {
+            if (referenceBase.equalsIgnoreCase(variant.getReferenceBase())
+                    && alternateBase.equalsIgnoreCase(variant.getAlternateBase())) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica si ya se cargó el catálogo completo al menos una vez.
+     */
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Número de variantes indexadas.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empieza una carga completa: a partir de aquí las escrituras se anotan para aplicarlas
+     * de nuevo sobre el catálogo, que puede haberse leído antes que ellas.
+     * Debe terminar con {@link #replaceAll} o {@link #abortFullLoad}.
+     */
+    synchronized void beginFullLoad() {
+        journal = new ArrayList<>();
+    }
+
+    /**
+     * Descarta la carga completa en curso; el índice conserva su contenido.
+     */
+    synchronized void abortFullLoad() {
+        journal = null;
+    }
+
+    /**
+     * Sustituye el contenido por el catálogo completo (recoge también los borrados) y vuelve
+     * a aplicar las escrituras anotadas desde {@link #beginFullLoad}.
+     */
+    synchronized void replaceAll(Collection<GeneticVariantDto> catalogue) {
+        List<Object> pending = journal;
+        journal = null;
+
+        Map<String, List<GeneticVariantDto>> byChromosome = new HashMap<>();
+        indexed.clear();
+        for (GeneticVariantDto variant : catalogue) {
+            if (indexable(variant) && indexed.putIfAbsent(variant.getId(), variant) == null) {
+                byChromosome.computeIfAbsent(GenomicRegion.key(variant.getChromosome()), ignored -> new ArrayList<>())
+                        .add(variant);
+            }
+        }
+        shards.clear();
+        byChromosome.forEach((key, variants) -> shards.put(key, new Shard(Chromosome.of(variants))));
+
+        Set<String> touched = new HashSet<>(shards.keySet());
+        if (pending != null) {
+            for (Object write : pending) {
+                if (write instanceof GeneticVariantDto variant) {
+                    apply(variant, touched);
+                } else {
+                    apply((UUID) write, touched);
+                }
+            }
+        }
+        publish(touched, Map.of());
+        loaded = true;
+    }
+
+    /**
+     * Añade o actualiza variantes (altas y modificaciones, o un refresco incremental).
+     */
+    synchronized void upsertAll(Collection<GeneticVariantDto> changed) {
+        Set<String> touched = new HashSet<>();
+        applyQueued(touched);
+        for (GeneticVariantDto variant : changed) {
+            upsert(variant, touched);
+        }
+        publish(touched, snapshot);
+    }
+
+    /**
+     * Alta o modificación suelta. Las que llegan a la vez se agrupan: quien toma el monitor aplica
+     * también las que esperan y publica una sola vez. Al volver, la variante ya es visible.
+     */
+    void upsert(GeneticVariantDto variant) {
+        queued.add(variant);
+        synchronized (this) {
+            // Vacía si otro hilo ya la aplicó junto con las suyas
+            if (!queued.isEmpty()) {
+                upsertAll(List.of());
+            }
+        }
+    }
+
+    synchronized void remove(UUID id) {
+        Set<String> touched = new HashSet<>();
+        // Las altas encoladas antes que esta baja se aplican antes
+        applyQueued(touched);
+        if (journal != null) {
+            journal.add(id);
+        }
+        apply(id, touched);
+        publish(touched, snapshot);
+    }
+
+    private void applyQueued(Set<String> touched) {
+        for (GeneticVariantDto variant; (variant = queued.poll()) != null; ) {
+            upsert(variant, touched);
+        }
+    }
+
+    private void upsert(GeneticVariantDto variant, Set<String> touched) {
+        if (variant.getId() == null) {
+            return;
+        }
+        if (journal != null) {
+            journal.add(variant);
+        }
+        apply(variant, touched);
+    }
+
+    private void apply(GeneticVariantDto variant, Set<String> touched) {
+        apply(variant.getId(), touched);
+        if (!indexable(variant)) {
+            return;
+        }
+        String key = GenomicRegion.key(variant.getChromosome());
+        shards.computeIfAbsent(key, ignored -> new Shard(Chromosome.EMPTY)).add(variant);
+        indexed.put(variant.getId(), variant);
+        touched.add(key);
+    }
+
+    private void apply(UUID id, Set<String> touched) {
+        GeneticVariantDto current = indexed.remove(id);
+        if (current == null) {
+            return;
+        }
+        String key = GenomicRegion.key(current.getChromosome());
+        shards.get(key).remove(current);
+        touched.add(key);
+    }
+
+    private void publish(Set<String> touched, Map<String, Chromosome> current) {
+        if (touched.isEmpty()) {
+            return;
+        }
+        Map<String, Chromosome> next = new HashMap<>(current);
+        for (String key : touched) {
+            Shard shard = shards.get(key);
+            if (shard.count() == 0) {
+                shards.remove(key);
+                next.remove(key);
+            } else {
+                if (shard.needsCompaction()) {
+                    shard.compact();
+                }
+                next.put(key, shard.view());
+            }
+        }
+        snapshot = Map.copyOf(next);
+        size = indexed.size();
+    }
+
+    private static boolean indexable(GeneticVariantDto variant) {
+        return variant.getId() != null && variant.getChromosome() != null && variant.getPosition() != null;
+    }
+
+    /**
+     * Cromosoma en construcción: base ordenada, delta ordenado de altas/modificaciones e índices
+     * ocultos de la base. Los arrays se sustituyen, nunca se modifican: las vistas publicadas los comparten.
+     */
+    private static final class Shard {
+
+        private Chromosome base;
+        private Chromosome delta = Chromosome.EMPTY;
+        private int[] hidden = NONE;
+
+        Shard(Chromosome base) {
+            this.base = base;
+        }
+
+        /** Variantes visibles: base sin ocultos más delta. */
+        int count() {
+            return base.positions.length - hidden.length + delta.positions.length;
+        }
+
+        void add(GeneticVariantDto variant) {
+            delta = delta.inserting(variant);
+        }
+
+        /**
+         * Quita la versión indexada de una variante: del delta si está ahí o, si no, la oculta en la base.
+         */
+        void remove(GeneticVariantDto current) {
+            int inDelta = delta.indexOf(current);
+            if (inDelta >= 0) {
+                delta = delta.removing(inDelta);
+                return;
+            }
+            int inBase = base.indexOf(current);
+            if (inBase >= 0) {
+                int at = -Arrays.binarySearch(hidden, inBase) - 1;
+                int[] next = new int[hidden.length + 1];
+                System.arraycopy(hidden, 0, next, 0, at);
+                next[at] = inBase;
+                System.arraycopy(hidden, at, next, at + 1, hidden.length - at);
+                hidden = next;
+            }
+        }
+
+        boolean needsCompaction() {
+            return delta.positions.length + hidden.length
+                    > Math.max(MIN_COMPACTION_THRESHOLD, (int) Math.sqrt(base.positions.length));
+        }
+
+        void compact() {
+            base = view().flatten();
+            delta = Chromosome.EMPTY;
+            hidden = NONE;
+        }
+
+        Chromosome view() {
+            if (delta.positions.length == 0 && hidden.length == 0) {
+                return base;
+            }
+            return new Chromosome(base.positions, base.variants, hidden, delta);
+        }
+    }
+
+    /**
+     * Variantes de un cromosoma ordenadas por posición; positions[i] es la posición de variants[i].
+     * Una vista con escrituras pendientes salta los índices de hidden (ordenados) y mezcla el delta,
+     * también ordenado.
+     */
+    private record Chromosome(long[] positions, GeneticVariantDto[] variants, int[] hidden, Chromosome delta) {
+
+        static final Chromosome EMPTY = new Chromosome(new long[0], new GeneticVariantDto[0], NONE, null);
+
+        static Chromosome of(Collection<GeneticVariantDto> variants) {
+            GeneticVariantDto[] sorted = variants.toArray(GeneticVariantDto[]::new);
+            Arrays.sort(sorted, BY_POSITION);
+            long[] positions = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                positions[i] = sorted[i].getPosition();
+            }
+            return new Chromosome(positions, sorted, NONE, null);
+        }
+
+        /**
+         * Copia con la variante insertada tras las de su misma posición.
+         */
+        Chromosome inserting(GeneticVariantDto variant) {
+            long position = variant.getPosition();
+            int at = lowerBound(position);
+            while (at < positions.length && positions[at] == position) {
+                at++;
+            }
+            long[] nextPositions = new long[positions.length + 1];
+            GeneticVariantDto[] nextVariants = new GeneticVariantDto[positions.length + 1];
+            System.arraycopy(positions, 0, nextPositions, 0, at);
+            System.arraycopy(variants, 0, nextVariants, 0, at);
+            nextPositions[at] = position;
+            nextVariants[at] = variant;
+            System.arraycopy(positions, at, nextPositions, at + 1, positions.length - at);
+            System.arraycopy(variants, at, nextVariants, at + 1, positions.length - at);
+            return new Chromosome(nextPositions, nextVariants, NONE, null);
+        }
+
+        Chromosome removing(int index) {
+            long[] nextPositions = new long[positions.length - 1];
+            GeneticVariantDto[] nextVariants = new GeneticVariantDto[positions.length - 1];
+            System.arraycopy(positions, 0, nextPositions, 0, index);
+            System.arraycopy(variants, 0, nextVariants, 0, index);
+            System.arraycopy(positions, index + 1, nextPositions, index, positions.length - index - 1);
+            System.arraycopy(variants, index + 1, nextVariants, index, positions.length - index - 1);
+            return new Chromosome(nextPositions, nextVariants, NONE, null);
+        }
+
+        /**
+         * Índice de la variante (por id, en su posición), o -1 si no está en este array.
+         */
+        int indexOf(GeneticVariantDto variant) {
+            long position = variant.getPosition();
+            for (int i = lowerBound(position); i < positions.length && positions[i] == position; i++) {
+                if (variants[i].getId().equals(variant.getId())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        List<GeneticVariantDto> range(long start, long end) {
+            List<GeneticVariantDto> result = new ArrayList<>();
+            int i = lowerBound(start);
+            if (delta == null) {
+                for (; i < positions.length && positions[i] <= end; i++) {
+                    result.add(variants[i]);
+                }
+                return result;
+            }
+            int j = delta.lowerBound(start);
+            int h = Arrays.binarySearch(hidden, i);
+            if (h < 0) {
+                h = -h - 1;
+            }
+            while (true) {
+                while (h < hidden.length && hidden[h] < i) {
+                    h++;
+                }
+                while (i < positions.length && positions[i] <= end && h < hidden.length && hidden[h] == i) {
+                    i++;
+                    h++;
+                }
+                boolean fromBase = i < positions.length && positions[i] <= end;
+                boolean fromDelta = j < delta.positions.length && delta.positions[j] <= end;
+                if (fromBase && (!fromDelta || positions[i] <= delta.positions[j])) {
+                    result.add(variants[i++]);
+                } else if (fromDelta) {
+                    result.add(delta.variants[j++]);
+                } else {
+                    return result;
+                }
+            }
+        }
+
+        /**
+         * Vista sin delta ni ocultos: la mezcla ya ordenada, sin volver a ordenar.
+         */
+        Chromosome flatten() {
+            List<GeneticVariantDto> merged = range(Long.MIN_VALUE, Long.MAX_VALUE);
+            long[] mergedPositions = new long[merged.size()];
+            for (int k = 0; k < mergedPositions.length; k++) {
+                mergedPositions[k] = merged.get(k).getPosition();
+            }
+            return new Chromosome(mergedPositions, merged.toArray(GeneticVariantDto[]::new), NONE, null);
+        }
+
+        /**
+         * Primer índice con posición >= start (las posiciones pueden repetirse).
+         */
+        private int lowerBound(long start) {
+            int low = 0;
+            int high = positions.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (positions[mid] < start) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.genosentinel.auth_gateway.dto.genomic.GeneticVariantDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Mantiene al día el índice de variantes por región de {@link DjangoGenomicClient}.
+ * El primer refresco (al arrancar) y uno cada full-refresh-seconds cargan el catálogo completo,
+ * lo que recoge también las variantes borradas fuera del gateway. Entre medias solo se piden
+ * las variantes con updated_at reciente. Las altas, modificaciones y bajas hechas a través
+ * del gateway se aplican al instante desde el propio cliente; las que llegan durante una carga
+ * completa se vuelven a aplicar sobre el catálogo cargado.
+ * Corre en un hilo propio que arranca con ApplicationReadyEvent: una carga completa tarda segundos
+ * y no debe ocupar el hilo compartido de @Scheduled (registro de revocaciones, purgas).
+ */
+@Slf4j
+@Component
+public class VariantRegionRefresher {
+
+    private final DjangoGenomicClient genomicClient;
+    private final long refreshMillis;
+    private final Duration fullRefresh;
+    private final Duration overlap;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("region-index-refresh").daemon().factory());
+
+    /** Mayor updated_at leído; el siguiente refresco incremental parte de aquí (menos el solape). */
+    private volatile Instant lastSeen;
+    private volatile Instant lastFullRefresh;
+
+    public VariantRegionRefresher(
+            DjangoGenomicClient genomicClient,
+            MeterRegistry meterRegistry,
+            @Value("${genomic.region-index.refresh-millis:30000}") long refreshMillis,
+            @Value("${genomic.region-index.full-refresh-seconds:600}") long fullRefreshSeconds,
+            @Value("${genomic.region-index.overlap-seconds:30}") long overlapSeconds) {
+        this.genomicClient = genomicClient;
+        this.refreshMillis = refreshMillis;
+        this.fullRefresh = Duration.ofSeconds(fullRefreshSeconds);
+        this.overlap = Duration.ofSeconds(overlapSeconds);
+
+        Gauge.builder("genomic.region-index.variants", genomicClient.regionIndex(), VariantRegionIndex::size)
+                .description("Variantes en el índice por región")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void refresh() {
+        VariantRegionIndex index = genomicClient.regionIndex();
+        Instant now = Instant.now();
+        try {
+            if (!index.isLoaded() || lastFullRefresh == null || lastFullRefresh.plus(fullRefresh).isBefore(now)) {
+                List<GeneticVariantDto> catalogue;
+                index.beginFullLoad();
+                try (Stream<GeneticVariantDto> variants = genomicClient.streamGeneticVariants()) {
+                    catalogue = variants.toList();
+                } catch (RuntimeException e) {
+                    index.abortFullLoad();
+                    throw e;
+                }
+                index.replaceAll(catalogue);
+                lastSeen = latest(catalogue, null);
+                lastFullRefresh = now;
+                log.info("Region index loaded: {} variants", index.size());
+            } else {
+                // El solape cubre la diferencia de reloj con Django y transacciones aún sin commit
+                Instant since = lastSeen == null ? now.minus(fullRefresh) : lastSeen.minus(overlap);
+                List<GeneticVariantDto> changed = genomicClient.getGeneticVariantsUpdatedSince(since);
+                index.upsertAll(changed);
+                lastSeen = latest(changed, lastSeen);
+                if (!changed.isEmpty()) {
+                    log.debug("Region index refreshed: {} variants changed", changed.size());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Django caído, circuito abierto o bulkhead lleno: se conserva el índice actual
+            log.warn("Could not refresh region index, keeping current state: {}", e.getMessage());
+        }
+    }
+
+    private static Instant latest(List<GeneticVariantDto> variants, Instant current) {
+        Instant max = current;
+        for (GeneticVariantDto variant : variants) {
+            if (variant.getUpdatedAt() == null) {
+                continue;
+            }
+            try {
+                Instant updatedAt = OffsetDateTime.parse(variant.getUpdatedAt()).toInstant();
+                if (max == null || updatedAt.isAfter(max)) {
+                    max = updatedAt;
+                }
+            } catch (DateTimeParseException e) {
+                log.debug("Ignoring unparseable updated_at {}", variant.getUpdatedAt());
+            }
+        }
+        return max;
+    }
+}
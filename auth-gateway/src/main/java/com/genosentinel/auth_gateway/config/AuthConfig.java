@@ -1,15 +1,18 @@
 package com.genosentinel.auth_gateway.config;
 
+import com.genosentinel.auth_gateway.entities.User;
 import com.genosentinel.auth_gateway.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 /**
  * Configuración de autenticación.
- * Define el UserDetailsService para cargar usuarios desde la BD.
+ * Define el UserDetailsService para cargar usuarios desde la BD y el
+ * UserDetailsPasswordService que persiste los hashes re-calculados.
  */
 @Configuration
 @RequiredArgsConstructor
@@ -23,4 +26,19 @@ public class AuthConfig {
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "User not found: " + username));
     }
+
+    /**
+     * Guarda el nuevo hash cuando DaoAuthenticationProvider re-hashea una contraseña
+     * (hash sin prefijo o con costo fuera de la banda calibrada).
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            User stored = userRepository.findByUsername(user.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException(
+                            "User not found: " + user.getUsername()));
+            stored.setPassword(newPassword);
+            return userRepository.save(stored);
+        };
+    }
 }
\ No newline at end of file
@@ -21,9 +21,15 @@ public class DjangoRestClientConfig {
     private String djangoBaseUrl;
 
     @Bean
-    public RestClient djangoGenomicRestClient() {
+    public RestClient djangoGenomicRestClient(
+            HttpClientPoolFactory httpClientPools,
+            UpstreamResilienceFactory upstreamResilience) {
         return RestClient.builder()
                 .baseUrl(djangoBaseUrl)
+                // Pool de conexiones con timeouts (ver django.genomic.http.* en application.properties)
+                .requestFactory(httpClientPools.create("django-genomic", djangoBaseUrl, "django.genomic.http"))
+                // Circuit breaker y bulkhead (ver django.genomic.resilience.* en application.properties)
+                .requestInterceptor(upstreamResilience.create("django-genomic", "django.genomic.resilience"))
                 .defaultHeader("Content-Type", "application/json")
                 // Manejo de errores 4xx
                 .defaultStatusHandler(
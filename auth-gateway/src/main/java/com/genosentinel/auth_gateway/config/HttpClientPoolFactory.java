@@ -0,0 +1,165 @@
+package com.genosentinel.auth_gateway.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Pools de conexiones HTTP (Apache HttpClient 5) para los microservicios downstream.
+ * Cada upstream tiene su propio pool, configurado con las propiedades {prefix}.*:
+ * max-connections, connect-timeout-ms, read-timeout-ms, response-timeout-ms,
+ * pool-acquire-timeout-ms, idle-eviction-seconds, connection-ttl-seconds,
+ * warmup-connections y warmup-path.
+ * Ninguna llamada espera sin límite: tomar una conexión del pool, conectar y leer tienen timeout.
+ * Publica http.client.pool.* {upstream=...} y abre conexiones al arrancar.
+ * Con hilos virtuales (spring.threads.virtual.enabled) el número de peticiones en vuelo
+ * deja de estar limitado por los hilos de Tomcat: max-connections pasa a ser el límite real.
+ */
+@Slf4j
+@Component
+public class HttpClientPoolFactory {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final List<Pool> pools = new CopyOnWriteArrayList<>();
+
+    public HttpClientPoolFactory(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Crea el request factory con pool para un upstream.
+     * @param name nombre del upstream (tag de las métricas)
+     * @param baseUrl URL base del upstream, usada para el warm-up
+     * @param prefix prefijo de las propiedades (p. ej. "nestjs.http")
+     * @return request factory para RestClient.Builder#requestFactory
+     */
+    public ClientHttpRequestFactory create(String name, String baseUrl, String prefix) {
+        int maxConnections = property(prefix, "max-connections", 50);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                // Un solo host por upstream: el límite total y por ruta coinciden
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(property(prefix, "connect-timeout-ms", 2000)))
+                        .setSocketTimeout(Timeout.ofMilliseconds(property(prefix, "read-timeout-ms", 10000)))
+                        .setTimeToLive(TimeValue.ofSeconds(property(prefix, "connection-ttl-seconds", 300)))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(
+                                property(prefix, "pool-acquire-timeout-ms", 1000)))
+                        .setResponseTimeout(Timeout.ofMilliseconds(
+                                property(prefix, "response-timeout-ms", 10000)))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(property(prefix, "idle-eviction-seconds", 30)))
+                .build();
+
+        Pool pool = new Pool(name, baseUrl + environment.getProperty(prefix + ".warmup-path", "/"),
+                property(prefix, "warmup-connections", 0), connectionManager, httpClient);
+        pools.add(pool);
+        registerMetrics(pool);
+
+        log.info("HTTP connection pool for {}: max {} connections", name, maxConnections);
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Abre warmup-connections conexiones por upstream en paralelo, para que
+     * las primeras peticiones no paguen el handshake. Los fallos no impiden arrancar.
+     * Cada ping bloquea en E/S: va en un hilo virtual propio y no en el ForkJoinPool común.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Pool> warmed = pools.stream().filter(pool -> pool.warmupConnections() > 0).toList();
+        // Todos los upstreams a la vez; close() espera a que terminen los pings
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Pool pool : warmed) {
+                for (int i = 0; i < pool.warmupConnections(); i++) {
+                    executor.execute(() -> ping(pool));
+                }
+            }
+        }
+        for (Pool pool : warmed) {
+            log.info("HTTP connection pool for {} warmed up: {} idle connections",
+                    pool.name(), pool.connectionManager().getTotalStats().getAvailable());
+        }
+    }
+
+    private void ping(Pool pool) {
+        try {
+            pool.httpClient().execute(new HttpGet(pool.warmupUrl()), response -> {
+                EntityUtils.consume(response.getEntity());
+                return null;
+            });
+        } catch (IOException e) {
+            log.warn("Warm-up request to {} failed: {}", pool.name(), e.getMessage());
+        }
+    }
+
+    private void registerMetrics(Pool pool) {
+        gauge("http.client.pool.leased", "Conexiones en uso", pool, PoolStats::getLeased);
+        gauge("http.client.pool.available", "Conexiones ociosas en el pool", pool, PoolStats::getAvailable);
+        gauge("http.client.pool.pending", "Peticiones esperando una conexión", pool, PoolStats::getPending);
+        gauge("http.client.pool.max", "Máximo de conexiones", pool, PoolStats::getMax);
+    }
+
+    private void gauge(String metric, String description, Pool pool, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(metric, pool.connectionManager(), manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description(description)
+                .tag("upstream", pool.name())
+                .register(meterRegistry);
+    }
+
+    private int property(String prefix, String key, int defaultValue) {
+        return environment.getProperty(prefix + "." + key, Integer.class, defaultValue);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Pool pool : pools) {
+            try {
+                pool.httpClient().close();
+            } catch (IOException e) {
+                log.warn("Could not close HTTP client for {}", pool.name(), e);
+            }
+        }
+    }
+
+    private record Pool(String name, String warmupUrl, int warmupConnections,
+                        PoolingHttpClientConnectionManager connectionManager,
+                        CloseableHttpClient httpClient) {
+    }
+}
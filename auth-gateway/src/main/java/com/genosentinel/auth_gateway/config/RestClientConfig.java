@@ -21,9 +21,15 @@ public class RestClientConfig {
     private String nestjsBaseUrl;
 
     @Bean
-    public RestClient nestJsRestClient() {
+    public RestClient nestJsRestClient(
+            HttpClientPoolFactory httpClientPools,
+            UpstreamResilienceFactory upstreamResilience) {
         return RestClient.builder()
                 .baseUrl(nestjsBaseUrl)
+                // Pool de conexiones con timeouts (ver nestjs.http.* en application.properties)
+                .requestFactory(httpClientPools.create("nestjs", nestjsBaseUrl, "nestjs.http"))
+                // Circuit breaker y bulkhead (ver nestjs.resilience.* en application.properties)
+                .requestInterceptor(upstreamResilience.create("nestjs", "nestjs.resilience"))
                 .defaultHeader("Content-Type", "application/json")
                 // Manejo de errores 4xx (400, 404, 409, etc.)
                 .defaultStatusHandler(
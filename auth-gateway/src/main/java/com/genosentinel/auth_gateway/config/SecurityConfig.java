@@ -1,7 +1,11 @@
 package com.genosentinel.auth_gateway.config;
 
+import com.genosentinel.auth_gateway.security.CalibratedPasswordEncoder;
 import com.genosentinel.auth_gateway.security.JwtAuthFilter;
+import com.genosentinel.auth_gateway.security.PasswordHashingExecutor;
+import com.genosentinel.auth_gateway.security.PublicEndpoints;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,8 +16,9 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -21,6 +26,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -35,17 +41,39 @@ public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final UserCache userCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    @Value("${auth.password.target-hash-millis:100}")
+    private long targetHashMillis;
+
+    @Value("${auth.password.min-cost:10}")
+    private int minCost;
+
+    @Value("${auth.password.max-cost:16}")
+    private int maxCost;
+
+    @Value("${auth.password.cost-band:1}")
+    private int costBand;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // El costo de BCrypt se calibra al arrancar para la latencia objetivo
+        return CalibratedPasswordEncoder.calibrate(
+                Duration.ofMillis(targetHashMillis), minCost, maxCost, costBand);
     }
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        // Solo BCrypt va al pool de hashing; la carga del usuario y el re-hash corren en el hilo del login
+        provider.setPasswordEncoder(passwordHashingExecutor.offloading(passwordEncoder(), "login"));
+        // Re-hashea y persiste los hashes desactualizados tras un login correcto
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
+        // Evita la consulta a MySQL para usuarios que iniciaron sesión recientemente
+        provider.setUserCache(userCache);
         return provider;
     }
 
@@ -62,14 +90,8 @@ public class SecurityConfig {
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        // Endpoints públicos
-                        .requestMatchers("/auth/login", "/auth/register", "/health", "/error").permitAll()
-                        // Swagger UI y OpenAPI endpoints
-                        .requestMatchers(
-                                "/v3/api-docs/**",
-                                "/swagger-ui/**",
-                                "/swagger-ui.html"
-                        ).permitAll()
+                        // Endpoints públicos, Swagger UI y OpenAPI
+                        .requestMatchers(PublicEndpoints.PATTERNS).permitAll()
                         // Todos los demás requieren autenticación
                         .anyRequest().authenticated()
                 )
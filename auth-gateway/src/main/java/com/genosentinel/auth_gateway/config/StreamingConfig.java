@@ -0,0 +1,58 @@
+package com.genosentinel.auth_gateway.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Ejecución de los endpoints en streaming (StreamingResponseBody): altas masivas de usuarios,
+ * reportes NDJSON y archivos VCF.
+ * Sin esto Spring MVC los ejecuta en el applicationTaskExecutor de Boot (8 hilos, compartido)
+ * y el contenedor los corta con su timeout async de 30 s, a mitad de una subida grande.
+ * Aquí cada subida tiene su hilo virtual y un timeout explícito (streaming.request-timeout-minutes).
+ * Los cuerpos en streaming son las únicas tareas Callable del gateway; login y registro
+ * (CompletableFuture) conservan el timeout por defecto.
+ */
+@Slf4j
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    private final SimpleAsyncTaskExecutor executor;
+    private final long timeoutMillis;
+
+    public StreamingConfig(@Value("${streaming.request-timeout-minutes:60}") long timeoutMinutes) {
+        this.executor = new SimpleAsyncTaskExecutor("streaming-");
+        this.executor.setVirtualThreads(true);
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        log.info("Streaming endpoints: virtual threads, async timeout {} min", timeoutMinutes);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Se llama antes de startAsync, cuando el timeout aún puede cambiarse
+                if (request instanceof AsyncWebRequest asyncRequest) {
+                    asyncRequest.setTimeout(timeoutMillis);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.close();
+    }
+}
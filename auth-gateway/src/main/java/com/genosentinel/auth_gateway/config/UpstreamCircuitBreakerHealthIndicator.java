@@ -0,0 +1,50 @@
+package com.genosentinel.auth_gateway.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estado de los circuit breakers y bulkheads de los upstreams en /actuator/health.
+ * Con algún breaker abierto el componente queda en DEGRADED: el gateway sigue atendiendo
+ * las rutas de los demás upstreams, así que no pasa a DOWN (ver management.endpoint.health.status.*).
+ */
+@Component
+public class UpstreamCircuitBreakerHealthIndicator implements HealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Algún upstream tiene el circuit breaker abierto");
+
+    private final UpstreamResilienceFactory resilience;
+
+    public UpstreamCircuitBreakerHealthIndicator(UpstreamResilienceFactory resilience) {
+        this.resilience = resilience;
+    }
+
+    @Override
+    public Health health() {
+        boolean degraded = false;
+        Map<String, Object> upstreams = new LinkedHashMap<>();
+        for (CircuitBreaker circuitBreaker : resilience.getCircuitBreakers().getAllCircuitBreakers()) {
+            CircuitBreaker.State state = circuitBreaker.getState();
+            CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("state", state);
+            details.put("failureRate", metrics.getFailureRate());
+            details.put("slowCallRate", metrics.getSlowCallRate());
+            details.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+            resilience.getBulkheads().find(circuitBreaker.getName())
+                    .map(Bulkhead::getMetrics)
+                    .ifPresent(bulkhead -> details.put("availableConcurrentCalls", bulkhead.getAvailableConcurrentCalls()));
+            upstreams.put(circuitBreaker.getName(), details);
+
+            degraded |= state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+        }
+        return Health.status(degraded ? DEGRADED : Status.UP).withDetails(upstreams).build();
+    }
+}
@@ -0,0 +1,182 @@
+package com.genosentinel.auth_gateway.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker y bulkhead por upstream, aplicados como interceptor del RestClient.
+ * Cada upstream se configura con {prefix}.*: max-concurrent-calls y max-wait-ms (bulkhead),
+ * failure-rate-threshold, slow-call-duration-ms, slow-call-rate-threshold, sliding-window-size,
+ * minimum-calls, open-seconds y half-open-calls (circuit breaker).
+ * El bulkhead limita las llamadas simultáneas y rechaza enseguida las que sobran, de modo
+ * que un upstream lento no acapara los hilos de Tomcat que necesitan las demás rutas.
+ * Las respuestas 5xx y los errores de E/S cuentan como fallos; las 4xx como éxitos.
+ * Publica resilience4j.circuitbreaker.* y resilience4j.bulkhead.* {name=...}.
+ */
+@Slf4j
+@Component
+public class UpstreamResilienceFactory {
+
+    private final Environment environment;
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+
+    public UpstreamResilienceFactory(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+    }
+
+    /**
+     * Crea el interceptor de circuit breaker y bulkhead de un upstream.
+     * @param name nombre del upstream (tag de las métricas y del health)
+     * @param prefix prefijo de las propiedades (p. ej. "nestjs.resilience")
+     * @return interceptor para RestClient.Builder#requestInterceptor
+     */
+    public ClientHttpRequestInterceptor create(String name, String prefix) {
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(name, CircuitBreakerConfig.custom()
+                .slidingWindowSize(property(prefix, "sliding-window-size", 50))
+                .minimumNumberOfCalls(property(prefix, "minimum-calls", 20))
+                .failureRateThreshold(property(prefix, "failure-rate-threshold", 50))
+                .slowCallDurationThreshold(Duration.ofMillis(property(prefix, "slow-call-duration-ms", 3000)))
+                .slowCallRateThreshold(property(prefix, "slow-call-rate-threshold", 80))
+                .waitDurationInOpenState(Duration.ofSeconds(property(prefix, "open-seconds", 30)))
+                .permittedNumberOfCallsInHalfOpenState(property(prefix, "half-open-calls", 5))
+                .build());
+        Bulkhead bulkhead = bulkheads.bulkhead(name, BulkheadConfig.custom()
+                .maxConcurrentCalls(property(prefix, "max-concurrent-calls", 40))
+                .maxWaitDuration(Duration.ofMillis(property(prefix, "max-wait-ms", 20)))
+                .build());
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker {}: {}", name, event.getStateTransition()));
+        return new GuardInterceptor(circuitBreaker, bulkhead);
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    public BulkheadRegistry getBulkheads() {
+        return bulkheads;
+    }
+
+    private int property(String prefix, String key, int defaultValue) {
+        return environment.getProperty(prefix + "." + key, Integer.class, defaultValue);
+    }
+
+    /**
+     * Pide permiso al breaker (CallNotPermittedException si está abierto) y al bulkhead
+     * (BulkheadFullException si no hay hueco). El permiso del bulkhead se libera al cerrar
+     * la respuesta, así que también cubre la lectura de cuerpos en streaming.
+     */
+    private record GuardInterceptor(CircuitBreaker circuitBreaker, Bulkhead bulkhead)
+            implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+                throws IOException {
+            circuitBreaker.acquirePermission();
+            try {
+                bulkhead.acquirePermission();
+            } catch (RuntimeException e) {
+                circuitBreaker.releasePermission();
+                throw e;
+            }
+
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // Intento cancelado (p. ej. el perdedor de un hedge): no es un fallo del upstream
+                    circuitBreaker.releasePermission();
+                } else {
+                    circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                }
+                bulkhead.onComplete();
+                throw e;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            HttpStatusCode status = response.getStatusCode();
+            if (status.is5xxServerError()) {
+                circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS,
+                        HttpServerErrorException.create(status, response.getStatusText(), response.getHeaders(), null, null));
+            } else {
+                circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            }
+            return new GuardedResponse(response, bulkhead);
+        }
+    }
+
+    /**
+     * Respuesta que devuelve el permiso del bulkhead una sola vez, al cerrarse.
+     */
+    private static final class GuardedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private GuardedResponse(ClientHttpResponse delegate, Bulkhead bulkhead) {
+            this.delegate = delegate;
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    bulkhead.onComplete();
+                }
+            }
+        }
+    }
+}
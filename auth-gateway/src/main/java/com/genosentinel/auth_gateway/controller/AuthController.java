@@ -1,11 +1,21 @@
 package com.genosentinel.auth_gateway.controller;
 
 import com.genosentinel.auth_gateway.dto.AuthResponse;
+import com.genosentinel.auth_gateway.dto.IntrospectionRequest;
 import com.genosentinel.auth_gateway.dto.LoginRequest;
+import com.genosentinel.auth_gateway.dto.RefreshRequest;
 import com.genosentinel.auth_gateway.dto.RegisterRequest;
+import com.genosentinel.auth_gateway.dto.TokenIntrospection;
 import com.genosentinel.auth_gateway.entities.User;
 import com.genosentinel.auth_gateway.repository.UserRepository;
 import com.genosentinel.auth_gateway.security.JwtService;
+import com.genosentinel.auth_gateway.security.PasswordHashingExecutor;
+import com.genosentinel.auth_gateway.security.PasswordHashingRejectedException;
+import com.genosentinel.auth_gateway.security.RefreshTokenStore;
+import com.genosentinel.auth_gateway.security.TokenIntrospector;
+import com.genosentinel.auth_gateway.security.VerifiedToken;
+import com.genosentinel.auth_gateway.service.BulkUserProvisioner;
+import io.jsonwebtoken.JwtException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,18 +24,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador de autenticación.
@@ -37,10 +57,17 @@ import java.util.Map;
 @Tag(name = "Authentication", description = "APIs de autenticación y gestión de usuarios")
 public class AuthController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final TokenIntrospector tokenIntrospector;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final BulkUserProvisioner bulkUserProvisioner;
+    private final RefreshTokenStore refreshTokenStore;
 
     @Operation(
             summary = "Iniciar sesión",
@@ -56,37 +83,40 @@ public class AuthController {
                     responseCode = "401",
                     description = "Credenciales inválidas",
                     content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Demasiadas solicitudes de autenticación (ver Retry-After)",
+                    content = @Content
             )
     })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getUsername(),
-                            request.getPassword()
-                    )
-            );
-        } catch (Exception e) {
-            throw new ResponseStatusException(
-                    HttpStatus.UNAUTHORIZED,
-                    "Invalid credentials");
-        }
-
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+        // Fuera del hilo de Tomcat; el provider solo manda BCrypt al pool de hashing
+        return passwordHashingExecutor.submit("login", () -> {
+            Authentication authentication;
+            try {
+                authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                request.getUsername(),
+                                request.getPassword()
+                        )
+                );
+            } catch (PasswordHashingRejectedException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ResponseStatusException(
+                        HttpStatus.UNAUTHORIZED,
+                        "Invalid credentials");
+            }
 
-        String token = jwtService.generateToken(user.getUsername(), user.getRole());
+            // El principal autenticado ya es la entidad User: no se vuelve a consultar la BD
+            User user = (User) authentication.getPrincipal();
 
-        AuthResponse response = new AuthResponse(
-                token,
-                user.getUsername(),
-                user.getEmail(),
-                user.getRole()
-        );
+            AuthResponse response = issueTokens(user);
 
-        return ResponseEntity.ok(response);
+            return ResponseEntity.ok(response);
+        });
     }
 
     @Operation(
@@ -102,44 +132,156 @@ public class AuthController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "El nombre de usuario ya existe",
+                    description = "El nombre de usuario o el email ya existen",
                     content = @Content
             ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized",
                     content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Demasiadas solicitudes de autenticación (ver Retry-After)",
+                    content = @Content
             )
     })
     @PostMapping("/register")
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
 
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new ResponseStatusException(
-                    HttpStatus.CONFLICT,
-                    "Username already exists");
+        // Un solo INSERT: los duplicados los detectan las restricciones únicas de la tabla.
+        // El INSERT corre en el hilo de la operación; solo el hash ocupa el pool
+        return passwordHashingExecutor.submit("register", () -> {
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setEmail(request.getEmail());
+            user.setPassword(passwordHashingExecutor.hash("register",
+                    () -> passwordEncoder.encode(request.getPassword())));
+            user.setRole("USER");
+            user.setActive(true);
+
+            try {
+                userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, conflictMessage(e));
+            }
+
+            AuthResponse response = issueTokens(user);
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
+    }
+
+    @Operation(
+            summary = "Renovar access token",
+            description = "Canjea un refresh token vigente por un nuevo par de tokens. Cada refresh token "
+                    + "sirve una sola vez: reutilizar uno ya canjeado revoca todos los tokens del usuario"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Nuevo access token y nuevo refresh token",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Refresh token inválido, expirado, ya canjeado o revocado, o usuario desactivado",
+                    content = @Content
+            )
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        VerifiedToken refreshToken;
+        try {
+            refreshToken = jwtService.verify(request.getRefreshToken());
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
         }
+        if (!refreshToken.refresh()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+
+        // La renovación es poco frecuente: se comprueba contra la BD, no solo contra el registro
+        User user = userRepository.findByUsername(refreshToken.username())
+                .filter(User::isEnabled)
+                .filter(u -> u.getTokenEpoch() == refreshToken.epoch())
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.UNAUTHORIZED,
+                        "Refresh token has been revoked"));
 
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setRole("USER");
-        user.setActive(true);
+        switch (refreshTokenStore.redeem(refreshToken)) {
+            case REDEEMED -> {
+                return ResponseEntity.ok(issueTokens(user));
+            }
+            case REUSED -> {
+                // Un token ya canjeado vuelve a usarse: lo tiene alguien más, se revoca toda la sesión
+                user.setTokenEpoch(user.getTokenEpoch() + 1);
+                userRepository.save(user);
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token has been revoked");
+            }
+            default -> throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+        }
+    }
 
+    @Operation(
+            summary = "Cerrar sesión",
+            description = "Revoca todos los access y refresh tokens emitidos para el usuario autenticado",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Tokens revocados",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content
+            )
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(Authentication authentication) {
+        User user = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unknown user"));
+
+        // Nueva época: los tokens anteriores quedan revocados (el listener de User actualiza el registro)
+        user.setTokenEpoch(user.getTokenEpoch() + 1);
         userRepository.save(user);
 
-        String token = jwtService.generateToken(user.getUsername(), user.getRole());
+        return ResponseEntity.noContent().build();
+    }
 
-        AuthResponse response = new AuthResponse(
-                token,
-                user.getUsername(),
-                user.getEmail(),
-                user.getRole()
-        );
+    @Operation(
+            summary = "Alta masiva de usuarios",
+            description = "Crea usuarios a partir de un cuerpo NDJSON (un RegisterRequest por línea) "
+                    + "o CSV (username,email,password). Devuelve un resultado NDJSON por fila",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Resultados por fila: created, conflict, invalid o failed",
+                    content = @Content(mediaType = "application/x-ndjson")
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Requiere rol ADMIN",
+                    content = @Content
+            )
+    })
+    @PostMapping(value = "/users/bulk", consumes = {NDJSON_VALUE, CSV_VALUE}, produces = NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> bulkRegister(HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(CSV_VALUE));
+        InputStream body = request.getInputStream();
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        // El cuerpo se lee y la respuesta se escribe lote a lote, fuera del hilo de Tomcat
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(out -> bulkUserProvisioner.provision(body, csv, out));
     }
 
     @Operation(
@@ -172,20 +314,79 @@ public class AuthController {
 
         String token = authHeader.substring(7);
 
-        if (!jwtService.isTokenValid(token)) {
+        // Un solo parseo para validar y extraer username y rol
+        TokenIntrospection result = tokenIntrospector.introspect(token);
+        if (!result.active()) {
             throw new ResponseStatusException(
                     HttpStatus.UNAUTHORIZED,
                     "Invalid token");
         }
 
-        String username = jwtService.extractUsername(token);
-        String role = jwtService.extractRole(token);
+        return ResponseEntity.ok()
+                .cacheControl(tokenIntrospector.cacheControl(List.of(result)))
+                .body(Map.of(
+                        "username", result.username(),
+                        "role", result.role(),
+                        "valid", "true"
+                ));
+    }
 
-        return ResponseEntity.ok(Map.of(
-                "username", username,
-                "role", role,
-                "valid", "true"
-        ));
+    @Operation(
+            summary = "Introspección de tokens en lote",
+            description = "Valida varios tokens JWT en una sola petición y retorna, en el mismo orden, "
+                    + "si cada uno está activo y sus claims",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Resultados por token; Cache-Control acotado por la expiración del primer token activo",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lista de tokens vacía o demasiado larga",
+                    content = @Content
+            )
+    })
+    @PostMapping("/introspect")
+    public ResponseEntity<Map<String, List<TokenIntrospection>>> introspect(
+            @Valid @RequestBody IntrospectionRequest request) {
+
+        List<TokenIntrospection> results = request.getTokens().stream()
+                .map(token -> token.startsWith("Bearer ") ? token.substring(7) : token)
+                .map(tokenIntrospector::introspect)
+                .toList();
+
+        return ResponseEntity.ok()
+                .cacheControl(tokenIntrospector.cacheControl(results))
+                .body(Map.of("results", results));
+    }
+
+    /**
+     * Emite el access token y un refresh token nuevo (registrado para su rotación)
+     * del usuario con su época actual.
+     */
+    private AuthResponse issueTokens(User user) {
+        String refreshTokenId = refreshTokenStore.issue(user.getUsername());
+        return new AuthResponse(
+                jwtService.generateToken(user.getUsername(), user.getRole(), user.getTokenEpoch()),
+                jwtService.generateRefreshToken(user.getUsername(), user.getTokenEpoch(), refreshTokenId),
+                user.getUsername(),
+                user.getEmail(),
+                user.getRole()
+        );
+    }
+
+    /**
+     * Traduce la violación de restricción única al mensaje del campo duplicado.
+     */
+    private static String conflictMessage(DataIntegrityViolationException e) {
+        String detail = e.getMostSpecificCause().getMessage();
+        if (detail != null && detail.toLowerCase().contains(User.EMAIL_CONSTRAINT)) {
+            return "Email already exists";
+        }
+        return "Username already exists";
     }
 
     @ExceptionHandler(AuthenticationException.class)
@@ -0,0 +1,78 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * ETags fuertes para respuestas GET del gateway.
+ * Con el ETag en el ResponseEntity, Spring compara If-None-Match y responde 304 sin cuerpo.
+ * Las respuestas llevan Cache-Control "private, no-cache": el cliente guarda la copia
+ * pero revalida siempre, y Spring Security no añade no-store.
+ */
+final class ETags {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final HexFormat HEX = HexFormat.of();
+
+    private ETags() {
+    }
+
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .body(body);
+    }
+
+    /**
+     * ETag a partir del id y la marca de modificación (updated_at) de cada elemento,
+     * sin serializar la lista: cambia con cualquier alta, baja o modificación.
+     */
+    static <T> String fromVersions(Collection<T> items, Function<T, ?> id, Function<T, ?> version) {
+        MessageDigest digest = sha256();
+        digest.update(Integer.toString(items.size()).getBytes(StandardCharsets.UTF_8));
+        for (T item : items) {
+            digest.update(("|" + id.apply(item) + ":" + version.apply(item)).getBytes(StandardCharsets.UTF_8));
+        }
+        return quote(digest);
+    }
+
+    /**
+     * ETag a partir del JSON de la respuesta, para entidades sin marca de modificación.
+     * El JSON se escribe directamente sobre el digest, sin guardarlo en memoria.
+     */
+    static String fromJson(ObjectMapper objectMapper, Object body) {
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            objectMapper.writeValue(out, body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return quote(digest);
+    }
+
+    private static String quote(MessageDigest digest) {
+        // 128 bits bastan para distinguir versiones de un mismo recurso
+        return "\"" + HEX.formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,17 +1,37 @@
 package com.genosentinel.auth_gateway.controller;
 
 import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.client.GenomicRegion;
+import com.genosentinel.auth_gateway.client.PageWindow;
+import com.genosentinel.auth_gateway.dto.BatchGetItem;
+import com.genosentinel.auth_gateway.dto.BatchGetRequest;
+import com.genosentinel.auth_gateway.dto.PageResponse;
 import com.genosentinel.auth_gateway.dto.genomic.*;
+import com.genosentinel.auth_gateway.service.BulkReportIngester;
+import com.genosentinel.auth_gateway.service.VcfIngester;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 
 import java.util.List;
 import java.util.UUID;
@@ -25,7 +45,13 @@ import java.util.UUID;
 @Tag(name = "Genomic", description = "Endpoints del microservicio de genómica (Django)")
 public class GenomicController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String VCF_VALUE = "text/x-vcf";
+    private static final String GZIP_VALUE = "application/gzip";
+
     private final DjangoGenomicClient genomicClient;
+    private final BulkReportIngester bulkReportIngester;
+    private final VcfIngester vcfIngester;
 
     // ========== GENES ==========
 
@@ -50,7 +76,22 @@ public class GenomicController {
     @GetMapping("/genes")
     public ResponseEntity<List<GeneDto>> getAllGenes() {
         List<GeneDto> result = genomicClient.getAllGenes();
-        return ResponseEntity.ok(result);
+        return ETags.ok(ETags.fromVersions(result, GeneDto::getId, GeneDto::getUpdatedAt), result);
+    }
+
+    @Operation(
+            summary = "Listar genes paginados",
+            description = "Página por cursor: la respuesta incluye nextCursor y el enlace next "
+                    + "(también en el header Link). Sin limit se devuelve la lista completa",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "400", description = "limit o cursor inválidos")
+    @GetMapping(value = "/genes", params = "limit")
+    public ResponseEntity<PageResponse<GeneDto>> getGenesPage(
+            @Parameter(description = "Tamaño de página (1-" + PageWindow.MAX_LIMIT + ")") @RequestParam int limit,
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String cursor) {
+
+        return PageLinks.ok(genomicClient.getGenesPage(PageWindow.of(limit, cursor)));
     }
 
     @Operation(
@@ -112,10 +153,42 @@ public class GenomicController {
             summary = "Listar todas las variantes genéticas",
             security = @SecurityRequirement(name = "bearer-jwt")
     )
+    @ApiResponse(responseCode = "200", description = "Lista de variantes (copiada sin transformar desde Django)",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = GeneticVariantDto.class))))
     @GetMapping("/variants")
-    public ResponseEntity<List<GeneticVariantDto>> getAllGeneticVariants() {
-        List<GeneticVariantDto> result = genomicClient.getAllGeneticVariants();
-        return ResponseEntity.ok(result);
+    public void getAllGeneticVariants(HttpServletRequest request, HttpServletResponse response) {
+        // Pass-through: los bytes de Django van directo a la respuesta, sin DTOs intermedios
+        genomicClient.copyAllGeneticVariants(request, response);
+    }
+
+    @Operation(
+            summary = "Listar variantes genéticas paginadas",
+            description = "Página por cursor: la respuesta incluye nextCursor y el enlace next "
+                    + "(también en el header Link). Sin limit se devuelve la lista completa",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "400", description = "limit o cursor inválidos")
+    @GetMapping(value = "/variants", params = {"limit", "!region"})
+    public ResponseEntity<PageResponse<GeneticVariantDto>> getGeneticVariantsPage(
+            @Parameter(description = "Tamaño de página (1-" + PageWindow.MAX_LIMIT + ")") @RequestParam int limit,
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String cursor) {
+
+        return PageLinks.ok(genomicClient.getGeneticVariantsPage(PageWindow.of(limit, cursor)));
+    }
+
+    @Operation(
+            summary = "Listar variantes genéticas de una región",
+            description = "Variantes con posición en [inicio, fin] del cromosoma, ordenadas por posición. "
+                    + "Se responden desde el índice en memoria del gateway",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "400", description = "region inválida")
+    @GetMapping(value = "/variants", params = "region")
+    public ResponseEntity<List<GeneticVariantDto>> getGeneticVariantsInRegion(
+            @Parameter(description = "Región cromosoma:inicio-fin, p. ej. chr17:7660000-7690000")
+            @RequestParam String region) {
+        return ResponseEntity.ok(genomicClient.getGeneticVariantsInRegion(GenomicRegion.parse(region)));
     }
 
     @Operation(
@@ -129,6 +202,18 @@ public class GenomicController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+            summary = "Obtener varias variantes genéticas por ID",
+            description = "Una sola petición para hasta 200 ids: los repetidos se consultan una vez y "
+                    + "cada id devuelve su variante o su error, en el orden de la petición",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @PostMapping("/variants:batchGet")
+    public ResponseEntity<List<BatchGetItem<GeneticVariantDto>>> batchGetGeneticVariants(
+            @Valid @RequestBody BatchGetRequest<UUID> request) {
+        return ResponseEntity.ok(genomicClient.getGeneticVariantsByIds(request.ids()));
+    }
+
     @Operation(
             summary = "Actualizar variante genética",
             security = @SecurityRequirement(name = "bearer-jwt")
@@ -174,14 +259,80 @@ public class GenomicController {
         return ResponseEntity.status(HttpStatus.CREATED).body(result);
     }
 
+    @Operation(
+            summary = "Carga masiva de reportes de variantes",
+            description = "Cuerpo NDJSON con un reporte por línea (mismo formato que POST /genomic/reports). "
+                    + "Cada fila se valida y se crea en Django con un número acotado de filas en vuelo; "
+                    + "la respuesta NDJSON trae, en orden, el id creado o el error de cada fila",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "200", description = "Resultado por fila: created, invalid o failed")
+    @PostMapping(value = "/reports/bulk", consumes = NDJSON_VALUE, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkCreatePatientVariantReports(HttpServletRequest request)
+            throws IOException {
+        InputStream body = request.getInputStream();
+
+        // El cuerpo se lee a medida que Django confirma filas y la respuesta se escribe sobre la marcha
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(out -> bulkReportIngester.ingest(body, out));
+    }
+
+    @Operation(
+            summary = "Cargar un VCF de un paciente",
+            description = "Archivo VCF en texto plano, gzip o bgzip. Cada alelo que pasa FILTER se asocia a la "
+                    + "variante del catálogo (o se crea) y genera un reporte con su AF/VAF. La respuesta NDJSON "
+                    + "trae, en orden, el resultado de cada alelo: created, skipped, invalid o failed",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultado por alelo"),
+            @ApiResponse(responseCode = "400", description = "Archivo sin cabecera #CHROM, gzip corrupto o muestra inexistente"),
+            @ApiResponse(responseCode = "503", description = "Índice de variantes aún cargándose o Django no disponible")
+    })
+    @PostMapping(value = "/reports/vcf", consumes = {VCF_VALUE, GZIP_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            MediaType.TEXT_PLAIN_VALUE}, produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> ingestVcf(
+            @Parameter(description = "Paciente al que pertenecen los reportes") @RequestParam String patientId,
+            @Parameter(description = "Fecha de detección (por defecto ##fileDate del VCF o la fecha actual)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate detectionDate,
+            @Parameter(description = "Muestra de la que leer AF/VAF (por defecto la primera)")
+            @RequestParam(required = false) String sample,
+            HttpServletRequest request) throws IOException {
+        // Cabecera y genes se leen aquí: los errores aún pueden responderse con su estado
+        VcfIngester.Upload upload = vcfIngester.open(request.getInputStream(), patientId, detectionDate, sample);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(upload::writeTo);
+    }
+
     @Operation(
             summary = "Listar todos los reportes de variantes de pacientes",
             security = @SecurityRequirement(name = "bearer-jwt")
     )
+    @ApiResponse(responseCode = "200", description = "Lista de reportes (copiada sin transformar desde Django)",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = PatientVariantReportDto.class))))
     @GetMapping("/reports")
-    public ResponseEntity<List<PatientVariantReportDto>> getAllPatientVariantReports() {
-        List<PatientVariantReportDto> result = genomicClient.getAllPatientVariantReports();
-        return ResponseEntity.ok(result);
+    public void getAllPatientVariantReports(HttpServletRequest request, HttpServletResponse response) {
+        // Pass-through: los bytes de Django van directo a la respuesta, sin DTOs intermedios
+        genomicClient.copyAllPatientVariantReports(request, response);
+    }
+
+    @Operation(
+            summary = "Listar reportes de variantes paginados",
+            description = "Página por cursor: la respuesta incluye nextCursor y el enlace next "
+                    + "(también en el header Link). Sin limit se devuelve la lista completa",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "400", description = "limit o cursor inválidos")
+    @GetMapping(value = "/reports", params = "limit")
+    public ResponseEntity<PageResponse<PatientVariantReportDto>> getPatientVariantReportsPage(
+            @Parameter(description = "Tamaño de página (1-" + PageWindow.MAX_LIMIT + ")") @RequestParam int limit,
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String cursor) {
+
+        return PageLinks.ok(genomicClient.getPatientVariantReportsPage(PageWindow.of(limit, cursor)));
     }
 
     @Operation(
@@ -195,6 +346,18 @@ public class GenomicController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+            summary = "Obtener varios reportes de variantes por ID",
+            description = "Una sola petición para hasta 200 ids: los repetidos se consultan una vez y "
+                    + "cada id devuelve su reporte o su error, en el orden de la petición",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @PostMapping("/reports:batchGet")
+    public ResponseEntity<List<BatchGetItem<PatientVariantReportDto>>> batchGetPatientVariantReports(
+            @Valid @RequestBody BatchGetRequest<UUID> request) {
+        return ResponseEntity.ok(genomicClient.getPatientVariantReportsByIds(request.ids()));
+    }
+
     @Operation(
             summary = "Actualizar reporte de variante de paciente",
             security = @SecurityRequirement(name = "bearer-jwt")
@@ -0,0 +1,38 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.genosentinel.auth_gateway.security.JwtSigningKeys;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Publica las claves públicas de firma (JWKS) para que los servicios downstream
+ * verifiquen los tokens ES256 localmente, sin llamar a /auth/validate.
+ */
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Authentication", description = "APIs de autenticación y gestión de usuarios")
+public class JwksController {
+
+    private final JwtSigningKeys signingKeys;
+
+    @Operation(
+            summary = "Claves públicas de firma (JWKS)",
+            description = "Devuelve el JWK Set con la clave pública ES256 usada para firmar los tokens"
+    )
+    @ApiResponse(responseCode = "200", description = "JWK Set")
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                .body(signingKeys.getJwks());
+    }
+}
@@ -1,6 +1,11 @@
 package com.genosentinel.auth_gateway.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.genosentinel.auth_gateway.client.NestJsClient;
+import com.genosentinel.auth_gateway.client.PageWindow;
+import com.genosentinel.auth_gateway.dto.BatchGetItem;
+import com.genosentinel.auth_gateway.dto.BatchGetRequest;
+import com.genosentinel.auth_gateway.dto.PageResponse;
 import com.genosentinel.auth_gateway.dto.nestjs.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,6 +33,7 @@ import java.util.List;
 public class NestJsTestController {
 
     private final NestJsClient nestJsClient;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Crear paciente en NestJS",
@@ -67,6 +73,21 @@ public class NestJsTestController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+            summary = "Listar pacientes paginados",
+            description = "Página por cursor: la respuesta incluye nextCursor y el enlace next "
+                    + "(también en el header Link). Sin limit se devuelve la lista completa",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "400", description = "limit o cursor inválidos")
+    @GetMapping(value = "/patients", params = "limit")
+    public ResponseEntity<PageResponse<PatientResponseDto>> getPatientsPage(
+            @Parameter(description = "Tamaño de página (1-" + PageWindow.MAX_LIMIT + ")") @RequestParam int limit,
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String cursor) {
+
+        return PageLinks.ok(nestJsClient.getPatientsPage(PageWindow.of(limit, cursor)));
+    }
+
     @Operation(
             summary = "Obtener paciente por ID",
             security = @SecurityRequirement(name = "bearer-jwt")
@@ -86,6 +107,19 @@ public class NestJsTestController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+            summary = "Obtener varios pacientes por ID",
+            description = "Una sola petición para hasta 200 ids: los repetidos se consultan una vez y "
+                    + "cada id devuelve su paciente o su error, en el orden de la petición",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @PostMapping("/patients:batchGet")
+    public ResponseEntity<List<BatchGetItem<PatientResponseDto>>> batchGetPatients(
+            @Valid @RequestBody BatchGetRequest<Integer> request) {
+
+        return ResponseEntity.ok(nestJsClient.getPatientsByIds(request.ids()));
+    }
+
     @Operation(
             summary = "Actualizar paciente",
             security = @SecurityRequirement(name = "bearer-jwt")
@@ -144,7 +178,22 @@ public class NestJsTestController {
     public ResponseEntity<List<TumorTypeDto>> getAllTumorTypes() {
 
         List<TumorTypeDto> result = nestJsClient.getAllTumorTypes();
-        return ResponseEntity.ok(result);
+        return ETags.ok(ETags.fromJson(objectMapper, result), result);
+    }
+
+    @Operation(
+            summary = "Listar tipos de tumor paginados",
+            description = "Página por cursor: la respuesta incluye nextCursor y el enlace next "
+                    + "(también en el header Link). Sin limit se devuelve la lista completa",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "400", description = "limit o cursor inválidos")
+    @GetMapping(value = "/tumor-types", params = "limit")
+    public ResponseEntity<PageResponse<TumorTypeDto>> getTumorTypesPage(
+            @Parameter(description = "Tamaño de página (1-" + PageWindow.MAX_LIMIT + ")") @RequestParam int limit,
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String cursor) {
+
+        return PageLinks.ok(nestJsClient.getTumorTypesPage(PageWindow.of(limit, cursor)));
     }
 
     @Operation(
@@ -224,6 +273,21 @@ public class NestJsTestController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(
+            summary = "Listar historias clínicas paginadas",
+            description = "Página por cursor: la respuesta incluye nextCursor y el enlace next "
+                    + "(también en el header Link). Sin limit se devuelve la lista completa",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponse(responseCode = "400", description = "limit o cursor inválidos")
+    @GetMapping(value = "/clinical-records", params = "limit")
+    public ResponseEntity<PageResponse<ClinicalRecordDto>> getClinicalRecordsPage(
+            @Parameter(description = "Tamaño de página (1-" + PageWindow.MAX_LIMIT + ")") @RequestParam int limit,
+            @Parameter(description = "Cursor de la página anterior") @RequestParam(required = false) String cursor) {
+
+        return PageLinks.ok(nestJsClient.getClinicalRecordsPage(PageWindow.of(limit, cursor)));
+    }
+
     @Operation(
             summary = "Obtener historia clínica por ID",
             security = @SecurityRequirement(name = "bearer-jwt")
@@ -0,0 +1,30 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.genosentinel.auth_gateway.dto.PageResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Añade a una página el enlace a la siguiente, en el cuerpo ("next") y en el header Link.
+ */
+final class PageLinks {
+
+    private PageLinks() {
+    }
+
+    static <T> ResponseEntity<PageResponse<T>> ok(PageResponse<T> page) {
+        if (page.nextCursor() == null) {
+            return ResponseEntity.ok(page);
+        }
+
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .build()
+                .toUriString();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page.withNext(next));
+    }
+}
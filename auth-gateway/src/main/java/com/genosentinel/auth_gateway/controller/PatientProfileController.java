@@ -0,0 +1,43 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.genosentinel.auth_gateway.dto.PatientProfileResponse;
+import com.genosentinel.auth_gateway.service.PatientProfileService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints que combinan datos de NestJS y Django en una sola respuesta
+ */
+@RestController
+@RequestMapping("/patients")
+@RequiredArgsConstructor
+@Tag(name = "Patients", description = "Vistas compuestas de pacientes (NestJS + Django)")
+public class PatientProfileController {
+
+    private final PatientProfileService profileService;
+
+    @Operation(
+            summary = "Perfil completo del paciente",
+            description = "Paciente, historias clínicas y reportes de variantes (con variante y gen) "
+                    + "consultados en paralelo. Si una fuente no responde a tiempo se devuelve "
+                    + "el resto y su estado en \"sources\"",
+            security = @SecurityRequirement(name = "bearer-jwt")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Perfil completo o parcial"),
+            @ApiResponse(responseCode = "404", description = "Paciente no encontrado")
+    })
+    @GetMapping("/{id}/profile")
+    public ResponseEntity<PatientProfileResponse> getProfile(@PathVariable int id) {
+        return ResponseEntity.ok(profileService.getProfile(id));
+    }
+}
@@ -0,0 +1,60 @@
+package com.genosentinel.auth_gateway.controller;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.util.Map;
+
+/**
+ * Traduce los fallos de E/S hacia los microservicios a respuestas de gateway:
+ * pool agotado (503), timeout de lectura (504) u otro error de conexión (502).
+ * Las llamadas rechazadas por el circuit breaker o el bulkhead responden 503 con Retry-After.
+ */
+@Slf4j
+@RestControllerAdvice
+public class UpstreamExceptionHandler {
+
+    @ExceptionHandler(ResourceAccessException.class)
+    public ResponseEntity<Map<String, String>> handleUpstreamFailure(ResourceAccessException e) {
+        HttpStatus status;
+        String message;
+        if (e.getCause() instanceof ConnectionRequestTimeoutException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+            message = "Upstream connection pool exhausted";
+        } else if (e.getCause() instanceof SocketTimeoutException) {
+            status = HttpStatus.GATEWAY_TIMEOUT;
+            message = "Upstream service timed out";
+        } else {
+            status = HttpStatus.BAD_GATEWAY;
+            message = "Upstream service unavailable";
+        }
+
+        log.error("Upstream call failed ({}): {}", status.value(), e.getMessage());
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<Map<String, String>> handleOpenCircuit(CallNotPermittedException e) {
+        log.warn("Upstream call rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("error", "Upstream service temporarily unavailable"));
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Map<String, String>> handleBulkheadFull(BulkheadFullException e) {
+        log.warn("Upstream call rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Upstream service busy"));
+    }
+}
@@ -17,9 +17,11 @@ public class AuthResponse {
     private String username;
     private String email;
     private String role;
+    private String refreshToken;
 
-    public AuthResponse(String accessToken, String username, String email, String role) {
+    public AuthResponse(String accessToken, String refreshToken, String username, String email, String role) {
         this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
         this.username = username;
         this.email = email;
         this.role = role;
@@ -0,0 +1,24 @@
+package com.genosentinel.auth_gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado de un id en una respuesta :batchGet.
+ * @param id id consultado
+ * @param status 200 si se encontró; si no, el estado que devolvió el upstream (p. ej. 404)
+ * @param item elemento encontrado
+ * @param error motivo del fallo
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Resultado de un id: el elemento o el error del upstream")
+public record BatchGetItem<T>(String id, int status, T item, String error) {
+
+    public static <T> BatchGetItem<T> found(Object id, T item) {
+        return new BatchGetItem<>(String.valueOf(id), 200, item, null);
+    }
+
+    public static <T> BatchGetItem<T> failed(Object id, int status, String error) {
+        return new BatchGetItem<>(String.valueOf(id), status, null, error);
+    }
+}
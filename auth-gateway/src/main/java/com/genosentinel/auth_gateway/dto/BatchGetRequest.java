@@ -0,0 +1,18 @@
+package com.genosentinel.auth_gateway.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Petición de los endpoints :batchGet. Los ids repetidos se consultan una sola vez.
+ */
+public record BatchGetRequest<K>(
+        @Schema(description = "Ids a consultar (máximo 200)")
+        @NotEmpty
+        @Size(max = 200)
+        List<@NotNull K> ids) {
+}
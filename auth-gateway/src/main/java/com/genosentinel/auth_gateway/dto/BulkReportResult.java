@@ -0,0 +1,26 @@
+package com.genosentinel.auth_gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * Resultado por fila de la carga masiva de reportes de variantes.
+ * status: created (con el id asignado por Django), invalid (no pasó la validación del gateway)
+ * o failed (Django la rechazó o no respondió; httpStatus es el estado devuelto, si lo hubo).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkReportResult(int row, String status, UUID id, Integer httpStatus, String error) {
+
+    public static BulkReportResult created(int row, UUID id) {
+        return new BulkReportResult(row, "created", id, null, null);
+    }
+
+    public static BulkReportResult invalid(int row, String error) {
+        return new BulkReportResult(row, "invalid", null, null, error);
+    }
+
+    public static BulkReportResult failed(int row, Integer httpStatus, String error) {
+        return new BulkReportResult(row, "failed", null, httpStatus, error);
+    }
+}
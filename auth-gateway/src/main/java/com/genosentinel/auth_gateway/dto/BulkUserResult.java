@@ -0,0 +1,27 @@
+package com.genosentinel.auth_gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado por fila del alta masiva de usuarios.
+ * status: created, conflict (username/email ya existen), invalid o failed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkUserResult(int row, String username, String status, String error) {
+
+    public static BulkUserResult created(int row, String username) {
+        return new BulkUserResult(row, username, "created", null);
+    }
+
+    public static BulkUserResult conflict(int row, String username) {
+        return new BulkUserResult(row, username, "conflict", "Username or email already exists");
+    }
+
+    public static BulkUserResult invalid(int row, String username, String error) {
+        return new BulkUserResult(row, username, "invalid", error);
+    }
+
+    public static BulkUserResult failed(int row, String username, String error) {
+        return new BulkUserResult(row, username, "failed", error);
+    }
+}
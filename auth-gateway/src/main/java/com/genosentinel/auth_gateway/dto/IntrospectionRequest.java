@@ -0,0 +1,19 @@
+package com.genosentinel.auth_gateway.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO para la introspección de varios tokens en una sola petición.
+ */
+@Data
+public class IntrospectionRequest {
+
+    @NotEmpty(message = "At least one token is required")
+    @Size(max = 100, message = "At most 100 tokens per request")
+    private List<@NotBlank(message = "Token must not be blank") String> tokens;
+}
@@ -0,0 +1,21 @@
+package com.genosentinel.auth_gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Página estándar de los listados del gateway.
+ * @param items elementos de la página
+ * @param limit tamaño de página solicitado
+ * @param nextCursor cursor opaco de la página siguiente; null en la última página
+ * @param next enlace a la página siguiente (también en el header Link)
+ * @param total total de elementos, si el upstream lo informa
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PageResponse<T>(List<T> items, int limit, String nextCursor, String next, Long total) {
+
+    public PageResponse<T> withNext(String next) {
+        return new PageResponse<>(items, limit, nextCursor, next, total);
+    }
+}
@@ -0,0 +1,35 @@
+package com.genosentinel.auth_gateway.dto;
+
+import com.genosentinel.auth_gateway.dto.genomic.PatientVariantReportDto;
+import com.genosentinel.auth_gateway.dto.nestjs.ClinicalRecordDto;
+import com.genosentinel.auth_gateway.dto.nestjs.PatientResponseDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vista completa de un paciente: datos clínicos (NestJS) y reportes de variantes (Django).
+ * Si una fuente no responde a tiempo su parte queda vacía y "sources" indica el motivo.
+ */
+@Schema(description = "Perfil clínico y genómico de un paciente")
+public record PatientProfileResponse(
+        PatientResponseDto patient,
+        List<ClinicalRecordDto> clinicalRecords,
+        List<PatientVariantReportDto> variantReports,
+        @Schema(description = "Estado de cada fuente: patient, clinicalRecords, variantReports")
+        Map<String, SourceStatus> sources) {
+
+    /**
+     * Resultado de una fuente del perfil.
+     * @param status OK, TIMEOUT o ERROR
+     * @param httpStatus estado devuelto por el upstream en caso de error, si lo hubo
+     * @param elapsedMs tiempo hasta obtener el resultado o agotar el plazo
+     */
+    public record SourceStatus(String status, Integer httpStatus, long elapsedMs) {
+
+        public static final String OK = "OK";
+        public static final String TIMEOUT = "TIMEOUT";
+        public static final String ERROR = "ERROR";
+    }
+}
@@ -0,0 +1,14 @@
+package com.genosentinel.auth_gateway.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * DTO para obtener un nuevo access token con un refresh token.
+ */
+@Data
+public class RefreshRequest {
+
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
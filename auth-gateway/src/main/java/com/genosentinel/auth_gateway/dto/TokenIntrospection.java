@@ -0,0 +1,18 @@
+package com.genosentinel.auth_gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de la introspección de un token (al estilo RFC 7662).
+ * Los tokens inválidos o expirados solo informan active=false.
+ * @param exp expiración en segundos epoch
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(boolean active, String username, String role, Long exp) {
+
+    private static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null);
+
+    public static TokenIntrospection inactive() {
+        return INACTIVE;
+    }
+}
@@ -0,0 +1,35 @@
+package com.genosentinel.auth_gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+/**
+ * Resultado por alelo de la carga de un VCF.
+ * status: created (reporte creado; variant es la variante existente o recién creada),
+ * skipped (no pasó FILTER o le falta gen, impacto o frecuencia), invalid (línea mal formada)
+ * o failed (Django la rechazó o no respondió; httpStatus es el estado devuelto, si lo hubo).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record VcfIngestResult(int line, String chromosome, Long position, String alternate, String status,
+                              UUID variant, UUID report, Integer httpStatus, String error) {
+
+    public static VcfIngestResult created(int line, String chromosome, long position, String alternate,
+                                          UUID variant, UUID report) {
+        return new VcfIngestResult(line, chromosome, position, alternate, "created", variant, report, null, null);
+    }
+
+    public static VcfIngestResult skipped(int line, String chromosome, long position, String alternate,
+                                          String reason) {
+        return new VcfIngestResult(line, chromosome, position, alternate, "skipped", null, null, null, reason);
+    }
+
+    public static VcfIngestResult invalid(int line, String error) {
+        return new VcfIngestResult(line, null, null, null, "invalid", null, null, null, error);
+    }
+
+    public static VcfIngestResult failed(int line, String chromosome, long position, String alternate,
+                                         Integer httpStatus, String error) {
+        return new VcfIngestResult(line, chromosome, position, alternate, "failed", null, null, httpStatus, error);
+    }
+}
@@ -0,0 +1,33 @@
+package com.genosentinel.auth_gateway.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Refresh token emitido (por su claim jti). Cada uno se puede canjear una sola vez en
+ * /auth/refresh, que lo marca como usado y emite otro (ver ddl_RefreshToken.sql).
+ */
+@Data
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    @Column(nullable = false, length = 100)
+    private String username;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /** Momento del canje; null mientras el token sigue sin usar. */
+    @Column(name = "used_at")
+    private Instant usedAt;
+}
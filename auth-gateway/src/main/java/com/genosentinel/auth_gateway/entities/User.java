@@ -1,14 +1,13 @@
 package com.genosentinel.auth_gateway.entities;
 
+import com.genosentinel.auth_gateway.security.RoleAuthorities;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Entidad de usuario para el sistema GenoSentinel.
@@ -17,18 +16,26 @@ import java.util.List;
  */
 @Data
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
+@EntityListeners(UserChangeListener.class)
 public class User implements UserDetails {
 
+    /** Nombres de las restricciones únicas (ver ddl_User.sql). */
+    public static final String USERNAME_CONSTRAINT = "uc_users_username";
+    public static final String EMAIL_CONSTRAINT = "uc_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "user_id")
     private Long userId;
 
-    @Column(nullable = false, unique = true, length = 100)
+    @Column(nullable = false, length = 100)
     private String username;
 
-    @Column(unique = true, nullable = false, length = 100)
+    @Column(nullable = false, length = 100)
     private String email;
 
     @Column(nullable = false)
@@ -40,11 +47,25 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Boolean active = true;
 
+    /** Época de tokens: incrementarla revoca todos los tokens emitidos antes. */
+    @Column(name = "token_epoch", nullable = false)
+    private Long tokenEpoch = 0L;
+
+    /** Última modificación; permite refrescar en incremental el registro de revocaciones. */
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
+
     /** Métodos de UserDetails **/
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // Retorna el rol único con el prefijo ROLE_
-        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        return RoleAuthorities.of(role);
     }
 
     @Override
@@ -0,0 +1,42 @@
+package com.genosentinel.auth_gateway.entities;
+
+import com.genosentinel.auth_gateway.security.TokenRevocationRegistry;
+import com.genosentinel.auth_gateway.security.UserTokenState;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propaga los cambios de un usuario (registro, contraseña, estado active,
+ * logout o eliminación): invalida el UserCache y actualiza al instante
+ * el registro de revocación de tokens de esta réplica.
+ */
+@Component
+public class UserChangeListener {
+
+    private final UserCache userCache;
+    // Hibernate crea el listener al construir el EntityManagerFactory, antes que el
+    // repositorio del que depende el registro: se resuelve en el primer evento
+    private final ObjectProvider<TokenRevocationRegistry> revocationRegistry;
+
+    public UserChangeListener(UserCache userCache, ObjectProvider<TokenRevocationRegistry> revocationRegistry) {
+        this.userCache = userCache;
+        this.revocationRegistry = revocationRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void changed(User user) {
+        userCache.removeUserFromCache(user.getUsername());
+        revocationRegistry.getObject().apply(UserTokenState.of(user));
+    }
+
+    @PostRemove
+    public void removed(User user) {
+        userCache.removeUserFromCache(user.getUsername());
+        revocationRegistry.getObject().apply(UserTokenState.removed(user));
+    }
+}
@@ -0,0 +1,33 @@
+package com.genosentinel.auth_gateway.repository;
+
+import com.genosentinel.auth_gateway.entities.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repositorio de los refresh tokens emitidos.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Marca el token como usado si seguía vigente y sin usar. Es un único UPDATE condicional:
+     * entre varias réplicas solo una petición puede canjear el mismo token.
+     * @return 1 si se canjeó, 0 si no existe, ya estaba usado o expiró
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now "
+            + "WHERE t.tokenId = :tokenId AND t.usedAt IS NULL AND t.expiresAt > :now")
+    int markUsed(String tokenId, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
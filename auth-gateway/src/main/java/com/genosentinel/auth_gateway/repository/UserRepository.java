@@ -1,10 +1,13 @@
 package com.genosentinel.auth_gateway.repository;
 
 import com.genosentinel.auth_gateway.entities.User;
+import com.genosentinel.auth_gateway.security.UserTokenState;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -16,6 +19,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.username = :username")
     Optional<User> findByUsername(String username);
 
-    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.username = :username")
-    boolean existsByUsername(String username);
+    @Query("SELECT new com.genosentinel.auth_gateway.security.UserTokenState("
+            + "u.username, u.tokenEpoch, u.active, u.updatedAt) "
+            + "FROM User u WHERE u.updatedAt >= :since")
+    List<UserTokenState> findTokenStatesUpdatedSince(Instant since);
 }
\ No newline at end of file
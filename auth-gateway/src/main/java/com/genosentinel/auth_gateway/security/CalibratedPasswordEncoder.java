@@ -0,0 +1,118 @@
+package com.genosentinel.auth_gateway.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * PasswordEncoder BCrypt cuyo costo se calibra al arrancar según el hardware.
+ * Envuelve un DelegatingPasswordEncoder ("{bcrypt}...") y marca para re-hash
+ * los hashes sin prefijo o cuyo costo queda fuera de la banda calibrada;
+ * DaoAuthenticationProvider los re-hashea tras un login correcto.
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final String BCRYPT_PREFIX = "{" + BCRYPT_ID + "}";
+
+    private final int cost;
+    private final int band;
+    private final DelegatingPasswordEncoder delegate;
+
+    public CalibratedPasswordEncoder(int cost, int band) {
+        this.cost = cost;
+        this.band = band;
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+        this.delegate = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        // Los hashes guardados antes de la calibración no llevan el prefijo {bcrypt}
+        this.delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+    }
+
+    /**
+     * Mide BCrypt en este equipo y elige el costo cuyo tiempo queda más cerca del objetivo.
+     * @param target latencia objetivo por hash (p. ej. 100 ms)
+     * @param minCost costo mínimo aceptable
+     * @param maxCost costo máximo a probar
+     * @param band desviación de costo tolerada antes de re-hashear
+     * @return encoder calibrado
+     */
+    public static CalibratedPasswordEncoder calibrate(Duration target, int minCost, int maxCost, int band) {
+        long targetNanos = target.toNanos();
+
+        // Calentamiento del JIT con un costo bajo
+        for (int i = 0; i < 3; i++) {
+            measure(4);
+        }
+
+        int chosen = minCost;
+        long previousNanos = 0;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            long nanos = measure(candidate);
+            if (nanos > targetNanos) {
+                boolean previousIsCloser = candidate > minCost
+                        && targetNanos - previousNanos < nanos - targetNanos;
+                chosen = previousIsCloser ? candidate - 1 : candidate;
+                break;
+            }
+            chosen = candidate;
+            previousNanos = nanos;
+        }
+
+        log.info("BCrypt calibrated to cost {} (target {} ms)", chosen, target.toMillis());
+        return new CalibratedPasswordEncoder(chosen, band);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(BCRYPT_PREFIX)) {
+            return true;
+        }
+        int storedCost = storedCost(encodedPassword.substring(BCRYPT_PREFIX.length()));
+        return storedCost < 0 || Math.abs(storedCost - cost) > band;
+    }
+
+    /**
+     * Lee el costo de un hash con formato $2a$NN$...; -1 si no es válido.
+     */
+    private static int storedCost(String hash) {
+        if (hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = hash.charAt(4);
+        char units = hash.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(units)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (units - '0');
+    }
+
+    private static long measure(int cost) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration-password", BCrypt.gensalt(cost));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
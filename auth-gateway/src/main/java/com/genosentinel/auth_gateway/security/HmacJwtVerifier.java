@@ -0,0 +1,206 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Verificador inmutable de tokens HS256 para el camino rápido del filtro.
+ * Reutiliza instancias de {@link Mac} de un pool, decodifica base64url directamente
+ * sobre los bytes del token y lee solo los claims que usa el gateway.
+ * Lanza las mismas excepciones de jjwt que {@link JwtService#parseToken(String)}.
+ * Los tokens con otro algoritmo (p. ej. ES256) se delegan al parser de jjwt.
+ */
+final class HmacJwtVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    /** Tabla base64url: valor de cada carácter o -1 si no es válido. */
+    private static final byte[] BASE64URL = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final InstancePool<Signer> signers;
+
+    HmacJwtVerifier(byte[] keyBytes) {
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.signers = new InstancePool<>(InstancePool.defaultCapacity(), () -> new Signer(newMac()));
+        signers.release(signers.acquire()); // falla al arrancar si la clave no es utilizable
+    }
+
+    /**
+     * Verifica firma, algoritmo y expiración del token.
+     * @param token token JWT compacto
+     * @return claims del token, o null si el token no está firmado con HS256
+     */
+    VerifiedToken verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT must have exactly 2 period characters");
+        }
+
+        byte[] ascii = token.getBytes(StandardCharsets.ISO_8859_1);
+
+        if (!isHs256(decode(ascii, 0, firstDot))) {
+            return null;
+        }
+        checkSignature(ascii, secondDot);
+        return readClaims(decode(ascii, firstDot + 1, secondDot));
+    }
+
+    private void checkSignature(byte[] ascii, int secondDot) {
+        byte[] provided = decode(ascii, secondDot + 1, ascii.length);
+
+        Signer signer = signers.acquire();
+        try {
+            signer.mac().update(ascii, 0, secondDot);
+            signer.mac().doFinal(signer.expected(), 0);
+            if (!MessageDigest.isEqual(signer.expected(), provided)) {
+                throw new SignatureException("JWT signature does not match locally computed signature");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not compute JWT signature", e);
+        } finally {
+            // doFinal deja el Mac listo para reutilizarse
+            signers.release(signer);
+        }
+    }
+
+    private static boolean isHs256(byte[] header) {
+        String alg = null;
+        try (JsonParser parser = JSON.createParser(header)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "alg" -> alg = parser.getValueAsString();
+                    case "crit", "zip" -> throw new UnsupportedJwtException("Unsupported JWT header: " + field);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedJwtException("Invalid JWT header", e);
+        }
+        return "HS256".equals(alg);
+    }
+
+    private static VerifiedToken readClaims(byte[] payload) {
+        String subject = null;
+        String role = null;
+        long exp = -1;
+        long nbf = -1;
+        long epoch = 0;
+        boolean refresh = false;
+        String tokenId = null;
+        try (JsonParser parser = JSON.createParser(payload)) {
+            expectObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "sub" -> subject = parser.getValueAsString();
+                    case "role" -> role = parser.getValueAsString();
+                    case "jti" -> tokenId = parser.getValueAsString();
+                    case "exp" -> exp = value.isNumeric() ? parser.getLongValue() : -1;
+                    case "nbf" -> nbf = value.isNumeric() ? parser.getLongValue() : -1;
+                    case JwtService.EPOCH_CLAIM -> epoch = value.isNumeric() ? parser.getLongValue() : 0;
+                    case JwtService.TYPE_CLAIM -> refresh = JwtService.REFRESH_TYPE.equals(parser.getValueAsString());
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedJwtException("Invalid JWT payload", e);
+        }
+
+        long now = Instant.now().getEpochSecond();
+        if (exp < 0) {
+            throw new MalformedJwtException("JWT has no expiration");
+        }
+        if (exp <= now) {
+            throw new ExpiredJwtException(null, null, "JWT expired");
+        }
+        if (nbf > now) {
+            throw new JwtException("JWT must not be accepted before " + Instant.ofEpochSecond(nbf));
+        }
+        return new VerifiedToken(subject, role, Instant.ofEpochSecond(exp), epoch, refresh, tokenId);
+    }
+
+    private static void expectObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new MalformedJwtException("JWT section is not a JSON object");
+        }
+    }
+
+    /**
+     * Decodifica base64url (sin padding) del rango [from, to) de los bytes del token.
+     */
+    private static byte[] decode(byte[] src, int from, int to) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            throw new MalformedJwtException("Invalid base64url length");
+        }
+        byte[] out = new byte[length * 3 / 4];
+        int bits = 0;
+        int bitCount = 0;
+        int o = 0;
+        for (int i = from; i < to; i++) {
+            int c = src[i];
+            int v = c >= 0 ? BASE64URL[c] : -1;
+            if (v < 0) {
+                throw new MalformedJwtException("Invalid base64url character");
+            }
+            bits = (bits << 6) | v;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[o++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Mac inicializado con la clave y buffer para la firma calculada.
+     */
+    private record Signer(Mac mac, byte[] expected) {
+        Signer(Mac mac) {
+            this(mac, new byte[SIGNATURE_LENGTH]);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
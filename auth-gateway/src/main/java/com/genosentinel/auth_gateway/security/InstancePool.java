@@ -0,0 +1,37 @@
+package com.genosentinel.auth_gateway.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Pool acotado de instancias reutilizables y no thread-safe (Mac, MessageDigest).
+ * Sustituye a ThreadLocal: con hilos virtuales cada petición corre en un hilo nuevo,
+ * y un ThreadLocal crearía una instancia por petición. No usa synchronized,
+ * así que no fija (pin) el hilo virtual a su carrier.
+ */
+final class InstancePool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    InstancePool(int capacity, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+    }
+
+    /** Toma una instancia libre o crea una nueva. */
+    T acquire() {
+        T instance = idle.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    /** Devuelve la instancia; si el pool está lleno se descarta. */
+    void release(T instance) {
+        idle.offer(instance);
+    }
+
+    /** Capacidad por defecto: suficiente para todos los núcleos con margen. */
+    static int defaultCapacity() {
+        return Runtime.getRuntime().availableProcessors() * 4;
+    }
+}
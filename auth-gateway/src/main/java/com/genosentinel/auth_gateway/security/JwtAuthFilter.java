@@ -5,15 +5,12 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Filtro de autenticación JWT.
@@ -23,7 +20,17 @@ import java.util.List;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenAuthenticationCache tokenCache;
+
+    /**
+     * Las rutas públicas no necesitan autenticación: no se intenta parsear el token.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PublicEndpoints.MATCHER.matches(request);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,39 +40,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Extrae el header Authorization
         String authHeader = request.getHeader("Authorization");
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        // Descarta sin parsear los headers que no pueden contener un JWT compacto
+        if (!isWellFormed(authHeader)) {
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
             // Extrae el token
-            String token = authHeader.substring(7);
+            String token = authHeader.substring(BEARER_PREFIX.length());
 
-            // Válida y extrae información del token
-            String username = jwtService.extractUsername(token);
-            String role = jwtService.extractRole(token);
+            // Válida el token (o lo toma de la caché) y obtiene la autenticación ya construida.
+            // La instancia se comparte entre peticiones, por eso no se le asignan details.
+            Authentication authentication = tokenCache.authenticate(token);
 
             // Si el token es válido y no hay autenticación previa
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-                // Crea la autoridad con el rol
-                SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
-
-                // Crea el token de autenticación
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                username,
-                                null,
-                                List.of(authority)
-                        );
-
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-
+            if (authentication.getPrincipal() != null
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
                 // Establece la autenticación en el contexto de seguridad
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
 
         } catch (Exception e) {
@@ -75,4 +68,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Comprueba el prefijo "Bearer " y que el token tenga las tres secciones de un JWS.
+     */
+    private static boolean isWellFormed(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return false;
+        }
+        int firstDot = authHeader.indexOf('.', BEARER_PREFIX.length());
+        return firstDot > BEARER_PREFIX.length()
+                && authHeader.indexOf('.', firstDot + 1) > firstDot + 1;
+    }
+}
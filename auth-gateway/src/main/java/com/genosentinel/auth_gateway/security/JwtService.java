@@ -1,35 +1,71 @@
 package com.genosentinel.auth_gateway.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
 
 /**
  * Servicio para la gestión de tokens JWT.
  * Genera y valida tokens de autenticación.
+ * Firma con HS256 (secreto compartido) o ES256 (clave publicada en el JWKS)
+ * según jwt.signing.algorithm, y acepta ambos durante la migración.
+ * Los access tokens son de vida corta; los refresh tokens (type=refresh) permiten
+ * obtener nuevos. Ambos llevan la época de tokens del usuario (claim "epoch").
  */
 @Service
 public class JwtService {
 
+    /** Claims propios del gateway. */
+    static final String EPOCH_CLAIM = "epoch";
+    static final String TYPE_CLAIM = "type";
+    static final String REFRESH_TYPE = "refresh";
+
     private final SecretKey key;
     private final long expirationMillis;
+    private final long refreshExpirationMillis;
+    private final JwtParser parser;
+    private final HmacJwtVerifier verifier;
+    private final JwtSigningKeys signingKeys;
+
+    /**
+     * Crea un servicio que solo firma y acepta HS256.
+     */
+    public JwtService(String secret, long expirationMillis) {
+        this(secret, expirationMillis, expirationMillis,
+                new JwtSigningKeys(JwtSigningKeys.HS256, true, "", "", ""));
+    }
 
+    @Autowired
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration:86400000}") long expirationMillis) {
+            @Value("${jwt.expiration:900000}") long expirationMillis,
+            @Value("${jwt.refresh-expiration:604800000}") long refreshExpirationMillis,
+            JwtSigningKeys signingKeys) {
         // Decodifica la clave secreta
         byte[] keyBytes = secret.matches("^[A-Za-z0-9+/=]+$")
                 ? Decoders.BASE64.decode(secret)
                 : secret.getBytes();
         this.key = Keys.hmacShaKeyFor(keyBytes);
         this.expirationMillis = expirationMillis;
+        this.refreshExpirationMillis = refreshExpirationMillis;
+        // El parser y el verificador son inmutables: se construyen una sola vez
+        this.signingKeys = signingKeys;
+        this.parser = Jwts.parser().keyLocator(this::locateKey).build();
+        this.verifier = new HmacJwtVerifier(keyBytes);
     }
 
     /**
@@ -39,13 +75,50 @@ public class JwtService {
      * @return token JWT
      */
     public String generateToken(String username, String role) {
-        Instant now = Instant.now();
+        return generateToken(username, role, 0);
+    }
 
-        return Jwts.builder()
+    /**
+     * Genera un access token de vida corta para el usuario.
+     * @param username nombre de usuario
+     * @param role rol del usuario
+     * @param epoch época de tokens actual del usuario
+     * @return token JWT
+     */
+    public String generateToken(String username, String role, long epoch) {
+        return sign(Jwts.builder()
                 .subject(username)
                 .claim("role", role)
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(now.plusMillis(expirationMillis)))
+                .claim(EPOCH_CLAIM, epoch), expirationMillis);
+    }
+
+    /**
+     * Genera un refresh token para obtener nuevos access tokens.
+     * @param username nombre de usuario
+     * @param epoch época de tokens actual del usuario
+     * @param tokenId identificador registrado en RefreshTokenStore (claim jti)
+     * @return refresh token JWT
+     */
+    public String generateRefreshToken(String username, long epoch, String tokenId) {
+        return sign(Jwts.builder()
+                .id(tokenId)
+                .subject(username)
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
+                .claim(EPOCH_CLAIM, epoch), refreshExpirationMillis);
+    }
+
+    private String sign(JwtBuilder builder, long lifetimeMillis) {
+        Instant now = Instant.now();
+        builder.issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusMillis(lifetimeMillis)));
+
+        if (JwtSigningKeys.ES256.equals(signingKeys.getAlgorithm())) {
+            return builder
+                    .header().keyId(signingKeys.getKeyId()).and()
+                    .signWith(signingKeys.getPrivateKey(), Jwts.SIG.ES256)
+                    .compact();
+        }
+        return builder
                 .signWith(key, Jwts.SIG.HS256)
                 .compact();
     }
@@ -61,13 +134,34 @@ public class JwtService {
             token = token.substring(7);
         }
 
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
+    /**
+     * Valida el token y extrae en un solo parseo los claims que usa el gateway.
+     * Usa el verificador HS256 del camino rápido en lugar del parser genérico de jjwt.
+     * @param token token JWT
+     * @return username, rol y expiración del token
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken verified = signingKeys.isHs256Accepted() ? verifier.verify(token) : null;
+        if (verified != null) {
+            return verified;
+        }
+
+        Claims claims = parseToken(token);
+        Number epoch = claims.get(EPOCH_CLAIM, Number.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.getExpiration().toInstant(),
+                epoch != null ? epoch.longValue() : 0,
+                REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class)),
+                claims.getId());
+    }
+
     /**
      * Extrae el username del token.
      * @param token token JWT
@@ -99,4 +193,23 @@ public class JwtService {
             return false;
         }
     }
+
+    /**
+     * Elige la clave de verificación según el header: el secreto para HS256
+     * (si sigue aceptándose) o la clave pública EC cuyo kid coincida para ES256.
+     */
+    private Key locateKey(Header header) {
+        String alg = header.getAlgorithm();
+
+        if (JwtSigningKeys.HS256.equals(alg) && signingKeys.isHs256Accepted()) {
+            return key;
+        }
+        if (JwtSigningKeys.ES256.equals(alg)
+                && signingKeys.hasEcKey()
+                && header instanceof ProtectedHeader protectedHeader
+                && signingKeys.getKeyId().equals(protectedHeader.getKeyId())) {
+            return signingKeys.getPublicKey();
+        }
+        throw new UnsupportedJwtException("Unsupported JWT algorithm or key id: " + alg);
+    }
 }
@@ -0,0 +1,165 @@
+package com.genosentinel.auth_gateway.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Claves asimétricas (ES256, P-256) para firmar tokens JWT.
+ * Los servicios downstream verifican los tokens localmente con la clave pública
+ * publicada en /.well-known/jwks.json, sin compartir el secreto HS256.
+ * En modo HS256 solo hay par EC si está configurado (p. ej. antes de migrar a ES256);
+ * si no, el JWKS se publica vacío.
+ */
+@Slf4j
+@Component
+public class JwtSigningKeys {
+
+    public static final String ES256 = "ES256";
+    public static final String HS256 = "HS256";
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final String algorithm;
+    private final boolean acceptHs256;
+    private final KeyPair ecKeyPair;
+    private final String keyId;
+    private final Map<String, Object> jwks;
+
+    public JwtSigningKeys(
+            @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+            @Value("${jwt.signing.accept-hs256:true}") boolean acceptHs256,
+            @Value("${jwt.signing.key-id:}") String keyId,
+            @Value("${jwt.signing.ec-private-key:}") String ecPrivateKey,
+            @Value("${jwt.signing.ec-public-key:}") String ecPublicKey) {
+        if (!ES256.equals(algorithm) && !HS256.equals(algorithm)) {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + algorithm);
+        }
+        this.algorithm = algorithm;
+        // Con HS256 como algoritmo de firma, los tokens HS256 siempre se aceptan
+        this.acceptHs256 = acceptHs256 || HS256.equals(algorithm);
+        this.ecKeyPair = loadOrGenerate(ecPrivateKey, ecPublicKey, ES256.equals(algorithm));
+        if (ecKeyPair == null) {
+            // HS256 sin claves EC configuradas: no hay nada que publicar ni verificar con ES256
+            this.keyId = null;
+            this.jwks = Map.of("keys", List.of());
+            return;
+        }
+
+        ECPublicKey publicKey = (ECPublicKey) ecKeyPair.getPublic();
+        String x = coordinate(publicKey.getW().getAffineX());
+        String y = coordinate(publicKey.getW().getAffineY());
+        this.keyId = keyId.isBlank() ? thumbprint(x, y) : keyId;
+
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("x", x);
+        jwk.put("y", y);
+        jwk.put("kid", this.keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", ES256);
+        this.jwks = Map.of("keys", List.of(Map.copyOf(jwk)));
+    }
+
+    /** Algoritmo con el que se firman los tokens nuevos. */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /** Si se aceptan tokens HS256 (migración desde el secreto compartido). */
+    public boolean isHs256Accepted() {
+        return acceptHs256;
+    }
+
+    /** Si hay un par de claves EC (configurado, o efímero en modo ES256). */
+    public boolean hasEcKey() {
+        return ecKeyPair != null;
+    }
+
+    /** kid de la clave EC; null si no hay clave EC. */
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return ecKeyPair != null ? ecKeyPair.getPrivate() : null;
+    }
+
+    public ECPublicKey getPublicKey() {
+        return ecKeyPair != null ? (ECPublicKey) ecKeyPair.getPublic() : null;
+    }
+
+    /** Documento JWKS inmutable con la clave pública actual (sin claves en HS256 sin par EC). */
+    public Map<String, Object> getJwks() {
+        return jwks;
+    }
+
+    private static KeyPair loadOrGenerate(String privateKey, String publicKey, boolean signing) {
+        try {
+            if (!privateKey.isBlank() && !publicKey.isBlank()) {
+                KeyFactory factory = KeyFactory.getInstance("EC");
+                return new KeyPair(
+                        factory.generatePublic(new X509EncodedKeySpec(Base64.getMimeDecoder().decode(publicKey))),
+                        factory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getMimeDecoder().decode(privateKey))));
+            }
+            if (!privateKey.isBlank() || !publicKey.isBlank()) {
+                throw new IllegalStateException(
+                        "jwt.signing.ec-private-key and jwt.signing.ec-public-key must be set together");
+            }
+            if (!signing) {
+                // Una clave efímera solo serviría para publicar en el JWKS una clave que nunca firma
+                return null;
+            }
+            log.warn("No EC key pair configured: generating an ephemeral ES256 key. "
+                    + "Tokens will not survive a restart or be shared across replicas.");
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid EC key configuration", e);
+        }
+    }
+
+    /**
+     * Codifica una coordenada de P-256 como 32 bytes sin signo en base64url.
+     */
+    private static String coordinate(BigInteger value) {
+        byte[] raw = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(raw.length, 32);
+        System.arraycopy(raw, raw.length - length, fixed, 32 - length, length);
+        return BASE64URL.encodeToString(fixed);
+    }
+
+    /**
+     * Thumbprint RFC 7638 de la clave, usado como kid por defecto.
+     */
+    private static String thumbprint(String x, String y) {
+        String canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + x + "\",\"y\":\"" + y + "\"}";
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return BASE64URL.encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
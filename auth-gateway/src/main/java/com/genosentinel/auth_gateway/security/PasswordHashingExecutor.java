@@ -0,0 +1,174 @@
+package com.genosentinel.auth_gateway.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor dedicado para el trabajo de BCrypt (login y registro).
+ * Tiene tantos hilos como núcleos y una cola acotada: cuando se satura rechaza
+ * de inmediato con 429, de modo que una ráfaga de logins no agota los hilos de
+ * Tomcat que atienden las rutas /genomic y /nestjs.
+ * Las operaciones completas (carga del usuario, INSERT) corren en hilos virtuales y solo
+ * el hash pasa por el pool: la E/S de MySQL no ocupa hilos de BCrypt. Se admiten a lo sumo
+ * threads + queue-capacity operaciones a la vez, así que cada hash cabe en el pool o su cola.
+ * Usa hilos de plataforma también con spring.threads.virtual.enabled: BCrypt es
+ * trabajo de CPU y el pool acotado es lo que limita la concurrencia.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService operations;
+    private final Semaphore admission;
+    private final long retryAfterSeconds;
+    private final Timer queueWait;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${auth.password-hashing.threads:0}") int threads,
+            @Value("${auth.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.password-hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.operations = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("auth-operation-", 1).factory());
+        this.admission = new Semaphore(poolSize + queueCapacity);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
+        this.queueWait = Timer.builder("auth.password.queue.wait")
+                .description("Tiempo de espera en cola antes de hashear")
+                .register(meterRegistry);
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password-hashing");
+
+        log.info("Password hashing executor: {} threads, queue capacity {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Ejecuta una operación de login o registro en un hilo virtual, si hay hueco.
+     * La operación hace su E/S en ese hilo y delega el hashing con {@link #hash}.
+     * @param operation nombre de la operación para los logs (login, register)
+     * @param task operación completa
+     * @return futuro con el resultado de la tarea
+     * @throws PasswordHashingRejectedException si ya hay threads + queue-capacity operaciones en curso
+     */
+    public <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        if (!admission.tryAcquire()) {
+            log.warn("Password hashing saturated, rejecting {} request", operation);
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    admission.release();
+                }
+            }, operations);
+        } catch (RejectedExecutionException e) {
+            admission.release();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Ejecuta un hash en el pool dedicado y espera su resultado.
+     * Pensado para hilos virtuales (las operaciones de {@link #submit}).
+     * @param operation nombre de la operación para las métricas (login, register)
+     * @param hashing llamada al PasswordEncoder
+     * @throws PasswordHashingRejectedException si el pool y su cola están llenos
+     */
+    public <T> T hash(String operation, Supplier<T> hashing) {
+        long enqueuedAt = System.nanoTime();
+        Timer timer = Timer.builder("auth.password.hash")
+                .description("Tiempo de la operación de hashing")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return timer.record(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing saturated, rejecting {} request", operation);
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing", e);
+        }
+    }
+
+    /**
+     * PasswordEncoder que hashea y verifica en el pool dedicado; para DaoAuthenticationProvider,
+     * que carga el usuario y guarda el re-hash en el hilo de la operación.
+     */
+    public PasswordEncoder offloading(PasswordEncoder encoder, String operation) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return hash(operation, () -> encoder.encode(rawPassword));
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return hash(operation, () -> encoder.matches(rawPassword, encodedPassword));
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return encoder.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        operations.shutdown();
+        executor.shutdown();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
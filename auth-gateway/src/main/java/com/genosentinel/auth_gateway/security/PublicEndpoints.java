@@ -0,0 +1,35 @@
+package com.genosentinel.auth_gateway.security;
+
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Arrays;
+
+/**
+ * Rutas públicas (permitAll) del gateway.
+ * Las comparten SecurityConfig y JwtAuthFilter, que no intenta parsear tokens en ellas.
+ */
+public final class PublicEndpoints {
+
+    public static final String[] PATTERNS = {
+            "/auth/login",
+            "/auth/register",
+            "/auth/refresh",
+            "/health",
+            "/error",
+            "/actuator/health",
+            "/.well-known/jwks.json",
+            // Swagger UI y OpenAPI endpoints
+            "/v3/api-docs/**",
+            "/swagger-ui/**",
+            "/swagger-ui.html"
+    };
+
+    public static final RequestMatcher MATCHER = new OrRequestMatcher(Arrays.stream(PATTERNS)
+            .map(pattern -> (RequestMatcher) PathPatternRequestMatcher.withDefaults().matcher(pattern))
+            .toList());
+
+    private PublicEndpoints() {
+    }
+}
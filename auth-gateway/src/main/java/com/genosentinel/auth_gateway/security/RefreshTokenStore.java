@@ -0,0 +1,96 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.entities.RefreshToken;
+import com.genosentinel.auth_gateway.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Rotación de refresh tokens: cada refresh token lleva un jti registrado en MySQL y solo
+ * se puede canjear una vez. Presentar uno ya canjeado indica que alguien más lo tiene
+ * (salvo dentro de un margen corto, p. ej. dos pestañas renovando a la vez).
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    /** Resultado de canjear un refresh token. */
+    public enum Redemption {
+        /** Canjeado: se puede emitir el par de tokens siguiente. */
+        REDEEMED,
+        /** Ya canjeado fuera del margen de gracia: hay que revocar todos los tokens del usuario. */
+        REUSED,
+        /** Desconocido, expirado, sin jti o canjeado hace un instante: solo se rechaza. */
+        REJECTED
+    }
+
+    private final RefreshTokenRepository repository;
+    private final Duration lifetime;
+    private final Duration reuseGrace;
+
+    public RefreshTokenStore(
+            RefreshTokenRepository repository,
+            @Value("${jwt.refresh-expiration:604800000}") long refreshExpirationMillis,
+            @Value("${auth.refresh-tokens.reuse-grace-seconds:10}") long reuseGraceSeconds) {
+        this.repository = repository;
+        this.lifetime = Duration.ofMillis(refreshExpirationMillis);
+        this.reuseGrace = Duration.ofSeconds(reuseGraceSeconds);
+    }
+
+    /**
+     * Registra un refresh token nuevo para el usuario.
+     * @return jti que debe llevar el token
+     */
+    public String issue(String username) {
+        RefreshToken token = new RefreshToken();
+        token.setTokenId(UUID.randomUUID().toString());
+        token.setUsername(username);
+        token.setExpiresAt(Instant.now().plus(lifetime));
+        repository.save(token);
+        return token.getTokenId();
+    }
+
+    /**
+     * Canjea un refresh token ya verificado (firma, tipo y época).
+     */
+    public Redemption redeem(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            // Emitido antes de la rotación: no se puede saber si ya se usó
+            return Redemption.REJECTED;
+        }
+        Instant now = Instant.now();
+        if (repository.markUsed(token.tokenId(), now) == 1) {
+            return Redemption.REDEEMED;
+        }
+        Optional<RefreshToken> stored = repository.findById(token.tokenId());
+        if (stored.isEmpty() || stored.get().getUsedAt() == null
+                || stored.get().getUsedAt().isAfter(now.minus(reuseGrace))) {
+            return Redemption.REJECTED;
+        }
+        log.warn("Refresh token reuse detected for user {}", token.username());
+        return Redemption.REUSED;
+    }
+
+    /**
+     * Borra los refresh tokens expirados, usados o no.
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-tokens.purge-millis:3600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = repository.deleteExpired(Instant.now());
+            if (deleted > 0) {
+                log.debug("Purged {} expired refresh tokens", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not purge expired refresh tokens: {}", e.getMessage());
+        }
+    }
+}
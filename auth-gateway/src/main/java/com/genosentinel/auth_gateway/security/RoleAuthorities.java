@@ -0,0 +1,31 @@
+package com.genosentinel.auth_gateway.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autoridades internadas por rol.
+ * Cada rol ("USER", "ADMIN", ...) tiene una única lista inmutable compartida
+ * en lugar de crear un SimpleGrantedAuthority por petición.
+ */
+public final class RoleAuthorities {
+
+    private static final Map<String, List<GrantedAuthority>> BY_ROLE = new ConcurrentHashMap<>();
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * Devuelve las autoridades del rol con el prefijo ROLE_.
+     * @param role rol del usuario
+     * @return lista inmutable compartida
+     */
+    public static List<GrantedAuthority> of(String role) {
+        return BY_ROLE.computeIfAbsent(String.valueOf(role),
+                r -> List.of(new SimpleGrantedAuthority("ROLE_" + r)));
+    }
+}
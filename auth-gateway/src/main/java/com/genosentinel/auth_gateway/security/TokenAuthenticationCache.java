@@ -0,0 +1,152 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Caché de tokens JWT ya verificados.
+ * Asocia el digest SHA-256 del token con una autenticación pre-construida,
+ * de modo que un token repetido no vuelve a pasar por HMAC ni por el parseo de claims.
+ * Cada entrada expira en el "exp" del token y el tamaño total está acotado.
+ * La revocación se comprueba en cada uso, también con la entrada en caché.
+ */
+@Component
+public class TokenAuthenticationCache {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final InstancePool<MessageDigest> SHA256 =
+            new InstancePool<>(InstancePool.defaultCapacity(), TokenAuthenticationCache::newSha256);
+
+    private final JwtService jwtService;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final Cache<String, CachedAuthentication> cache;
+
+    public TokenAuthenticationCache(
+            JwtService jwtService,
+            TokenRevocationRegistry revocationRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtService = jwtService;
+        this.revocationRegistry = revocationRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        // Exporta hits, misses, tamaño y evictions como cache.* {cache=jwt.tokens}
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.tokens");
+    }
+
+    /**
+     * Devuelve la autenticación asociada al token, verificándolo solo si no está en caché.
+     * @param token token JWT sin el prefijo "Bearer "
+     * @return autenticación del usuario
+     * @throws io.jsonwebtoken.JwtException si el token es inválido, expiró, fue revocado
+     *         o es un refresh token
+     */
+    public Authentication authenticate(String token) {
+        return lookup(token);
+    }
+
+    /**
+     * Devuelve los claims del token, verificándolo solo si no está en caché.
+     * Comparte la entrada con {@link #authenticate(String)}: cada token se parsea una sola vez.
+     * @param token token JWT sin el prefijo "Bearer "
+     * @return username, rol y expiración del token
+     * @throws io.jsonwebtoken.JwtException si el token es inválido, expiró, fue revocado
+     *         o es un refresh token
+     */
+    public VerifiedToken verify(String token) {
+        return lookup(token).getVerified();
+    }
+
+    private CachedAuthentication lookup(String token) {
+        CachedAuthentication authentication =
+                cache.get(digest(token), key -> new CachedAuthentication(jwtService.verify(token)));
+
+        VerifiedToken verified = authentication.getVerified();
+        if (verified.refresh()) {
+            throw new UnsupportedJwtException("Refresh tokens cannot authenticate requests");
+        }
+        if (revocationRegistry.isRevoked(verified)) {
+            throw new JwtException("JWT has been revoked");
+        }
+        return authentication;
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA256.acquire();
+        try {
+            return HEX.formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } finally {
+            SHA256.release(sha256);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Autenticación inmutable que recuerda la expiración del token que la originó.
+     */
+    static final class CachedAuthentication extends UsernamePasswordAuthenticationToken {
+
+        private final VerifiedToken verified;
+
+        CachedAuthentication(VerifiedToken verified) {
+            super(verified.username(), null, RoleAuthorities.of(verified.role()));
+            this.verified = verified;
+        }
+
+        VerifiedToken getVerified() {
+            return verified;
+        }
+
+        Instant getExpiresAt() {
+            return verified.expiresAt();
+        }
+    }
+
+    /**
+     * Expira cada entrada exactamente cuando expira su token.
+     */
+    private static final class TokenExpiry implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            Instant expiresAt = value.getExpiresAt();
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.dto.TokenIntrospection;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Introspección de tokens para /auth/validate y /auth/introspect.
+ * Cada token se verifica una sola vez (y se reutiliza la caché del filtro JWT),
+ * y la respuesta se puede cachear como máximo hasta que expire el primer token activo.
+ * El max-age tampoco supera el intervalo de refresco del registro de revocaciones: una
+ * respuesta cacheada no puede dar por activo un token revocado más tiempo que el propio gateway.
+ */
+@Component
+public class TokenIntrospector {
+
+    private final TokenAuthenticationCache tokenCache;
+    private final long maxAgeSeconds;
+
+    public TokenIntrospector(
+            TokenAuthenticationCache tokenCache,
+            @Value("${auth.introspection.max-age-seconds:5}") long maxAgeSeconds,
+            @Value("${auth.revocation.refresh-millis:5000}") long revocationRefreshMillis) {
+        this.tokenCache = tokenCache;
+        this.maxAgeSeconds = Math.min(maxAgeSeconds, revocationRefreshMillis / 1000);
+    }
+
+    /**
+     * Valida el token y extrae sus claims en un solo parseo.
+     * @param token token JWT sin el prefijo "Bearer "
+     * @return resultado activo con los claims, o inactivo si el token no es válido
+     */
+    public TokenIntrospection introspect(String token) {
+        try {
+            VerifiedToken verified = tokenCache.verify(token);
+            return new TokenIntrospection(
+                    true,
+                    verified.username(),
+                    verified.role(),
+                    verified.expiresAt().getEpochSecond());
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospection.inactive();
+        }
+    }
+
+    /**
+     * Cache-Control para un conjunto de resultados: max-age acotado por la vida restante
+     * del token activo que expira antes (y por auth.introspection.max-age-seconds, como mucho
+     * el intervalo de refresco de revocaciones).
+     * Si ningún token está activo la respuesta no se cachea.
+     */
+    public CacheControl cacheControl(Collection<TokenIntrospection> results) {
+        long now = Instant.now().getEpochSecond();
+        long maxAge = -1;
+        for (TokenIntrospection result : results) {
+            if (result.active()) {
+                long remaining = Math.max(0, result.exp() - now);
+                maxAge = maxAge < 0 ? remaining : Math.min(maxAge, remaining);
+            }
+        }
+        if (maxAge <= 0) {
+            return CacheControl.noStore();
+        }
+        return CacheControl.maxAge(Duration.ofSeconds(Math.min(maxAge, maxAgeSeconds)));
+    }
+}
@@ -0,0 +1,157 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro en memoria de la época de tokens y el estado active de cada usuario.
+ * Un token está revocado si su usuario está inactivo o si su claim "epoch" es menor
+ * que la época actual del usuario (logout incrementa la época).
+ * La comprobación por petición es una búsqueda en un mapa; el mapa se refresca
+ * en incremental desde MySQL (filas con updated_at reciente) y, en esta réplica,
+ * al instante desde el listener JPA de User.
+ * Cada estado nuevo de un usuario invalida también su entrada del UserCache de login: así un
+ * cambio hecho en otra réplica (logout, contraseña, desactivación) no deja un principal cacheado
+ * cuya época emitiría tokens que este mismo registro rechaza.
+ * Hasta la primera carga completa no se sabe qué tokens revocó un logout: mientras tanto
+ * se reintenta la carga (como mucho una vez por segundo) y los tokens se rechazan.
+ * La carga usa un ReentrantLock y no synchronized: una petición en un hilo virtual que
+ * esperase un monitor durante la consulta JPA bloquearía su hilo portador. Las peticiones
+ * solo lo intentan con tryLock; si otra carga está en curso, rechazan el token sin esperar.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+
+    private static final long LOAD_RETRY_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final Duration overlap;
+    private final Map<String, UserTokenState> states = new ConcurrentHashMap<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    /** Si ya hubo una carga completa correcta; antes de eso se falla cerrado. */
+    private volatile boolean loaded;
+    private long retryLoadAt = System.nanoTime();
+
+    /** Mayor updated_at leído; el siguiente refresco parte de aquí (menos el solape). */
+    private volatile Instant lastSeen;
+
+    public TokenRevocationRegistry(
+            UserRepository userRepository,
+            UserCache userCache,
+            @Value("${auth.revocation.overlap-seconds:30}") long overlapSeconds) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.overlap = Duration.ofSeconds(overlapSeconds);
+    }
+
+    /**
+     * Indica si el token fue revocado (logout) o su usuario desactivado.
+     * @param token token ya verificado
+     * @return true si el token no debe aceptarse
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        if (!loaded && !loadNow()) {
+            return true;
+        }
+        UserTokenState state = states.get(token.username());
+        return state != null
+                && (!Boolean.TRUE.equals(state.active()) || token.epoch() < state.tokenEpoch());
+    }
+
+    /**
+     * Carga los usuarios modificados desde el último refresco.
+     * El primer refresco (al arrancar) carga todos los usuarios.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-millis:5000}")
+    public void refresh() {
+        loadLock.lock();
+        try {
+            refreshLocked();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void refreshLocked() {
+        // El solape cubre la diferencia de reloj entre réplicas y transacciones aún sin commit
+        Instant since = lastSeen == null ? Instant.EPOCH : lastSeen.minus(overlap);
+        List<UserTokenState> changed;
+        try {
+            changed = userRepository.findTokenStatesUpdatedSince(since);
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh token revocations, keeping current state: {}", e.getMessage());
+            return;
+        }
+
+        Instant max = lastSeen;
+        for (UserTokenState state : changed) {
+            apply(state);
+            if (state.updatedAt() != null && (max == null || state.updatedAt().isAfter(max))) {
+                max = state.updatedAt();
+            }
+        }
+        lastSeen = max != null ? max : Instant.EPOCH.plus(overlap);
+        loaded = true;
+
+        if (!changed.isEmpty()) {
+            log.debug("Token revocation registry refreshed: {} users changed", changed.size());
+        }
+    }
+
+    /**
+     * Carga inicial pedida por una petición que llegó antes que el primer refresco.
+     * Si otro hilo ya está cargando no se espera: la petición falla cerrada.
+     * @return true si el registro ya está cargado
+     */
+    private boolean loadNow() {
+        if (!loadLock.tryLock()) {
+            return loaded;
+        }
+        try {
+            if (!loaded && System.nanoTime() - retryLoadAt >= 0) {
+                refreshLocked();
+                if (!loaded) {
+                    retryLoadAt = System.nanoTime() + LOAD_RETRY_NANOS;
+                }
+            }
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Aplica el estado de un usuario; se conserva la versión más reciente.
+     * Si cambia, el principal cacheado para login deja de valer.
+     */
+    public void apply(UserTokenState state) {
+        UserTokenState previous = states.get(state.username());
+        UserTokenState current = states.merge(state.username(), state, TokenRevocationRegistry::newer);
+        // El solape del refresco vuelve a leer filas ya aplicadas: solo un estado distinto invalida
+        if (current == state && !state.equals(previous)) {
+            userCache.removeUserFromCache(state.username());
+        }
+    }
+
+    private static UserTokenState newer(UserTokenState current, UserTokenState candidate) {
+        if (current.updatedAt() == null || candidate.updatedAt() == null) {
+            return candidate;
+        }
+        return candidate.updatedAt().isBefore(current.updatedAt()) ? current : candidate;
+    }
+}
@@ -0,0 +1,21 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.entities.User;
+
+import java.time.Instant;
+
+/**
+ * Estado de un usuario relevante para la revocación de tokens.
+ * Se carga con una proyección JPQL, sin hidratar la entidad completa.
+ */
+public record UserTokenState(String username, Long tokenEpoch, Boolean active, Instant updatedAt) {
+
+    public static UserTokenState of(User user) {
+        return new UserTokenState(user.getUsername(), user.getTokenEpoch(), user.getActive(), user.getUpdatedAt());
+    }
+
+    /** Estado de un usuario eliminado: ningún token suyo vuelve a ser válido. */
+    public static UserTokenState removed(User user) {
+        return new UserTokenState(user.getUsername(), Long.MAX_VALUE, false, Instant.now());
+    }
+}
@@ -0,0 +1,14 @@
+package com.genosentinel.auth_gateway.security;
+
+import java.time.Instant;
+
+/**
+ * Resultado de verificar un token JWT una sola vez.
+ * Contiene los claims que usa el gateway y la fecha de expiración.
+ * @param epoch época de tokens del usuario al emitirlo (0 en tokens anteriores al claim)
+ * @param refresh true si es un refresh token, que no sirve para autenticar peticiones
+ * @param tokenId claim jti; lo llevan los refresh tokens para su rotación (null si falta)
+ */
+public record VerifiedToken(String username, String role, Instant expiresAt, long epoch, boolean refresh,
+                            String tokenId) {
+}
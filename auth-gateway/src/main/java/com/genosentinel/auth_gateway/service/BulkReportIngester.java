@@ -0,0 +1,162 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.dto.BulkReportResult;
+import com.genosentinel.auth_gateway.dto.genomic.CreatePatientVariantReportDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Carga masiva de reportes de variantes a partir de un cuerpo NDJSON.
+ * Cada fila se valida con las mismas restricciones que POST /genomic/reports y se crea en Django
+ * en un hilo virtual, con como mucho genomic.bulk.max-in-flight filas en vuelo ({@link OrderedWindow}):
+ * la memoria no depende del tamaño de la carga y el cliente recibe la presión de vuelta por TCP.
+ * Además cada fila toma un permiso de {@link GenomicWritePermits}, compartido con el resto de cargas.
+ * Si aun así el breaker o el bulkhead de Django rechazan una fila, su resultado lleva un 503.
+ * Las filas de más de genomic.bulk.max-line-length caracteres se descartan sin cargarlas ({@link LineReader}).
+ */
+@Slf4j
+@Service
+public class BulkReportIngester {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final DjangoGenomicClient genomicClient;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
+    private final GenomicWritePermits writePermits;
+    private final int maxInFlight;
+    private final int maxLineLength;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BulkReportIngester(
+            DjangoGenomicClient genomicClient,
+            Validator validator,
+            ObjectMapper objectMapper,
+            GenomicWritePermits writePermits,
+            @Value("${genomic.bulk.max-in-flight:16}") int maxInFlight,
+            @Value("${genomic.bulk.max-line-length:8192}") int maxLineLength) {
+        this.genomicClient = genomicClient;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writerFor(BulkReportResult.class);
+        this.writePermits = writePermits;
+        this.maxInFlight = maxInFlight;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Procesa el cuerpo completo y escribe un resultado NDJSON por fila.
+     * @param body cuerpo de la petición, un CreatePatientVariantReportDto por línea
+     * @param out salida de la respuesta
+     */
+    public void ingest(InputStream body, OutputStream out) throws IOException {
+        LineReader reader = new LineReader(new InputStreamReader(body, StandardCharsets.UTF_8), maxLineLength);
+        AtomicInteger created = new AtomicInteger();
+        OrderedWindow<BulkReportResult> window = new OrderedWindow<>(maxInFlight, out, result -> {
+            out.write(resultWriter.writeValueAsBytes(result));
+            out.write('\n');
+            if ("created".equals(result.status())) {
+                created.incrementAndGet();
+            }
+        });
+        int rowNumber = 0;
+
+        try {
+            while (true) {
+                String line;
+                try {
+                    line = reader.readLine();
+                } catch (LineReader.LineTooLongException e) {
+                    BulkReportResult tooLong = BulkReportResult.invalid(++rowNumber, e.getMessage());
+                    window.add(() -> CompletableFuture.completedFuture(tooLong));
+                    continue;
+                }
+                if (line == null) {
+                    break;
+                }
+                if (!line.isBlank()) {
+                    int number = ++rowNumber;
+                    window.add(() -> submit(number, line));
+                }
+            }
+            window.drain();
+        } finally {
+            // Cliente desconectado o hilo interrumpido: no se crean más filas de las ya enviadas
+            window.cancel();
+        }
+
+        log.info("Bulk report ingestion finished: {} rows, {} reports created", rowNumber, created.get());
+    }
+
+    private Future<BulkReportResult> submit(int number, String line) {
+        CreatePatientVariantReportDto report;
+        try {
+            report = objectMapper.readValue(line, CreatePatientVariantReportDto.class);
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(BulkReportResult.invalid(number, "Malformed row"));
+        }
+
+        Set<ConstraintViolation<CreatePatientVariantReportDto>> violations = validator.validate(report);
+        if (!violations.isEmpty()) {
+            return CompletableFuture.completedFuture(BulkReportResult.invalid(number, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "))));
+        }
+
+        return writePermits.submit(executor, () -> create(number, report));
+    }
+
+    private BulkReportResult create(int number, CreatePatientVariantReportDto report) {
+        try {
+            return BulkReportResult.created(number, genomicClient.createPatientVariantReport(report).getId());
+        } catch (RestClientResponseException e) {
+            // Los 4xx de Django traen el detalle de la validación (p. ej. variante inexistente)
+            String detail = e.getResponseBodyAsString();
+            return BulkReportResult.failed(number, e.getStatusCode().value(),
+                    detail.isBlank() ? e.getStatusText() : truncate(detail));
+        } catch (CallNotPermittedException e) {
+            return BulkReportResult.failed(number, HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    "Genomic service temporarily unavailable");
+        } catch (BulkheadFullException e) {
+            return BulkReportResult.failed(number, HttpStatus.SERVICE_UNAVAILABLE.value(), "Genomic service busy");
+        } catch (RuntimeException e) {
+            log.warn("Bulk report row {} failed: {}", number, e.getMessage());
+            return BulkReportResult.failed(number, null, "Genomic service unavailable");
+        }
+    }
+
+    private static String truncate(String detail) {
+        return detail.length() <= MAX_ERROR_LENGTH ? detail : detail.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
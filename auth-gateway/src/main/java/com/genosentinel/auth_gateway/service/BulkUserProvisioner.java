@@ -0,0 +1,320 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.genosentinel.auth_gateway.dto.BulkUserResult;
+import com.genosentinel.auth_gateway.dto.RegisterRequest;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Alta masiva de usuarios a partir de un cuerpo NDJSON o CSV.
+ * Procesa el stream por lotes de tamaño fijo (memoria constante): valida cada fila,
+ * hashea las contraseñas en paralelo y las inserta con un batch JDBC.
+ * Hibernate no agrupa inserts con IDENTITY en User.userId, por eso se usa JdbcTemplate.
+ */
+@Slf4j
+@Service
+public class BulkUserProvisioner {
+
+    // Un duplicado (username o email) no modifica la fila existente. A diferencia de INSERT IGNORE,
+    // no convierte en avisos otros errores (valores demasiado largos, NULL en columnas NOT NULL)
+    private static final String INSERT_SQL =
+            "INSERT INTO users (username, email, password, role, active, token_epoch, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, 0, ?) ON DUPLICATE KEY UPDATE user_id = user_id";
+    private static final String STORED_HASHES_SQL =
+            "SELECT username, password FROM users WHERE username IN (:usernames)";
+    private static final String CSV_HEADER = "username,email,password";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
+    private final ExecutorService hashingPool;
+    private final int batchSize;
+    private final int maxLineLength;
+
+    public BulkUserProvisioner(
+            JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${auth.bulk.hashing-threads:0}") int hashingThreads,
+            @Value("${auth.bulk.batch-size:500}") int batchSize,
+            @Value("${auth.bulk.max-line-length:8192}") int maxLineLength) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writerFor(BulkUserResult.class);
+        this.hashingPool = Executors.newFixedThreadPool(
+                hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Procesa el cuerpo completo y escribe un resultado NDJSON por fila, lote a lote.
+     * @param body cuerpo de la petición
+     * @param csv true si el cuerpo es CSV (username,email,password), false si es NDJSON
+     * @param out salida de la respuesta
+     */
+    public void provision(InputStream body, boolean csv, OutputStream out) throws IOException {
+        LineReader reader = new LineReader(new InputStreamReader(body, StandardCharsets.UTF_8), maxLineLength);
+        List<Row> chunk = new ArrayList<>(batchSize);
+        int rowNumber = 0;
+        int created = 0;
+
+        while (true) {
+            Row row;
+            try {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (line.isBlank() || (csv && rowNumber == 0 && line.trim().equalsIgnoreCase(CSV_HEADER))) {
+                    continue;
+                }
+                row = parse(++rowNumber, line, csv);
+            } catch (LineReader.LineTooLongException e) {
+                row = new Row(++rowNumber, null, e.getMessage());
+            }
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                created += flush(chunk, out);
+                chunk.clear();
+            }
+        }
+        created += flush(chunk, out);
+
+        log.info("Bulk provisioning finished: {} rows, {} users created", rowNumber, created);
+    }
+
+    private Row parse(int number, String line, boolean csv) {
+        try {
+            RegisterRequest request;
+            if (csv) {
+                List<String> columns = csvColumns(line);
+                request = new RegisterRequest();
+                request.setUsername(columns.get(0));
+                request.setEmail(columns.size() > 1 ? columns.get(1) : null);
+                request.setPassword(columns.size() > 2 ? columns.get(2) : null);
+            } else {
+                request = objectMapper.readValue(line, RegisterRequest.class);
+            }
+
+            Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+            String error = violations.isEmpty() ? null : violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return new Row(number, request, error);
+        } catch (IOException | IllegalArgumentException e) {
+            return new Row(number, null, "Malformed row");
+        }
+    }
+
+    /**
+     * Columnas de una fila CSV (RFC 4180 en una sola línea): los campos entre comillas pueden
+     * contener comas y "" como comilla. La contraseña sin comillas es el resto de la línea,
+     * comas incluidas, como antes de admitir comillas. Los campos sin comillas se recortan,
+     * salvo la contraseña.
+     * @throws IllegalArgumentException si unas comillas no se cierran o les sigue texto
+     */
+    static List<String> csvColumns(String line) {
+        List<String> columns = new ArrayList<>(3);
+        int position = 0;
+        while (true) {
+            boolean last = columns.size() == 2;
+            int start = position;
+            while (start < line.length() && line.charAt(start) == ' ') {
+                start++;
+            }
+            if (start < line.length() && line.charAt(start) == '"') {
+                StringBuilder value = new StringBuilder();
+                int i = start + 1;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        value.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                while (i < line.length() && line.charAt(i) == ' ') {
+                    i++;
+                }
+                columns.add(value.toString());
+                if (i == line.length()) {
+                    return columns;
+                }
+                if (last || line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Unexpected text after quoted field");
+                }
+                position = i + 1;
+            } else if (last) {
+                columns.add(line.substring(position));
+                return columns;
+            } else {
+                int comma = line.indexOf(',', position);
+                columns.add(line.substring(position, comma < 0 ? line.length() : comma).trim());
+                if (comma < 0) {
+                    return columns;
+                }
+                position = comma + 1;
+            }
+        }
+    }
+
+    /**
+     * Hashea, inserta y escribe los resultados de un lote.
+     * @return número de usuarios creados
+     */
+    private int flush(List<Row> chunk, OutputStream out) throws IOException {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        List<Row> valid = chunk.stream().filter(row -> row.error() == null).toList();
+
+        // Hashing en paralelo en todos los núcleos
+        List<CompletableFuture<String>> hashes = valid.stream()
+                .map(row -> CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(row.request().getPassword()), hashingPool))
+                .toList();
+        // Identidad: una misma fila puede repetirse en el lote
+        Map<Row, String> hashByRow = new IdentityHashMap<>();
+        Map<Row, String> hashErrors = new IdentityHashMap<>();
+        List<Row> hashed = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            try {
+                hashByRow.put(valid.get(i), hashes.get(i).join());
+                hashed.add(valid.get(i));
+            } catch (CompletionException e) {
+                // p. ej. contraseñas de más de 72 bytes, que BCrypt rechaza
+                hashErrors.put(valid.get(i), "Password cannot be hashed");
+            }
+        }
+
+        Map<String, String> stored = Map.of();
+        String failure = null;
+        if (!hashed.isEmpty()) {
+            try {
+                Timestamp now = Timestamp.from(Instant.now());
+                jdbcTemplate.batchUpdate(INSERT_SQL, hashed, hashed.size(), (ps, row) -> {
+                    ps.setString(1, row.request().getUsername());
+                    ps.setString(2, row.request().getEmail());
+                    ps.setString(3, hashByRow.get(row));
+                    ps.setString(4, "USER");
+                    ps.setBoolean(5, true);
+                    ps.setTimestamp(6, now);
+                });
+                stored = storedHashes(hashed);
+            } catch (DataAccessException e) {
+                log.error("Bulk insert failed for {} rows", hashed.size(), e);
+                failure = "Database error";
+            }
+        }
+
+        // El batch no informa qué filas eran duplicadas (con rewriteBatchedStatements los recuentos
+        // son SUCCESS_NO_INFO): una fila se creó si su hash es el que quedó guardado
+        int created = 0;
+        for (Row row : chunk) {
+            String username = row.request() != null ? row.request().getUsername() : null;
+            BulkUserResult result;
+            if (row.error() != null) {
+                result = BulkUserResult.invalid(row.number(), username, row.error());
+            } else if (hashErrors.containsKey(row)) {
+                result = BulkUserResult.invalid(row.number(), username, hashErrors.get(row));
+            } else if (failure != null) {
+                result = BulkUserResult.failed(row.number(), username, failure);
+            } else if (hashByRow.get(row).equals(stored.get(username))) {
+                result = BulkUserResult.created(row.number(), username);
+                created++;
+            } else {
+                result = BulkUserResult.conflict(row.number(), username);
+            }
+            resultWriter.writeValue(new NonClosingOutputStream(out), result);
+            out.write('\n');
+        }
+        out.flush();
+        return created;
+    }
+
+    private Map<String, String> storedHashes(List<Row> rows) {
+        List<String> usernames = rows.stream().map(row -> row.request().getUsername()).toList();
+        Map<String, String> stored = new HashMap<>();
+        namedJdbcTemplate.query(STORED_HASHES_SQL, Map.of("usernames", usernames),
+                (RowCallbackHandler) rs -> stored.put(rs.getString("username"), rs.getString("password")));
+        return stored;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    /**
+     * Fila leída del cuerpo: la petición y, si no es válida, el motivo.
+     */
+    private record Row(int number, RegisterRequest request, String error) {
+    }
+
+    /**
+     * Evita que Jackson cierre la salida de la respuesta tras cada resultado.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
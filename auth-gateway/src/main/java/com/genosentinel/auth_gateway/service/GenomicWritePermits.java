@@ -0,0 +1,97 @@
+package com.genosentinel.auth_gateway.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Límite de filas en vuelo hacia Django compartido por todas las cargas masivas (NDJSON y VCF).
+ * La ventana de cada carga solo acota esa carga; el bulkhead de Django es uno para todo el gateway,
+ * así que varias cargas a la vez lo llenarían y sus filas fallarían con BulkheadFullException.
+ * Con genomic.ingest.max-in-flight por debajo de django.genomic.resilience.max-concurrent-calls,
+ * las cargas esperan aquí (y dejan de leer el cuerpo) en lugar de fallar filas, y queda hueco
+ * en el bulkhead para el resto del tráfico.
+ */
+@Component
+public class GenomicWritePermits {
+
+    private final Semaphore permits;
+
+    public GenomicWritePermits(@Value("${genomic.ingest.max-in-flight:24}") int maxInFlight) {
+        this.permits = new Semaphore(maxInFlight, true);
+    }
+
+    /**
+     * Espera un permiso y lanza la fila; el permiso se libera al terminar o cancelarse.
+     * @param executor ejecutor de la carga
+     * @param row alta de la fila en Django
+     * @return la fila en curso
+     */
+    <T> Future<T> submit(ExecutorService executor, Callable<T> row) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a genomic write permit", e);
+        }
+        Permit permit = new Permit();
+        try {
+            Row<T> task = new Row<>(row, permit);
+            executor.execute(task);
+            return task;
+        } catch (RejectedExecutionException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    int available() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Fila con su permiso. Se libera al acabar la fila, antes de publicar el resultado (quien espera
+     * la fila ya encuentra el permiso libre), o en done() si se cancela, también antes de empezar.
+     */
+    private static final class Row<T> extends FutureTask<T> {
+
+        private final Permit permit;
+
+        private Row(Callable<T> row, Permit permit) {
+            super(() -> {
+                try {
+                    return row.call();
+                } finally {
+                    permit.release();
+                }
+            });
+            this.permit = permit;
+        }
+
+        @Override
+        protected void done() {
+            permit.release();
+        }
+    }
+
+    /**
+     * Permiso de una fila: la cancelación y el final de la fila pueden cruzarse, se libera una vez.
+     */
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.genosentinel.auth_gateway.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lector de líneas con longitud máxima para los cuerpos subidos (NDJSON, CSV, VCF).
+ * BufferedReader.readLine acumula la línea entera, así que un cuerpo sin saltos de línea
+ * acabaría en memoria completo. Aquí una línea que supera el límite se descarta hasta el
+ * siguiente salto sin guardarla y se informa con {@link LineTooLongException}; la lectura
+ * puede seguir con la línea siguiente.
+ */
+final class LineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final int maxLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+
+    LineReader(Reader in, int maxLength) {
+        this.in = in;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Lee la siguiente línea, sin el salto (\n o \r\n).
+     * @return la línea, o null al final del cuerpo
+     * @throws LineTooLongException si la línea supera el límite; ya se ha descartado entera
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        boolean read = false;
+        boolean tooLong = false;
+        while (true) {
+            if (position == limit) {
+                int count = in.read(buffer, 0, buffer.length);
+                if (count < 0) {
+                    if (!read) {
+                        return null;
+                    }
+                    break;
+                }
+                position = 0;
+                limit = count;
+            }
+            read = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            // Un carácter de margen para el \r de \r\n, que se quita al final
+            if (!tooLong && line.length() + (position - start) <= maxLength + 1) {
+                line.append(buffer, start, position - start);
+            } else {
+                tooLong = true;
+                line.setLength(0);
+            }
+            if (position < limit) {
+                position++;
+                break;
+            }
+        }
+        if (tooLong) {
+            throw new LineTooLongException(maxLength);
+        }
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(--length);
+        }
+        if (length > maxLength) {
+            throw new LineTooLongException(maxLength);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Una línea supera la longitud máxima; el lector queda al principio de la siguiente.
+     */
+    static final class LineTooLongException extends IOException {
+        LineTooLongException(int maxLength) {
+            super("Line exceeds " + maxLength + " characters");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.genosentinel.auth_gateway.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Ventana de filas en vuelo para las cargas masivas en streaming.
+ * Como mucho caben capacity filas: al añadir con la ventana llena se espera a la más antigua,
+ * lo que frena la lectura del cuerpo. Los resultados se escriben en el orden de las filas
+ * en cuanto todas las anteriores han terminado.
+ */
+final class OrderedWindow<R> {
+
+    /**
+     * Escribe el resultado de una fila en la respuesta.
+     */
+    @FunctionalInterface
+    interface Sink<R> {
+        void write(R result) throws IOException;
+    }
+
+    private final Deque<Future<R>> pending;
+    private final int capacity;
+    private final OutputStream out;
+    private final Sink<R> sink;
+
+    OrderedWindow(int capacity, OutputStream out, Sink<R> sink) {
+        this.pending = new ArrayDeque<>(capacity);
+        this.capacity = capacity;
+        this.out = out;
+        this.sink = sink;
+    }
+
+    /**
+     * Añade una fila, esperando antes a la más antigua si la ventana está llena.
+     * @param row lanza la fila; solo se invoca cuando hay hueco en la ventana
+     */
+    void add(Supplier<Future<R>> row) throws IOException {
+        if (pending.size() == capacity) {
+            sink.write(take(pending.poll()));
+            out.flush();
+        }
+        pending.add(row.get());
+        writeCompleted();
+    }
+
+    /**
+     * Espera a las filas restantes y escribe sus resultados.
+     */
+    void drain() throws IOException {
+        while (!pending.isEmpty()) {
+            sink.write(take(pending.poll()));
+        }
+        out.flush();
+    }
+
+    /**
+     * Cancela las filas que siguen en vuelo (cliente desconectado o error de escritura).
+     */
+    void cancel() {
+        pending.forEach(row -> row.cancel(true));
+        pending.clear();
+    }
+
+    private void writeCompleted() throws IOException {
+        boolean written = false;
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            sink.write(take(pending.poll()));
+            written = true;
+        }
+        if (written) {
+            out.flush();
+        }
+    }
+
+    private static <R> R take(Future<R> row) throws IOException {
+        try {
+            return row.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during bulk ingestion", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected bulk ingestion failure", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.client.NestJsClient;
+import com.genosentinel.auth_gateway.dto.PatientProfileResponse;
+import com.genosentinel.auth_gateway.dto.PatientProfileResponse.SourceStatus;
+import com.genosentinel.auth_gateway.dto.genomic.PatientVariantReportDto;
+import com.genosentinel.auth_gateway.dto.nestjs.ClinicalRecordDto;
+import com.genosentinel.auth_gateway.dto.nestjs.PatientResponseDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Construye el perfil de un paciente consultando NestJS y Django en paralelo.
+ * Las tres fuentes (paciente, historias clínicas, reportes de variantes) corren en hilos
+ * virtuales con un plazo común; las que no terminan a tiempo se cancelan y el perfil
+ * se devuelve con lo obtenido y el estado de cada fuente.
+ * Historias y reportes se piden ya filtrados por paciente (?patientId= en NestJS,
+ * ?patient_id= en Django, ambos indexados): el coste no crece con el total de pacientes.
+ */
+@Slf4j
+@Service
+public class PatientProfileService {
+
+    private final NestJsClient nestJsClient;
+    private final DjangoGenomicClient genomicClient;
+    private final long deadlineMillis;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PatientProfileService(
+            NestJsClient nestJsClient,
+            DjangoGenomicClient genomicClient,
+            @Value("${patients.profile.deadline-ms:3000}") long deadlineMillis) {
+        this.nestJsClient = nestJsClient;
+        this.genomicClient = genomicClient;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Obtiene el perfil del paciente.
+     * @param patientId id del paciente en NestJS
+     * @return perfil, completo o parcial
+     * @throws ResponseStatusException 404 si NestJS no conoce al paciente
+     */
+    public PatientProfileResponse getProfile(int patientId) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+
+        Future<PatientResponseDto> patient = executor.submit(() -> nestJsClient.getPatientById(patientId));
+        Future<List<ClinicalRecordDto>> clinicalRecords = executor.submit(
+                () -> nestJsClient.getClinicalRecordsByPatient(patientId));
+        Future<List<PatientVariantReportDto>> variantReports = executor.submit(
+                () -> genomicClient.getPatientVariantReportsByPatient(String.valueOf(patientId)));
+
+        Map<String, SourceStatus> sources = new LinkedHashMap<>();
+        PatientResponseDto patientResult = await("patient", patient, start, deadline, sources);
+        Integer patientStatus = sources.get("patient").httpStatus();
+        if (patientStatus != null && patientStatus == HttpStatus.NOT_FOUND.value()) {
+            clinicalRecords.cancel(true);
+            variantReports.cancel(true);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient " + patientId + " not found");
+        }
+
+        return new PatientProfileResponse(
+                patientResult,
+                orEmpty(await("clinicalRecords", clinicalRecords, start, deadline, sources)),
+                orEmpty(await("variantReports", variantReports, start, deadline, sources)),
+                sources);
+    }
+
+    private <T> T await(String source, Future<T> future, long start, long deadline, Map<String, SourceStatus> sources) {
+        try {
+            T result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            sources.put(source, new SourceStatus(SourceStatus.OK, null, elapsedMillis(start)));
+            return result;
+        } catch (TimeoutException e) {
+            // Interrumpe el hilo virtual: se cierra la conexión en curso
+            future.cancel(true);
+            log.warn("Patient profile source {} missed the {} ms deadline", source, deadlineMillis);
+            sources.put(source, new SourceStatus(SourceStatus.TIMEOUT, null, elapsedMillis(start)));
+        } catch (ExecutionException e) {
+            log.warn("Patient profile source {} failed: {}", source, e.getCause().getMessage());
+            sources.put(source, new SourceStatus(SourceStatus.ERROR, httpStatus(e.getCause()), elapsedMillis(start)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while building patient profile", e);
+        }
+        return null;
+    }
+
+    private static Integer httpStatus(Throwable e) {
+        if (e instanceof ResponseStatusException status) {
+            return status.getStatusCode().value();
+        }
+        if (e instanceof RestClientResponseException response) {
+            return response.getStatusCode().value();
+        }
+        return null;
+    }
+
+    private static <T> List<T> orEmpty(List<T> items) {
+        return items != null ? items : List.of();
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,349 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.dto.VcfIngestResult;
+import com.genosentinel.auth_gateway.dto.genomic.CreateGeneticVariantDto;
+import com.genosentinel.auth_gateway.dto.genomic.CreatePatientVariantReportDto;
+import com.genosentinel.auth_gateway.dto.genomic.GeneDto;
+import com.genosentinel.auth_gateway.dto.genomic.GeneticVariantDto;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipException;
+
+/**
+ * Carga de un VCF de un paciente: cada alelo que pasa los filtros se convierte en una variante
+ * (reutilizando la del catálogo de Django si ya existe) y un reporte de variante del paciente.
+ * Las variantes se resuelven en el índice compartido del cliente, no en una copia del catálogo
+ * por carga; las altas de una misma variante desde cargas simultáneas se agrupan en una.
+ * El archivo se lee en streaming ({@link VcfReader}) y las altas se hacen en hilos virtuales
+ * con como mucho genomic.vcf.max-in-flight alelos en vuelo ({@link OrderedWindow}); cada alelo toma
+ * además un permiso de {@link GenomicWritePermits}, compartido con las demás cargas. Los rechazos
+ * del breaker o del bulkhead de Django se informan como 503 en el resultado del alelo.
+ * Publica el avance de cada etapa: vcf.ingest.bytes, vcf.ingest.records {stage=...}
+ * y vcf.ingest.latency {stage=variant|report}.
+ */
+@Slf4j
+@Service
+public class VcfIngester {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final DjangoGenomicClient genomicClient;
+    private final Validator validator;
+    private final ObjectWriter resultWriter;
+    private final GenomicWritePermits writePermits;
+    private final int maxInFlight;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter bytesRead;
+    private final Counter parsed;
+    private final Counter skipped;
+    private final Counter invalid;
+    private final Counter variantsExisting;
+    private final Counter variantsCreated;
+    private final Counter reportsCreated;
+    private final Counter failed;
+    private final Timer variantLatency;
+    private final Timer reportLatency;
+
+    public VcfIngester(
+            DjangoGenomicClient genomicClient,
+            Validator validator,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            GenomicWritePermits writePermits,
+            @Value("${genomic.vcf.max-in-flight:16}") int maxInFlight) {
+        this.genomicClient = genomicClient;
+        this.validator = validator;
+        this.resultWriter = objectMapper.writerFor(VcfIngestResult.class);
+        this.writePermits = writePermits;
+        this.maxInFlight = maxInFlight;
+
+        this.bytesRead = Counter.builder("vcf.ingest.bytes")
+                .description("Bytes del VCF leídos de la petición (comprimidos si el archivo lo está)")
+                .register(meterRegistry);
+        this.parsed = records(meterRegistry, "parsed");
+        this.skipped = records(meterRegistry, "skipped");
+        this.invalid = records(meterRegistry, "invalid");
+        this.variantsExisting = records(meterRegistry, "variant-existing");
+        this.variantsCreated = records(meterRegistry, "variant-created");
+        this.reportsCreated = records(meterRegistry, "report-created");
+        this.failed = records(meterRegistry, "failed");
+        this.variantLatency = latency(meterRegistry, "variant");
+        this.reportLatency = latency(meterRegistry, "report");
+    }
+
+    /**
+     * Lee la cabecera del VCF y carga los genes de Django.
+     * Se hace antes de empezar la respuesta: un archivo inválido, un upstream caído
+     * o un índice de variantes aún sin cargar se responden con su estado HTTP.
+     * @param body contenido del VCF, en texto plano, gzip o bgzip
+     * @param patientId paciente al que pertenecen los reportes
+     * @param detectionDate fecha de detección; null para usar ##fileDate o, si falta, hoy
+     * @param sample columna de muestra de la que leer AF/VAF; null para la primera
+     * @return la carga, lista para escribir sus resultados NDJSON
+     * @throws ResponseStatusException 400 si el archivo no es un VCF legible o no tiene la muestra;
+     *         503 si el índice de variantes aún no se ha cargado
+     */
+    public Upload open(InputStream body, String patientId, LocalDate detectionDate, String sample) throws IOException {
+        if (!genomicClient.isGeneticVariantIndexLoaded()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Variant index is still loading");
+        }
+
+        VcfReader reader;
+        try {
+            reader = VcfReader.open(new CountingInputStream(body, bytesRead), sample);
+        } catch (IllegalArgumentException | ZipException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        try {
+            Map<String, Long> genes = genomicClient.getAllGenes().stream()
+                    .collect(Collectors.toMap(gene -> gene.getSymbol().toUpperCase(), GeneDto::getId,
+                            (first, second) -> first));
+            LocalDate date = detectionDate != null ? detectionDate
+                    : reader.fileDate() != null ? reader.fileDate() : LocalDate.now();
+            log.info("VCF upload for patient {}: {} genes known", patientId, genes.size());
+            return out -> ingest(new Context(reader, patientId, date, genes), out);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private void ingest(Context upload, OutputStream out) throws IOException {
+        Map<String, Integer> totals = new HashMap<>();
+        OrderedWindow<VcfIngestResult> window = new OrderedWindow<>(maxInFlight, out, result -> {
+            out.write(resultWriter.writeValueAsBytes(result));
+            out.write('\n');
+            totals.merge(result.status(), 1, Integer::sum);
+        });
+
+        try (VcfReader reader = upload.reader()) {
+            List<VcfRecord> records;
+            while ((records = reader.next()) != null) {
+                for (VcfRecord record : records) {
+                    parsed.increment();
+                    window.add(() -> submit(record, upload));
+                }
+            }
+            window.drain();
+        } catch (ZipException e) {
+            // La respuesta ya empezó: el error se informa como una línea más
+            window.drain();
+            out.write(resultWriter.writeValueAsBytes(VcfIngestResult.invalid(0, "Corrupt gzip data: " + e.getMessage())));
+            out.write('\n');
+        } finally {
+            window.cancel();
+        }
+
+        log.info("VCF upload for patient {} finished: {}", upload.patientId(), totals);
+    }
+
+    private Future<VcfIngestResult> submit(VcfRecord record, Context upload) {
+        if (record.error() != null) {
+            invalid.increment();
+            return CompletableFuture.completedFuture(VcfIngestResult.invalid(record.line(), record.error()));
+        }
+
+        String reason = null;
+        Long gene = record.gene() != null ? upload.genes().get(record.gene().toUpperCase()) : null;
+        if (record.filter() != null) {
+            reason = "Filtered: " + record.filter();
+        } else if (record.gene() == null) {
+            reason = "No gene annotation";
+        } else if (gene == null) {
+            reason = "Unknown gene: " + record.gene();
+        } else if (record.impact() == null) {
+            reason = "Missing or unsupported impact";
+        } else if (record.alleleFrequency() == null) {
+            reason = "No allele frequency";
+        }
+        if (reason != null) {
+            skipped.increment();
+            return CompletableFuture.completedFuture(VcfIngestResult.skipped(
+                    record.line(), record.chromosome(), record.position(), record.alternate(), reason));
+        }
+
+        CreateGeneticVariantDto variant = CreateGeneticVariantDto.builder()
+                .gene(gene)
+                .chromosome(record.chromosome())
+                .position(record.position())
+                .referenceBase(record.reference())
+                .alternateBase(record.alternate())
+                .impact(record.impact())
+                .build();
+        CreatePatientVariantReportDto report = CreatePatientVariantReportDto.builder()
+                .patientId(upload.patientId())
+                .detectionDate(upload.detectionDate())
+                // Django guarda allele_frequency con 4 decimales
+                .alleleFrequency(record.alleleFrequency().setScale(4, RoundingMode.HALF_UP))
+                .build();
+        String violations = violations(validator.validate(variant), validator.validateProperty(report, "alleleFrequency"));
+        if (violations != null) {
+            invalid.increment();
+            return CompletableFuture.completedFuture(VcfIngestResult.invalid(record.line(), violations));
+        }
+
+        return writePermits.submit(executor, () -> create(record, variant, report, upload));
+    }
+
+    private VcfIngestResult create(VcfRecord record, CreateGeneticVariantDto variant,
+                                   CreatePatientVariantReportDto report, Context upload) {
+        try {
+            UUID variantId = resolveVariant(variant);
+            report.setVariant(variantId);
+            UUID reportId = reportLatency.record(() -> genomicClient.createPatientVariantReport(report).getId());
+            reportsCreated.increment();
+            return VcfIngestResult.created(record.line(), record.chromosome(), record.position(),
+                    record.alternate(), variantId, reportId);
+        } catch (RuntimeException e) {
+            failed.increment();
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RestClientResponseException response) {
+                String detail = response.getResponseBodyAsString();
+                return VcfIngestResult.failed(record.line(), record.chromosome(), record.position(),
+                        record.alternate(), response.getStatusCode().value(),
+                        detail.isBlank() ? response.getStatusText() : truncate(detail));
+            }
+            if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+                return VcfIngestResult.failed(record.line(), record.chromosome(), record.position(),
+                        record.alternate(), HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        cause instanceof BulkheadFullException
+                                ? "Genomic service busy" : "Genomic service temporarily unavailable");
+            }
+            log.warn("VCF line {} failed: {}", record.line(), cause.getMessage());
+            return VcfIngestResult.failed(record.line(), record.chromosome(), record.position(),
+                    record.alternate(), null, "Genomic service unavailable");
+        }
+    }
+
+    /**
+     * Devuelve la variante del catálogo o la crea. Si varios alelos en vuelo (de esta carga o de otra)
+     * comparten variante, solo uno la crea y los demás reciben su id.
+     */
+    private UUID resolveVariant(CreateGeneticVariantDto variant) {
+        GeneticVariantDto existing = genomicClient.findGeneticVariant(variant.getChromosome(), variant.getPosition(),
+                variant.getReferenceBase(), variant.getAlternateBase());
+        if (existing != null) {
+            variantsExisting.increment();
+            return existing.getId();
+        }
+        UUID id = variantLatency.record(() -> genomicClient.findOrCreateGeneticVariant(variant).getId());
+        variantsCreated.increment();
+        return id;
+    }
+
+    @SafeVarargs
+    private static String violations(Set<? extends ConstraintViolation<?>>... violations) {
+        String messages = Stream.of(violations)
+                .flatMap(Set::stream)
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return messages.isEmpty() ? null : messages;
+    }
+
+    private static String truncate(String detail) {
+        return detail.length() <= MAX_ERROR_LENGTH ? detail : detail.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static Counter records(MeterRegistry meterRegistry, String stage) {
+        return Counter.builder("vcf.ingest.records")
+                .description("Alelos del VCF que alcanzan cada etapa de la carga")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    private static Timer latency(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("vcf.ingest.latency")
+                .description("Duración de las altas en Django durante la carga de un VCF")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Carga de un VCF ya abierta: escribe un resultado NDJSON por alelo.
+     */
+    @FunctionalInterface
+    public interface Upload {
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Estado compartido por los alelos de una carga.
+     * @param genes id de cada gen por símbolo en mayúsculas
+     */
+    private record Context(VcfReader reader, String patientId, LocalDate detectionDate, Map<String, Long> genes) {
+    }
+
+    /**
+     * Cuenta los bytes leídos del cuerpo de la petición.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final Counter counter;
+
+        CountingInputStream(InputStream in, Counter counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                counter.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                counter.increment(read);
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.genosentinel.auth_gateway.service;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lector en streaming de archivos VCF, en texto plano o comprimidos con gzip/bgzip.
+ * Lee una línea cada vez (la memoria no depende del tamaño del archivo; una línea de más de
+ * MAX_LINE_LENGTH caracteres se descarta y se informa como inválida) y devuelve un
+ * {@link VcfRecord} por alelo alternativo, con:
+ * - el gen: INFO GENE, GENEINFO (dbSNP) o el Gene_Name de ANN (SnpEff)
+ * - el impacto: INFO IMPACT o la anotación de ANN, traducidos a los valores de Django
+ * - la frecuencia alélica: AF o VAF del FORMAT de la muestra, o si no el AF de INFO
+ */
+final class VcfReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Holgado para INFO con anotaciones ANN largas y muchas muestras. */
+    static final int MAX_LINE_LENGTH = 1 << 20;
+    private static final int CHROM = 0;
+    private static final int POS = 1;
+    private static final int REF = 3;
+    private static final int ALT = 4;
+    private static final int FILTER = 6;
+    private static final int INFO = 7;
+    private static final int FORMAT = 8;
+    private static final int FIRST_SAMPLE = 9;
+
+    /** Términos de Sequence Ontology (ANN) por impacto de GeneticVariant.IMPACT_CHOICES. */
+    private static final Map<String, String> IMPACTS = Map.ofEntries(
+            Map.entry("missense_variant", "MISSENSE"),
+            Map.entry("stop_gained", "NONSENSE"),
+            Map.entry("frameshift_variant", "FRAMESHIFT"),
+            Map.entry("synonymous_variant", "SILENT"),
+            Map.entry("splice_acceptor_variant", "SPLICE_SITE"),
+            Map.entry("splice_donor_variant", "SPLICE_SITE"),
+            Map.entry("splice_region_variant", "SPLICE_SITE"),
+            Map.entry("inframe_insertion", "INFRAME_INSERTION"),
+            Map.entry("conservative_inframe_insertion", "INFRAME_INSERTION"),
+            Map.entry("disruptive_inframe_insertion", "INFRAME_INSERTION"),
+            Map.entry("inframe_deletion", "INFRAME_DELETION"),
+            Map.entry("conservative_inframe_deletion", "INFRAME_DELETION"),
+            Map.entry("disruptive_inframe_deletion", "INFRAME_DELETION"));
+
+    private final LineReader reader;
+    private final int sampleColumn;
+    private final LocalDate fileDate;
+    private int lineNumber;
+
+    private VcfReader(LineReader reader, int sampleColumn, LocalDate fileDate, int lineNumber) {
+        this.reader = reader;
+        this.sampleColumn = sampleColumn;
+        this.fileDate = fileDate;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Abre el VCF y lee la cabecera hasta la línea #CHROM.
+     * @param body contenido del archivo; gzip/bgzip se detecta por los bytes mágicos
+     * @param sample muestra de la que leer FORMAT; null para la primera
+     * @throws IllegalArgumentException si falta la cabecera #CHROM, no existe la muestra
+     *         o una línea de la cabecera supera MAX_LINE_LENGTH
+     */
+    static VcfReader open(InputStream body, String sample) throws IOException {
+        LineReader reader = new LineReader(
+                new InputStreamReader(decompress(body), StandardCharsets.US_ASCII), MAX_LINE_LENGTH);
+        try {
+            LocalDate fileDate = null;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.startsWith("##fileDate=")) {
+                    fileDate = parseFileDate(line.substring("##fileDate=".length()));
+                } else if (line.startsWith("#CHROM")) {
+                    return new VcfReader(reader, sampleColumn(line.split("\t"), sample), fileDate, lineNumber);
+                } else if (!line.startsWith("##")) {
+                    break;
+                }
+            }
+            throw new IllegalArgumentException("Missing #CHROM header line");
+        } catch (LineReader.LineTooLongException e) {
+            reader.close();
+            throw new IllegalArgumentException("Header " + e.getMessage().toLowerCase(), e);
+        } catch (RuntimeException | IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Fecha de la cabecera ##fileDate, si la hay.
+     */
+    LocalDate fileDate() {
+        return fileDate;
+    }
+
+    /**
+     * Lee la siguiente línea de datos.
+     * @return un registro por alelo alternativo (uno solo, con error, si la línea no es válida),
+     *         o null al final del archivo
+     */
+    List<VcfRecord> next() throws IOException {
+        String line;
+        do {
+            try {
+                line = reader.readLine();
+            } catch (LineReader.LineTooLongException e) {
+                // Ya descartada: el lector sigue en la línea siguiente
+                return List.of(VcfRecord.malformed(++lineNumber, e.getMessage()));
+            }
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isEmpty() || line.charAt(0) == '#');
+
+        String[] columns = line.split("\t", sampleColumn >= 0 ? sampleColumn + 2 : FORMAT + 1);
+        if (columns.length <= INFO) {
+            return List.of(VcfRecord.malformed(lineNumber, "Expected at least 8 columns"));
+        }
+        long position;
+        try {
+            position = Long.parseLong(columns[POS]);
+        } catch (NumberFormatException e) {
+            return List.of(VcfRecord.malformed(lineNumber, "Invalid POS: " + columns[POS]));
+        }
+
+        String[] alternates = columns[ALT].split(",");
+        String[] infoFrequencies = null;
+        String gene = null;
+        String impact = null;
+        String annotations = null;
+        String info = columns[INFO];
+        for (int start = 0, end; start < info.length(); start = end + 1) {
+            end = info.indexOf(';', start);
+            if (end < 0) {
+                end = info.length();
+            }
+            String field = info.substring(start, end);
+            if (field.startsWith("AF=")) {
+                infoFrequencies = field.substring(3).split(",");
+            } else if (field.startsWith("GENE=")) {
+                gene = field.substring(5);
+            } else if (field.startsWith("GENEINFO=") && gene == null) {
+                // dbSNP: SIMBOLO:id|SIMBOLO:id
+                gene = field.substring(9).split("[:|]", 2)[0];
+            } else if (field.startsWith("IMPACT=")) {
+                impact = field.substring(7).toUpperCase();
+            } else if (field.startsWith("ANN=")) {
+                annotations = field.substring(4);
+            }
+        }
+        String[] sampleFrequencies = sampleFrequencies(columns);
+        boolean passed = columns[FILTER].equals("PASS") || columns[FILTER].equals(".");
+
+        List<VcfRecord> records = new ArrayList<>(alternates.length);
+        for (int i = 0; i < alternates.length; i++) {
+            String alternate = alternates[i];
+            String[] annotation = annotation(annotations, alternate);
+            String alleleGene = gene != null ? gene : annotation != null && annotation.length > 3 ? annotation[3] : null;
+            String alleleImpact = impact != null ? impact : annotation != null ? impact(annotation[1]) : null;
+            BigDecimal frequency;
+            try {
+                frequency = frequency(sampleFrequencies, i);
+                if (frequency == null) {
+                    frequency = frequency(infoFrequencies, i);
+                }
+            } catch (NumberFormatException e) {
+                records.add(VcfRecord.malformed(lineNumber, "Invalid allele frequency"));
+                continue;
+            }
+            records.add(new VcfRecord(lineNumber, columns[CHROM], position, columns[REF], alternate,
+                    passed ? null : columns[FILTER], alleleGene, alleleImpact, frequency, null));
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Valores AF (o VAF) del FORMAT de la muestra, uno por alelo alternativo.
+     */
+    private String[] sampleFrequencies(String[] columns) {
+        if (sampleColumn < 0 || columns.length <= sampleColumn) {
+            return null;
+        }
+        String[] keys = columns[FORMAT].split(":");
+        String[] values = columns[sampleColumn].split(":");
+        for (int i = 0; i < keys.length && i < values.length; i++) {
+            if (keys[i].equals("AF") || keys[i].equals("VAF")) {
+                return values[i].split(",");
+            }
+        }
+        return null;
+    }
+
+    private static BigDecimal frequency(String[] values, int allele) {
+        if (values == null || allele >= values.length || values[allele].equals(".")) {
+            return null;
+        }
+        return new BigDecimal(values[allele]);
+    }
+
+    /**
+     * Entrada de ANN (Allele|Annotation|Impact|Gene_Name|...) del alelo alternativo.
+     */
+    private static String[] annotation(String annotations, String alternate) {
+        if (annotations == null) {
+            return null;
+        }
+        for (String entry : annotations.split(",")) {
+            String[] fields = entry.split("\\|", 5);
+            if (fields.length > 1 && fields[0].equals(alternate)) {
+                return fields;
+            }
+        }
+        return null;
+    }
+
+    private static String impact(String annotation) {
+        for (String term : annotation.split("&")) {
+            String impact = IMPACTS.get(term);
+            if (impact != null) {
+                return impact;
+            }
+        }
+        return null;
+    }
+
+    private static int sampleColumn(String[] header, String sample) {
+        if (sample == null) {
+            return header.length > FIRST_SAMPLE ? FIRST_SAMPLE : -1;
+        }
+        for (int i = FIRST_SAMPLE; i < header.length; i++) {
+            if (header[i].equals(sample)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Sample not found in VCF header: " + sample);
+    }
+
+    private static LocalDate parseFileDate(String value) {
+        try {
+            return LocalDate.parse(value.trim(), DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static InputStream decompress(InputStream body) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(body, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first != 0x1f || second != 0x8b) {
+            return buffered;
+        }
+        return new GZIPInputStream(new MemberAwareInputStream(buffered), BUFFER_SIZE);
+    }
+
+    /**
+     * bgzip concatena miembros gzip de 64 KB. GZIPInputStream solo pasa al siguiente miembro
+     * si available() > 0, y en un cuerpo HTTP puede ser 0 justo en el límite y truncar el archivo.
+     * Anunciar siempre un byte hace que intente leer la cabecera: al final real recibe EOF y termina.
+     */
+    private static final class MemberAwareInputStream extends FilterInputStream {
+        MemberAwareInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return Math.max(1, super.available());
+        }
+    }
+}
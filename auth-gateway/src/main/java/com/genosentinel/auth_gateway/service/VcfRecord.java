@@ -0,0 +1,20 @@
+package com.genosentinel.auth_gateway.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Un alelo alternativo de una línea de datos del VCF.
+ * @param line número de línea en el archivo descomprimido
+ * @param filter valor de FILTER si la línea no pasó los filtros; null si es PASS o "."
+ * @param gene símbolo del gen anotado, si lo hay
+ * @param impact impacto en los valores de GeneticVariant.IMPACT_CHOICES, si se pudo traducir
+ * @param alleleFrequency frecuencia alélica de la muestra, si la hay
+ * @param error motivo si la línea no se pudo interpretar; el resto de campos queda vacío
+ */
+record VcfRecord(int line, String chromosome, long position, String reference, String alternate,
+                 String filter, String gene, String impact, BigDecimal alleleFrequency, String error) {
+
+    static VcfRecord malformed(int line, String error) {
+        return new VcfRecord(line, null, 0, null, null, null, null, null, null, error);
+    }
+}
@@ -0,0 +1,91 @@
+package com.genosentinel.auth_gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+	private static final int CALLERS = 8;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SingleFlight<Integer, String> singleFlight = new SingleFlight<>("patients.by-id", meterRegistry);
+
+	@Test
+	void concurrentCallersShareOneUpstreamCall() throws Exception {
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<String>> results = runConcurrently(id -> {
+			upstreamCalls.incrementAndGet();
+			await(release);
+			return "patient-" + id;
+		}, release);
+
+		for (Future<String> result : results) {
+			assertEquals("patient-7", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(CALLERS - 1, shared());
+	}
+
+	@Test
+	void errorsReachEveryWaiter() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+
+		List<Future<String>> results = runConcurrently(id -> {
+			await(release);
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+		}, release);
+
+		for (Future<String> result : results) {
+			Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+			assertInstanceOf(ResponseStatusException.class, e.getCause());
+		}
+		assertEquals(CALLERS - 1, shared());
+	}
+
+	/**
+	 * Lanza CALLERS lecturas del id 7 y suelta la llamada en vuelo cuando todas se han unido a ella.
+	 */
+	private List<Future<String>> runConcurrently(Function<Integer, String> call, CountDownLatch release)
+			throws InterruptedException {
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> singleFlight.execute(7, call)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (shared() < CALLERS - 1 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+		executor.shutdown();
+		return results;
+	}
+
+	private double shared() {
+		return meterRegistry.get("upstream.single-flight.calls").tag("result", "shared").counter().count();
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
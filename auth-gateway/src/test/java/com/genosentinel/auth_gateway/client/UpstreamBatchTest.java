@@ -0,0 +1,105 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.genosentinel.auth_gateway.dto.BatchGetItem;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamBatchTest {
+
+	private final UpstreamBatch batch = new UpstreamBatch(2);
+	private final UpstreamCacheFactory caches = new UpstreamCacheFactory(new MockEnvironment()
+			.withProperty("upstream.cache.patients.enabled", "true"), new SimpleMeterRegistry());
+
+	@AfterEach
+	void tearDown() {
+		batch.shutdown();
+		caches.close();
+	}
+
+	@Test
+	void deduplicatesKeepsRequestOrderAndReportsPerIdErrors() {
+		ConcurrentHashMap<Integer, AtomicInteger> calls = new ConcurrentHashMap<>();
+		UpstreamCache<Integer, String> patients = caches.create("patients", "patients.by-id", id -> {
+			calls.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+			if (id == 404) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found");
+			}
+			return "patient-" + id;
+		});
+
+		List<BatchGetItem<String>> results = batch.getAll(List.of(3, 1, 404, 3, 2), patients);
+
+		assertEquals(List.of("3", "1", "404", "2"), results.stream().map(BatchGetItem::id).toList());
+		assertEquals("patient-1", results.get(1).item());
+		assertEquals(404, results.get(2).status());
+		assertEquals("Patient not found", results.get(2).error());
+		assertEquals(1, calls.get(3).get());
+	}
+
+	@Test
+	void rejectedCallsAreServiceUnavailablePerId() {
+		CircuitBreaker breaker = CircuitBreaker.ofDefaults("django");
+		breaker.transitionToOpenState();
+		UpstreamCache<Integer, String> patients = caches.create("patients", "patients.by-id", id -> {
+			if (id == 1) {
+				throw CallNotPermittedException.createCallNotPermittedException(breaker);
+			}
+			throw BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("django"));
+		});
+
+		List<BatchGetItem<String>> results = batch.getAll(List.of(1, 2), patients);
+
+		assertEquals(List.of(503, 503), results.stream().map(BatchGetItem::status).toList());
+		assertEquals("Upstream service temporarily unavailable", results.get(0).error());
+		assertEquals("Upstream service busy", results.get(1).error());
+	}
+
+	@Test
+	void servesCachedIdsWithoutCallingUpstream() {
+		AtomicInteger calls = new AtomicInteger();
+		UpstreamCache<Integer, String> patients = caches.create("patients", "patients.by-id", id -> {
+			calls.incrementAndGet();
+			return "patient-" + id;
+		});
+		patients.get(1);
+
+		batch.getAll(List.of(1, 2), patients);
+
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void capsConcurrentUpstreamCalls() {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		UpstreamCache<Integer, String> variants = caches.create("variants", "variants.by-id", id -> {
+			peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			inFlight.decrementAndGet();
+			return "variant-" + id;
+		});
+
+		List<BatchGetItem<String>> results = batch.getAll(List.of(1, 2, 3, 4, 5, 6), variants);
+
+		assertEquals(6, results.size());
+		assertTrue(peak.get() <= 2);
+	}
+}
@@ -0,0 +1,85 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.genomic.UpdateGeneDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private MockRestServiceServer server;
+	private DjangoGenomicClient client;
+
+	@BeforeEach
+	void setUp() {
+		MockEnvironment environment = new MockEnvironment()
+				.withProperty("upstream.cache.genes.enabled", "true")
+				.withProperty("upstream.cache.variants.enabled", "false");
+		RestClient.Builder builder = RestClient.builder().baseUrl("http://upstream");
+		server = MockRestServiceServer.bindTo(builder).build();
+		client = new DjangoGenomicClient(builder.build(), new ObjectMapper(),
+				new UpstreamCacheFactory(environment, meterRegistry), new UpstreamHedgingFactory(environment, meterRegistry),
+				new UpstreamBatch(4));
+	}
+
+	@Test
+	void servesRepeatedReadsFromCacheAndRecordsHits() {
+		server.expect(ExpectedCount.once(), requestTo("http://upstream/api/genes/1/"))
+				.andRespond(withSuccess(gene("BRCA1"), MediaType.APPLICATION_JSON));
+
+		assertEquals("BRCA1", client.getGeneById(1L).getSymbol());
+		assertEquals("BRCA1", client.getGeneById(1L).getSymbol());
+
+		server.verify();
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "upstream.genes.by-id")
+				.tag("result", "hit").functionCounter().count());
+	}
+
+	@Test
+	void updateInvalidatesTheCachedEntry() {
+		server.expect(requestTo("http://upstream/api/genes/1/"))
+				.andRespond(withSuccess(gene("BRCA1"), MediaType.APPLICATION_JSON));
+		server.expect(method(HttpMethod.PATCH))
+				.andRespond(withSuccess(gene("BRCA2"), MediaType.APPLICATION_JSON));
+		server.expect(requestTo("http://upstream/api/genes/1/"))
+				.andRespond(withSuccess(gene("BRCA2"), MediaType.APPLICATION_JSON));
+
+		client.getGeneById(1L);
+		client.updateGene(1L, new UpdateGeneDto());
+
+		assertEquals("BRCA2", client.getGeneById(1L).getSymbol());
+		server.verify();
+	}
+
+	@Test
+	void disabledEntityAlwaysGoesUpstream() {
+		UUID id = UUID.randomUUID();
+		server.expect(ExpectedCount.twice(), requestTo("http://upstream/api/variants/" + id + "/"))
+				.andRespond(withSuccess("{\"id\":\"" + id + "\"}", MediaType.APPLICATION_JSON));
+
+		client.getGeneticVariantById(id);
+		client.getGeneticVariantById(id);
+
+		server.verify();
+		assertTrue(meterRegistry.find("cache.gets").tag("cache", "upstream.variants.by-id").meters().isEmpty());
+	}
+
+	private static String gene(String symbol) {
+		return "{\"id\":1,\"symbol\":\"" + symbol + "\"}";
+	}
+}
@@ -0,0 +1,156 @@
+package com.genosentinel.auth_gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamHedgingFactoryTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final UpstreamHedgingFactory factory = new UpstreamHedgingFactory(new MockEnvironment()
+			.withProperty("upstream.hedging.reports.enabled", "true")
+			.withProperty("upstream.hedging.reports.min-delay-ms", "10")
+			.withProperty("upstream.hedging.reports.budget-percent", "10"), meterRegistry);
+
+	@AfterEach
+	void tearDown() {
+		factory.close();
+	}
+
+	@Test
+	void slowFirstAttemptIsHedgedAndCancelled() throws InterruptedException {
+		AtomicInteger attempts = new AtomicInteger();
+		CountDownLatch loserCancelled = new CountDownLatch(1);
+		Function<Integer, String> read = factory.wrap("reports", id -> {
+			// Tras el calentamiento, el primer intento de la llamada 60 se queda colgado
+			if (id == 60 && attempts.incrementAndGet() == 1) {
+				try {
+					Thread.sleep(10_000);
+				} catch (InterruptedException e) {
+					loserCancelled.countDown();
+					throw new IllegalStateException(e);
+				}
+			}
+			return "report-" + id;
+		});
+		for (int i = 0; i < 59; i++) {
+			read.apply(i);
+		}
+
+		long start = System.nanoTime();
+		assertEquals("report-60", read.apply(60));
+
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+		assertTrue(loserCancelled.await(2, TimeUnit.SECONDS));
+		assertEquals(1.0, count("hedge-won"));
+		// El intento cancelado también cuenta como muestra: 59 + 2 intentos
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (attempts() < 61 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(61, attempts());
+	}
+
+	@Test
+	void aHedgeCancelledRightAfterItStartsDoesNotLowerTheDelay() {
+		SimpleMeterRegistry meters = new SimpleMeterRegistry();
+		UpstreamHedgingFactory lowPercentile = new UpstreamHedgingFactory(new MockEnvironment()
+				.withProperty("upstream.hedging.variants.enabled", "true")
+				.withProperty("upstream.hedging.variants.percentile", "25")
+				.withProperty("upstream.hedging.variants.min-delay-ms", "1")
+				.withProperty("upstream.hedging.variants.budget-percent", "100"), meters);
+		Map<Integer, CountDownLatch> hedgeStarted = new ConcurrentHashMap<>();
+		Set<Integer> primaries = ConcurrentHashMap.newKeySet();
+		Function<Integer, String> read = lowPercentile.wrap("variants", id -> {
+			try {
+				if (id < 50) {
+					Thread.sleep(20);
+				} else if (primaries.add(id)) {
+					// El primer intento gana justo después de que salte el hedge
+					assertTrue(hedgeStarted.computeIfAbsent(id, k -> new CountDownLatch(1)).await(5, TimeUnit.SECONDS));
+				} else {
+					hedgeStarted.computeIfAbsent(id, k -> new CountDownLatch(1)).countDown();
+					Thread.sleep(10_000);
+				}
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			return "variant-" + id;
+		});
+
+		try {
+			for (int i = 0; i < 110; i++) {
+				assertEquals("variant-" + i, read.apply(i));
+			}
+
+			assertEquals(60.0, meters.get("upstream.hedging.calls").tag("result", "hedged").counter().count());
+			assertEquals(0.0, meters.get("upstream.hedging.calls").tag("result", "hedge-won").counter().count());
+			// Medidos desde su propio inicio, los 60 hedges cancelados (casi 0 ms) bajarían el p25
+			// por debajo de la latencia real de 20 ms
+			double delay = meters.get("upstream.hedging.delay").timeGauge().value(TimeUnit.MILLISECONDS);
+			assertTrue(delay >= 20, "hedge delay dropped to " + delay + " ms");
+		} finally {
+			lowPercentile.close();
+		}
+	}
+
+	@Test
+	void failedAttemptsAreRecorded() {
+		Function<Integer, String> read = factory.wrap("reports", id -> {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+		});
+
+		assertThrows(ResponseStatusException.class, () -> read.apply(1));
+		assertEquals(1, attempts());
+	}
+
+	@Test
+	void clientErrorsAreNotHedged() {
+		Function<Integer, String> read = factory.wrap("reports", id -> {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		});
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> read.apply(1));
+		assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+		assertEquals(0.0, count("hedged"));
+	}
+
+	@Test
+	void budgetCapsHedgesAtTheConfiguredShare() {
+		UpstreamHedgingFactory.HedgeBudget budget = new UpstreamHedgingFactory.HedgeBudget(10);
+		for (int i = 0; i < 10; i++) {
+			budget.deposit();
+		}
+
+		assertTrue(budget.withdraw());
+		assertFalse(budget.withdraw());
+	}
+
+	@Test
+	void disabledEntitiesAreNotWrapped() {
+		Function<Integer, String> read = id -> "patient-" + id;
+
+		assertSame(read, factory.wrap("patients", read));
+	}
+
+	private long attempts() {
+		return meterRegistry.get("upstream.hedging.latency").tag("type", "attempt").timer().count();
+	}
+
+	private double count(String result) {
+		return meterRegistry.get("upstream.hedging.calls").tag("result", result).counter().count();
+	}
+}
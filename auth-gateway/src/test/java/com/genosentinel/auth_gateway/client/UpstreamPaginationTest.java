@@ -0,0 +1,93 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.PageResponse;
+import com.genosentinel.auth_gateway.dto.genomic.GeneDto;
+import com.genosentinel.auth_gateway.dto.nestjs.TumorTypeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.genosentinel.auth_gateway.client.UpstreamPagination.Style.LIMIT_OFFSET;
+import static com.genosentinel.auth_gateway.client.UpstreamPagination.Style.PAGE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamPaginationTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private MockRestServiceServer server;
+	private RestClient restClient;
+
+	@BeforeEach
+	void setUp() {
+		RestClient.Builder builder = RestClient.builder().baseUrl("http://upstream");
+		server = MockRestServiceServer.bindTo(builder).build();
+		restClient = builder.build();
+	}
+
+	@Test
+	void translatesToDjangoLimitOffsetAndReadsEnvelope() {
+		PageWindow second = PageWindow.of(2, PageWindow.of(2, null).nextCursor());
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=2"))
+				.andRespond(withSuccess("{\"count\":5,\"next\":null,\"previous\":null,\"results\":["
+						+ genes(3, 4) + "]}", MediaType.APPLICATION_JSON));
+
+		PageResponse<GeneDto> page = UpstreamPagination.fetch(
+				restClient, objectMapper, "/api/genes/", LIMIT_OFFSET, second, GeneDto.class);
+
+		assertEquals(2, page.items().size());
+		assertEquals(5L, page.total());
+		assertEquals(4, PageWindow.of(2, page.nextCursor()).offset());
+	}
+
+	@Test
+	void slicesLocallyWhenUpstreamReturnsTheWholeCollection() {
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=4"))
+				.andRespond(withSuccess("[" + genes(1, 5) + "]", MediaType.APPLICATION_JSON));
+
+		PageResponse<GeneDto> page = UpstreamPagination.fetch(
+				restClient, objectMapper, "/api/genes/", LIMIT_OFFSET, new PageWindow(4, 2), GeneDto.class);
+
+		assertEquals(1, page.items().size());
+		assertEquals("GENE5", page.items().get(0).getSymbol());
+		assertNull(page.nextCursor());
+	}
+
+	@Test
+	void translatesToNestJsPageAndReadsDataMetaEnvelope() {
+		server.expect(requestTo("http://upstream/api/tumor-types?page=3&limit=10"))
+				.andRespond(withSuccess("{\"data\":[{\"id\":21,\"name\":\"Melanoma\"}],\"meta\":{\"total\":21}}",
+						MediaType.APPLICATION_JSON));
+
+		PageResponse<TumorTypeDto> page = UpstreamPagination.fetch(
+				restClient, objectMapper, "/api/tumor-types", PAGE, new PageWindow(20, 10), TumorTypeDto.class);
+
+		assertEquals(1, page.items().size());
+		assertEquals(21L, page.total());
+		assertNull(page.nextCursor());
+	}
+
+	@Test
+	void rejectsCursorIssuedForAnotherLimit() {
+		String cursor = PageWindow.of(10, null).nextCursor();
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> PageWindow.of(20, cursor));
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+		assertThrows(ResponseStatusException.class, () -> PageWindow.of(10, "garbage"));
+	}
+
+	private static String genes(int from, int to) {
+		return IntStream.rangeClosed(from, to)
+				.mapToObj(i -> "{\"id\":" + i + ",\"symbol\":\"GENE" + i + "\"}")
+				.collect(Collectors.joining(","));
+	}
+}
@@ -0,0 +1,77 @@
+package com.genosentinel.auth_gateway.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamPassThroughTest {
+
+	private MockRestServiceServer server;
+	private RestClient restClient;
+
+	@BeforeEach
+	void setUp() {
+		RestClient.Builder builder = RestClient.builder().baseUrl("http://django");
+		server = MockRestServiceServer.bindTo(builder).build();
+		restClient = builder.build();
+	}
+
+	@Test
+	void copiesBodyAndHeadersUntouched() {
+		String body = "[{\"id\":\"1\",\"gene_details\":{\"symbol\":\"BRCA1\"}}]".repeat(2_000);
+		server.expect(requestTo("http://django/api/variants/"))
+				.andRespond(withSuccess(body, MediaType.APPLICATION_JSON)
+						.header("Content-Length", String.valueOf(body.length())));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		UpstreamPassThrough.get(restClient, "/api/variants/", new MockHttpServletRequest(), response, "Django Genomic");
+
+		assertEquals(200, response.getStatus());
+		assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+		assertEquals(body.length(), response.getContentLengthLong());
+		assertArrayEquals(body.getBytes(), response.getContentAsByteArray());
+	}
+
+	@Test
+	void upstreamErrorsBecomeStatusExceptions() {
+		server.expect(requestTo("http://django/api/reports/"))
+				.andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> UpstreamPassThrough.get(
+						restClient, "/api/reports/", new MockHttpServletRequest(), response, "Django Genomic"));
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+		assertFalse(response.isCommitted());
+	}
+
+	@Test
+	void relaysConditionalRequestAndNotModified() {
+		server.expect(requestTo("http://django/api/variants/"))
+				.andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+				.andRespond(withStatus(HttpStatus.NOT_MODIFIED).header(HttpHeaders.ETAG, "\"abc\""));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"abc\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		UpstreamPassThrough.get(restClient, "/api/variants/", request, response, "Django Genomic");
+
+		assertEquals(304, response.getStatus());
+		assertEquals("\"abc\"", response.getHeader(HttpHeaders.ETAG));
+		assertEquals(0, response.getContentAsByteArray().length);
+	}
+}
@@ -0,0 +1,161 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.genomic.GeneDto;
+import com.genosentinel.auth_gateway.dto.nestjs.TumorTypeDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.genosentinel.auth_gateway.client.UpstreamPagination.Style.LIMIT_OFFSET;
+import static com.genosentinel.auth_gateway.client.UpstreamPagination.Style.PAGE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamStreamTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private MockRestServiceServer server;
+	private RestClient restClient;
+
+	@BeforeEach
+	void setUp() {
+		RestClient.Builder builder = RestClient.builder().baseUrl("http://upstream");
+		server = MockRestServiceServer.bindTo(builder).build();
+		restClient = builder.build();
+	}
+
+	@Test
+	void followsDjangoPagesUntilCountIsReached() {
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=0"))
+				.andRespond(withSuccess("{\"count\":3,\"results\":[" + genes(1, 2) + "]}", MediaType.APPLICATION_JSON));
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=2"))
+				.andRespond(withSuccess("{\"count\":3,\"results\":[" + genes(3, 3) + "]}", MediaType.APPLICATION_JSON));
+
+		try (Stream<GeneDto> genes = UpstreamStream.open(
+				restClient, objectMapper, "/api/genes/", LIMIT_OFFSET, 2, GeneDto.class, "Django")) {
+			assertEquals(List.of("GENE1", "GENE2", "GENE3"), genes.map(GeneDto::getSymbol).toList());
+		}
+		server.verify();
+	}
+
+	@Test
+	void stopsAfterRawArrayAndShortNestJsPage() {
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=0"))
+				.andRespond(withSuccess("[" + genes(1, 5) + "]", MediaType.APPLICATION_JSON));
+
+		try (Stream<GeneDto> genes = UpstreamStream.open(
+				restClient, objectMapper, "/api/genes/", LIMIT_OFFSET, 2, GeneDto.class, "Django")) {
+			assertEquals(5, genes.count());
+		}
+		server.verify();
+
+		server.reset();
+		server.expect(requestTo("http://upstream/api/tumor-types?page=1&limit=2"))
+				.andRespond(withSuccess("{\"data\":[{\"id\":1,\"name\":\"Melanoma\"}]}", MediaType.APPLICATION_JSON));
+
+		try (Stream<TumorTypeDto> tumorTypes = UpstreamStream.open(
+				restClient, objectMapper, "/api/tumor-types", PAGE, 2, TumorTypeDto.class, "NestJS")) {
+			assertEquals(1, tumorTypes.count());
+		}
+		server.verify();
+	}
+
+	@Test
+	void surfacesUpstreamErrorsToTheConsumer() {
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=0"))
+				.andRespond(withSuccess("{\"count\":4,\"results\":[" + genes(1, 2) + "]}", MediaType.APPLICATION_JSON));
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=2"))
+				.andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+		try (Stream<GeneDto> genes = UpstreamStream.open(
+				restClient, objectMapper, "/api/genes/", LIMIT_OFFSET, 2, GeneDto.class, "Django")) {
+			ResponseStatusException e = assertThrows(ResponseStatusException.class, genes::toList);
+			assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+		}
+	}
+
+	@Test
+	void deliversQueuedItemsBeforeTheFailure() throws Exception {
+		AtomicReference<Thread> producer = new AtomicReference<>();
+		// El hilo se captura con la primera página, antes de que el consumidor reciba GENE1
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=0"))
+				.andRespond(request -> {
+					producer.set(Thread.currentThread());
+					return withSuccess("{\"count\":4,\"results\":[" + genes(1, 2) + "]}", MediaType.APPLICATION_JSON)
+							.createResponse(request);
+				});
+		server.expect(requestTo("http://upstream/api/genes/?limit=2&offset=2"))
+				.andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+		try (Stream<GeneDto> genes = UpstreamStream.open(
+				restClient, objectMapper, "/api/genes/", LIMIT_OFFSET, 2, GeneDto.class, "Django")) {
+			Iterator<GeneDto> iterator = genes.iterator();
+			assertEquals("GENE1", iterator.next().getSymbol());
+			// El productor termina tras encolar el fallo de la segunda página; GENE2 sigue en la cola
+			server.verify(Duration.ofSeconds(5));
+			producer.get().join(Duration.ofSeconds(5));
+			assertEquals("GENE2", iterator.next().getSymbol());
+			assertThrows(ResponseStatusException.class, iterator::hasNext);
+		}
+	}
+
+	@Test
+	void closingEarlyReleasesTheResponseAndStopsTheProducer() throws Exception {
+		AtomicInteger requests = new AtomicInteger();
+		AtomicReference<Thread> producer = new AtomicReference<>();
+		CountDownLatch responseClosed = new CountDownLatch(1);
+		server.expect(ExpectedCount.manyTimes(), requestTo(startsWith("http://upstream/api/genes/")))
+				.andRespond(request -> {
+					requests.incrementAndGet();
+					producer.set(Thread.currentThread());
+					byte[] page = ("{\"count\":1000,\"results\":[" + genes(1, 100) + "]}").getBytes(StandardCharsets.UTF_8);
+					return new MockClientHttpResponse(page, HttpStatus.OK) {
+						@Override
+						public void close() {
+							responseClosed.countDown();
+							super.close();
+						}
+					};
+				});
+
+		// La página trae más elementos que la cola (pageSize + 1): el productor queda bloqueado
+		// a mitad de la respuesta y no puede pedir la siguiente antes del cierre
+		try (Stream<GeneDto> genes = UpstreamStream.open(
+				restClient, objectMapper, "/api/genes/", LIMIT_OFFSET, 2, GeneDto.class, "Django")) {
+			assertEquals("GENE1", genes.iterator().next().getSymbol());
+		}
+
+		assertTrue(responseClosed.await(5, TimeUnit.SECONDS));
+		producer.get().join(Duration.ofSeconds(5));
+		assertFalse(producer.get().isAlive());
+		assertEquals(1, requests.get());
+	}
+
+	private static String genes(int from, int to) {
+		return IntStream.rangeClosed(from, to)
+				.mapToObj(i -> "{\"id\":" + i + ",\"symbol\":\"GENE" + i + "\"}")
+				.collect(Collectors.joining(","));
+	}
+}
@@ -0,0 +1,283 @@
+package com.genosentinel.auth_gateway.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.genomic.CreateGeneticVariantDto;
+import com.genosentinel.auth_gateway.dto.genomic.GeneticVariantDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class VariantRegionIndexTest {
+
+	private final VariantRegionIndex index = new VariantRegionIndex();
+
+	@Test
+	void returnsVariantsInsideTheClosedRangeSortedByPosition() {
+		GeneticVariantDto first = variant("chr17", 7_660_000);
+		GeneticVariantDto second = variant("17", 7_675_088);
+		GeneticVariantDto sameSite = variant("chr17", 7_675_088);
+		GeneticVariantDto last = variant("chr17", 7_690_000);
+		index.replaceAll(List.of(last, variant("chr17", 7_690_001), second, variant("chr13", 7_670_000),
+				first, sameSite, variant("chr17", 7_659_999)));
+
+		List<GeneticVariantDto> found = index.query(GenomicRegion.parse("chr17:7,660,000-7,690,000"));
+
+		assertEquals(4, found.size());
+		assertEquals(first, found.get(0));
+		assertTrue(found.subList(1, 3).containsAll(List.of(second, sameSite)));
+		assertEquals(last, found.get(3));
+		assertEquals(List.of(), index.query(GenomicRegion.parse("chrX:1-100")));
+	}
+
+	@Test
+	void appliesWritesWithoutFullReload() {
+		GeneticVariantDto moved = variant("chr1", 100);
+		GeneticVariantDto removed = variant("chr1", 200);
+		index.replaceAll(List.of(moved, removed));
+
+		index.upsert(GeneticVariantDto.builder().id(moved.getId()).chromosome("chr2").position(150L).build());
+		index.remove(removed.getId());
+		index.upsert(variant("chr1", 120));
+
+		assertEquals(List.of(120L), index.query(GenomicRegion.parse("chr1:1-1000")).stream()
+				.map(GeneticVariantDto::getPosition).toList());
+		assertEquals(moved.getId(), index.query(GenomicRegion.parse("2:150-150")).get(0).getId());
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void coalescedWritesAnswerLikeTheFullCatalogue() {
+		Random random = new Random(42);
+		Map<UUID, GeneticVariantDto> catalogue = new HashMap<>();
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			GeneticVariantDto variant = variant(random.nextBoolean() ? "chr1" : "chr2", random.nextInt(100_000));
+			catalogue.put(variant.getId(), variant);
+			ids.add(variant.getId());
+		}
+		index.replaceAll(catalogue.values());
+
+		// Altas, movimientos y bajas sueltos, suficientes para compactar varias veces
+		for (int i = 0; i < 3_000; i++) {
+			int operation = random.nextInt(3);
+			if (operation == 0 || ids.isEmpty()) {
+				GeneticVariantDto added = variant(random.nextBoolean() ? "chr1" : "chr3", random.nextInt(100_000));
+				catalogue.put(added.getId(), added);
+				ids.add(added.getId());
+				index.upsert(added);
+			} else if (operation == 1) {
+				UUID id = ids.get(random.nextInt(ids.size()));
+				GeneticVariantDto moved = GeneticVariantDto.builder().id(id)
+						.chromosome(random.nextBoolean() ? "chr1" : "chr2").position((long) random.nextInt(100_000)).build();
+				catalogue.put(id, moved);
+				index.upsert(moved);
+			} else {
+				UUID id = ids.remove(random.nextInt(ids.size()));
+				catalogue.remove(id);
+				index.remove(id);
+			}
+		}
+
+		for (String chromosome : List.of("chr1", "chr2", "chr3")) {
+			for (int i = 0; i < 50; i++) {
+				long start = random.nextInt(100_000);
+				GenomicRegion region = GenomicRegion.parse(chromosome + ":" + start + "-" + (start + random.nextInt(5_000)));
+				List<GeneticVariantDto> found = index.query(region);
+				List<UUID> expected = catalogue.values().stream()
+						.filter(variant -> region.contains(variant.getChromosome(), variant.getPosition()))
+						.map(GeneticVariantDto::getId).sorted().toList();
+				assertEquals(expected, found.stream().map(GeneticVariantDto::getId).sorted().toList());
+				assertTrue(isSortedByPosition(found));
+			}
+		}
+		assertEquals(catalogue.size(), index.size());
+	}
+
+	@Test
+	void concurrentUpsertsAreVisibleWhenEachCallReturns() throws Exception {
+		List<GeneticVariantDto> catalogue = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			catalogue.add(variant("chr1", i * 10L));
+		}
+		index.replaceAll(catalogue);
+
+		// Altas sueltas desde muchos hilos: se agrupan, pero cada llamada vuelve con su variante ya indexada
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> writers = new ArrayList<>();
+			for (int t = 0; t < 16; t++) {
+				int writer = t;
+				writers.add(executor.submit(() -> {
+					for (int i = 0; i < 200; i++) {
+						GeneticVariantDto added = GeneticVariantDto.builder().id(UUID.randomUUID())
+								.chromosome(writer % 2 == 0 ? "chr1" : "chr2").position(i * 10L + writer)
+								.referenceBase("A").alternateBase("C" + writer).build();
+						index.upsert(added);
+						assertEquals(added, index.findVariant(added.getChromosome(), added.getPosition(), "A", "C" + writer));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> writer : writers) {
+				writer.get(10, TimeUnit.SECONDS);
+			}
+		}
+
+		assertEquals(20_000 + 16 * 200, index.size());
+		assertTrue(isSortedByPosition(index.query(GenomicRegion.parse("chr1:1-200000"))));
+	}
+
+	@Test
+	void reappliesWritesMadeDuringAFullLoad() {
+		GeneticVariantDto deleted = variant("chr1", 100);
+		GeneticVariantDto kept = variant("chr1", 200);
+		index.replaceAll(List.of(deleted, kept));
+
+		index.beginFullLoad();
+		// Mientras se lee el catálogo (que aún tiene la variante borrada) llegan una baja y un alta
+		index.remove(deleted.getId());
+		GeneticVariantDto created = variant("chr1", 300);
+		index.upsert(created);
+		index.replaceAll(List.of(deleted, kept));
+
+		assertEquals(List.of(kept.getId(), created.getId()), index.query(GenomicRegion.parse("chr1:1-1000")).stream()
+				.map(GeneticVariantDto::getId).toList());
+
+		index.beginFullLoad();
+		index.remove(kept.getId());
+		index.abortFullLoad();
+		index.replaceAll(List.of(kept));
+		assertEquals(List.of(kept.getId()), index.query(GenomicRegion.parse("chr1:1-1000")).stream()
+				.map(GeneticVariantDto::getId).toList());
+	}
+
+	@Test
+	void findsAVariantBySiteAndAlleles() {
+		GeneticVariantDto snv = GeneticVariantDto.builder().id(UUID.randomUUID()).chromosome("chr17").position(7_675_088L)
+				.referenceBase("C").alternateBase("T").build();
+		GeneticVariantDto other = GeneticVariantDto.builder().id(UUID.randomUUID()).chromosome("chr17").position(7_675_088L)
+				.referenceBase("C").alternateBase("G").build();
+		index.replaceAll(List.of(snv));
+		index.upsert(other);
+
+		assertEquals(snv, index.findVariant("17", 7_675_088, "c", "t"));
+		assertEquals(other, index.findVariant("chr17", 7_675_088, "C", "G"));
+		assertNull(index.findVariant("chr17", 7_675_088, "C", "A"));
+		assertNull(index.findVariant("chr2", 7_675_088, "C", "T"));
+	}
+
+	@Test
+	void createsAMissingVariantOnceAcrossConcurrentCallers() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		MockEnvironment environment = new MockEnvironment();
+		RestClient.Builder builder = RestClient.builder().baseUrl("http://upstream");
+		MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+		DjangoGenomicClient client = new DjangoGenomicClient(builder.build(), new ObjectMapper(),
+				new UpstreamCacheFactory(environment, meterRegistry), new UpstreamHedgingFactory(environment, meterRegistry),
+				new UpstreamBatch(4));
+		GeneticVariantDto known = GeneticVariantDto.builder().id(UUID.randomUUID()).chromosome("chr17").position(100L)
+				.referenceBase("G").alternateBase("A").build();
+		client.regionIndex().replaceAll(List.of(known));
+
+		UUID created = UUID.randomUUID();
+		CompletableFuture<Void> release = new CompletableFuture<>();
+		server.expect(ExpectedCount.once(), requestTo("http://upstream/api/variants/"))
+				.andRespond(request -> {
+					release.orTimeout(5, TimeUnit.SECONDS).join();
+					return withSuccess("{\"id\":\"" + created + "\",\"chromosome\":\"chr17\",\"position\":200,"
+							+ "\"reference_base\":\"C\",\"alternate_base\":\"T\"}", MediaType.APPLICATION_JSON)
+							.createResponse(request);
+				});
+
+		// Dos cargas piden la misma variante escrita de otra forma mientras la primera alta sigue en vuelo
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<GeneticVariantDto> first = executor.submit(() -> client.findOrCreateGeneticVariant(newVariant("chr17", "C", "T")));
+			Future<GeneticVariantDto> second = executor.submit(() -> client.findOrCreateGeneticVariant(newVariant("17", "c", "t")));
+			Counter shared = meterRegistry.counter("upstream.single-flight.calls", "name", "variants.create", "result", "shared");
+			for (int i = 0; i < 500 && shared.count() < 1; i++) {
+				Thread.sleep(10);
+			}
+			assertEquals(1, shared.count());
+			release.complete(null);
+
+			assertEquals(created, first.get(5, TimeUnit.SECONDS).getId());
+			assertEquals(created, second.get(5, TimeUnit.SECONDS).getId());
+		}
+
+		// Después, el índice ya la tiene: ni esta ni la conocida vuelven a Django
+		assertEquals(created, client.findOrCreateGeneticVariant(newVariant("CHR17", "C", "T")).getId());
+		assertEquals(known, client.findGeneticVariant("17", 100, "g", "a"));
+		server.verify();
+	}
+
+	@Test
+	void rejectsMalformedRegions() {
+		assertThrows(ResponseStatusException.class, () -> GenomicRegion.parse("chr17"));
+		assertThrows(ResponseStatusException.class, () -> GenomicRegion.parse("chr17:200-100"));
+		assertThrows(ResponseStatusException.class, () -> GenomicRegion.parse("chr17:1-99999999999999999999"));
+	}
+
+	@Test
+	void refresherLoadsOnceThenAppliesDeltasAndSurvivesOutages() {
+		DjangoGenomicClient client = mock(DjangoGenomicClient.class);
+		when(client.regionIndex()).thenReturn(index);
+		GeneticVariantDto loaded = variant("chr17", 100);
+		loaded.setUpdatedAt("2024-05-01T10:00:00.123456-05:00");
+		when(client.streamGeneticVariants()).thenReturn(Stream.of(loaded));
+		when(client.getGeneticVariantsUpdatedSince(any())).thenReturn(List.of(variant("chr17", 150)))
+				.thenThrow(new ResourceAccessException("Connection refused"));
+		VariantRegionRefresher refresher = new VariantRegionRefresher(client, new SimpleMeterRegistry(), 30_000, 600, 30);
+
+		refresher.refresh();
+		refresher.refresh();
+		refresher.refresh();
+
+		verify(client, times(1)).streamGeneticVariants();
+		verify(client, times(2)).getGeneticVariantsUpdatedSince(Instant.parse("2024-05-01T14:59:30.123456Z"));
+		assertEquals(2, index.query(GenomicRegion.parse("chr17:1-1000")).size());
+	}
+
+	private static boolean isSortedByPosition(List<GeneticVariantDto> variants) {
+		for (int i = 1; i < variants.size(); i++) {
+			if (variants.get(i - 1).getPosition() > variants.get(i).getPosition()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static CreateGeneticVariantDto newVariant(String chromosome, String referenceBase, String alternateBase) {
+		return CreateGeneticVariantDto.builder().gene(1L).chromosome(chromosome).position(200L)
+				.referenceBase(referenceBase).alternateBase(alternateBase).impact("MISSENSE").build();
+	}
+
+	private static GeneticVariantDto variant(String chromosome, long position) {
+		return GeneticVariantDto.builder().id(UUID.randomUUID()).chromosome(chromosome).position(position).build();
+	}
+}
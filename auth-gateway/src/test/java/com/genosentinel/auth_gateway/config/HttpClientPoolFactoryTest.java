@@ -0,0 +1,33 @@
+package com.genosentinel.auth_gateway.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientPoolFactoryTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final HttpClientPoolFactory factory = new HttpClientPoolFactory(
+			new MockEnvironment().withProperty("nestjs.http.max-connections", "7"), registry);
+
+	@AfterEach
+	void tearDown() {
+		factory.close();
+	}
+
+	@Test
+	void createsOnePoolPerUpstreamWithItsOwnLimit() {
+		ClientHttpRequestFactory nestJs = factory.create("nestjs", "http://localhost:3000", "nestjs.http");
+		factory.create("django-genomic", "http://localhost:8000", "django.genomic.http");
+
+		assertInstanceOf(HttpComponentsClientHttpRequestFactory.class, nestJs);
+		assertEquals(7.0, registry.get("http.client.pool.max").tag("upstream", "nestjs").gauge().value());
+		assertEquals(50.0, registry.get("http.client.pool.max").tag("upstream", "django-genomic").gauge().value());
+		assertEquals(0.0, registry.get("http.client.pool.leased").tag("upstream", "nestjs").gauge().value());
+	}
+}
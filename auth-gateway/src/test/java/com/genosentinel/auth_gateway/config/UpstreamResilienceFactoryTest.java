@@ -0,0 +1,78 @@
+package com.genosentinel.auth_gateway.config;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class UpstreamResilienceFactoryTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void opensAfterServerErrorsAndRejectsWithoutCallingUpstream() {
+		UpstreamResilienceFactory factory = factory(new MockEnvironment()
+				.withProperty("nestjs.resilience.sliding-window-size", "4")
+				.withProperty("nestjs.resilience.minimum-calls", "4"));
+		RestClient.Builder builder = RestClient.builder().baseUrl("http://nestjs")
+				.requestInterceptor(factory.create("nestjs", "nestjs.resilience"));
+		MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+		RestClient restClient = builder.build();
+		server.expect(ExpectedCount.times(4), requestTo("http://nestjs/api/patients/1"))
+				.andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR));
+
+		for (int i = 0; i < 4; i++) {
+			assertThrows(Exception.class, () -> restClient.get().uri("/api/patients/1").retrieve().toBodilessEntity());
+		}
+
+		assertThrows(CallNotPermittedException.class,
+				() -> restClient.get().uri("/api/patients/1").retrieve().toBodilessEntity());
+		server.verify();
+		assertEquals(CircuitBreaker.State.OPEN, factory.getCircuitBreakers().circuitBreaker("nestjs").getState());
+		assertEquals(UpstreamCircuitBreakerHealthIndicator.DEGRADED,
+				new UpstreamCircuitBreakerHealthIndicator(factory).health().getStatus());
+		assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.state")
+				.tag("name", "nestjs").tag("state", "open").gauge().value());
+	}
+
+	@Test
+	void bulkheadRejectsWhileAStreamedResponseIsOpen() throws Exception {
+		UpstreamResilienceFactory factory = factory(new MockEnvironment()
+				.withProperty("django.genomic.resilience.max-concurrent-calls", "1")
+				.withProperty("django.genomic.resilience.max-wait-ms", "0"));
+		RestClient.Builder builder = RestClient.builder().baseUrl("http://django")
+				.requestInterceptor(factory.create("django-genomic", "django.genomic.resilience"));
+		MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+		RestClient restClient = builder.build();
+		server.expect(ExpectedCount.twice(), requestTo("http://django/api/variants/"))
+				.andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+		ClientHttpResponse streaming = restClient.get().uri("/api/variants/")
+				.exchange((request, response) -> response, false);
+
+		assertThrows(BulkheadFullException.class,
+				() -> restClient.get().uri("/api/variants/").retrieve().toBodilessEntity());
+
+		streaming.close();
+		assertEquals(HttpStatus.OK, restClient.get().uri("/api/variants/").retrieve().toBodilessEntity().getStatusCode());
+		assertEquals(Status.UP, new UpstreamCircuitBreakerHealthIndicator(factory).health().getStatus());
+	}
+
+	private UpstreamResilienceFactory factory(MockEnvironment environment) {
+		return new UpstreamResilienceFactory(environment, meterRegistry);
+	}
+}
@@ -0,0 +1,123 @@
+package com.genosentinel.auth_gateway.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara hilos de plataforma (200, como el máximo por defecto de Tomcat) con hilos virtuales
+ * al hacer 2.000 llamadas concurrentes a un upstream local que tarda 200 ms por respuesta.
+ * No sigue el patrón *Test, así que no corre en el build; se ejecuta con:
+ * mvn test -Dtest=UpstreamThreadingBenchmark
+ */
+class UpstreamThreadingBenchmark {
+
+	private static final int REQUESTS = 2_000;
+	private static final int PLATFORM_THREADS = 200;
+	private static final long UPSTREAM_DELAY_MILLIS = 200;
+
+	static {
+		// El HttpServer del JDK cierra por defecto las conexiones ociosas por encima de 200
+		System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(REQUESTS));
+	}
+
+	private HttpServer upstream;
+	private HttpClientPoolFactory pools;
+	private RestClient restClient;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), REQUESTS);
+		upstream.createContext("/slow", exchange -> {
+			try {
+				Thread.sleep(UPSTREAM_DELAY_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		upstream.start();
+
+		String baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+		pools = new HttpClientPoolFactory(new MockEnvironment()
+				.withProperty("bench.http.max-connections", String.valueOf(REQUESTS))
+				.withProperty("bench.http.pool-acquire-timeout-ms", "60000"),
+				new SimpleMeterRegistry());
+		restClient = RestClient.builder()
+				.baseUrl(baseUrl)
+				.requestFactory(pools.create("bench", baseUrl, "bench.http"))
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		pools.close();
+		upstream.stop(0);
+	}
+
+	@Test
+	void platformVersusVirtualThreads() throws Exception {
+		// Calentamiento: JIT y conexiones del pool
+		run(Executors.newVirtualThreadPerTaskExecutor());
+
+		long[] platform = run(Executors.newFixedThreadPool(PLATFORM_THREADS));
+		long[] virtual = run(Executors.newVirtualThreadPerTaskExecutor());
+
+		report("platform (" + PLATFORM_THREADS + " threads)", platform);
+		report("virtual", virtual);
+	}
+
+	/**
+	 * Lanza REQUESTS llamadas y devuelve la latencia de cada una (ms) y, al final, el tiempo total.
+	 */
+	private long[] run(ExecutorService executor) throws Exception {
+		long[] result = new long[REQUESTS + 1];
+		long start = System.nanoTime();
+		try (executor) {
+			List<Future<Long>> calls = new ArrayList<>(REQUESTS);
+			for (int i = 0; i < REQUESTS; i++) {
+				// Latencia desde que llega la petición, incluida la espera por un hilo libre
+				long callStart = System.nanoTime();
+				calls.add(executor.submit(() -> {
+					String body = restClient.get().uri("/slow").retrieve().body(String.class);
+					assertEquals("{\"ok\":true}", body);
+					return (System.nanoTime() - callStart) / 1_000_000;
+				}));
+			}
+			for (int i = 0; i < REQUESTS; i++) {
+				result[i] = calls.get(i).get();
+			}
+		}
+		result[REQUESTS] = (System.nanoTime() - start) / 1_000_000;
+		return result;
+	}
+
+	private static void report(String mode, long[] result) {
+		long total = result[REQUESTS];
+		long[] latencies = Arrays.copyOf(result, REQUESTS);
+		Arrays.sort(latencies);
+		System.out.printf("%-24s total %5d ms  throughput %6.0f req/s  p50 %4d ms  p99 %5d ms%n",
+				mode, total, REQUESTS * 1000.0 / total,
+				latencies[REQUESTS / 2], latencies[REQUESTS * 99 / 100]);
+	}
+}
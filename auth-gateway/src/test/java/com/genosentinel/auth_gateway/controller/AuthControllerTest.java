@@ -0,0 +1,139 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.genosentinel.auth_gateway.entities.User;
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import com.genosentinel.auth_gateway.security.JwtService;
+import com.genosentinel.auth_gateway.security.PasswordHashingExecutor;
+import com.genosentinel.auth_gateway.security.RefreshTokenStore;
+import com.genosentinel.auth_gateway.security.TokenIntrospector;
+import com.genosentinel.auth_gateway.service.BulkUserProvisioner;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTest {
+
+	private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+	private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(new SimpleMeterRegistry(), 1, 1, 3);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final JwtService jwtService = new JwtService("MySuperSecretKeyForJWTs1234567890!@#", 60_000);
+	private final RefreshTokenStore refreshTokenStore = mock(RefreshTokenStore.class);
+	private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(authenticationManager,
+			userRepository, mock(PasswordEncoder.class), jwtService, mock(TokenIntrospector.class), hashingExecutor,
+			mock(BulkUserProvisioner.class), refreshTokenStore)).build();
+
+	@AfterEach
+	void shutdown() {
+		hashingExecutor.shutdown();
+	}
+
+	@Test
+	void answers429WithRetryAfterWhileHashingIsSaturated() throws Exception {
+		// Un hilo y un hueco en cola: dos operaciones en curso saturan el executor
+		CountDownLatch running = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<?> busy = CompletableFuture.allOf(
+				hashingExecutor.submit("login", () -> block(running, release)),
+				hashingExecutor.submit("login", () -> block(running, release)));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+
+		mockMvc.perform(post("/auth/login")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"username\":\"alice\",\"password\":\"secret\"}"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+		verifyNoInteractions(authenticationManager);
+
+		release.countDown();
+		busy.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void refreshRotatesTheRefreshToken() throws Exception {
+		User alice = user();
+		when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+		when(refreshTokenStore.redeem(any())).thenReturn(RefreshTokenStore.Redemption.REDEEMED);
+		when(refreshTokenStore.issue("alice")).thenReturn("token-2");
+
+		MvcResult result = mockMvc.perform(refresh(jwtService.generateRefreshToken("alice", 2, "token-1")))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		String rotated = JsonPath.read(result.getResponse().getContentAsString(), "$.refreshToken");
+		assertEquals("token-2", jwtService.verify(rotated).tokenId());
+		verify(refreshTokenStore).redeem(argThat(token -> "token-1".equals(token.tokenId())));
+	}
+
+	@Test
+	void reusingARedeemedRefreshTokenRevokesTheSession() throws Exception {
+		User alice = user();
+		when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+		when(refreshTokenStore.redeem(any())).thenReturn(RefreshTokenStore.Redemption.REUSED);
+
+		mockMvc.perform(refresh(jwtService.generateRefreshToken("alice", 2, "token-1")))
+				.andExpect(status().isUnauthorized());
+
+		assertEquals(3L, alice.getTokenEpoch());
+		verify(userRepository).save(alice);
+		verify(refreshTokenStore, never()).issue(any());
+	}
+
+	@Test
+	void rejectedRefreshTokensDoNotRevokeTheSession() throws Exception {
+		User alice = user();
+		when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+		when(refreshTokenStore.redeem(any())).thenReturn(RefreshTokenStore.Redemption.REJECTED);
+
+		mockMvc.perform(refresh(jwtService.generateRefreshToken("alice", 2, "token-1")))
+				.andExpect(status().isUnauthorized());
+
+		assertEquals(2L, alice.getTokenEpoch());
+		verify(userRepository, never()).save(any());
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setUsername("alice");
+		user.setEmail("alice@example.com");
+		user.setTokenEpoch(2L);
+		return user;
+	}
+
+	private static RequestBuilder refresh(String refreshToken) {
+		return post("/auth/refresh")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"refreshToken\":\"" + refreshToken + "\"}");
+	}
+
+	private static Void block(CountDownLatch running, CountDownLatch release) {
+		running.countDown();
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+}
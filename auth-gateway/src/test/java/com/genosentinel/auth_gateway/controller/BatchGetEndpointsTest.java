@@ -0,0 +1,51 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.dto.BatchGetItem;
+import com.genosentinel.auth_gateway.dto.genomic.GeneticVariantDto;
+import com.genosentinel.auth_gateway.service.BulkReportIngester;
+import com.genosentinel.auth_gateway.service.VcfIngester;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BatchGetEndpointsTest {
+
+	private final DjangoGenomicClient genomicClient = mock(DjangoGenomicClient.class);
+	private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new GenomicController(genomicClient,
+			mock(BulkReportIngester.class), mock(VcfIngester.class))).build();
+
+	@Test
+	void bindsUuidIdsOnTheBatchGetRoute() throws Exception {
+		UUID id = UUID.randomUUID();
+		GeneticVariantDto variant = new GeneticVariantDto();
+		variant.setId(id);
+		when(genomicClient.getGeneticVariantsByIds(List.of(id)))
+				.thenReturn(List.of(BatchGetItem.found(id, variant)));
+
+		mockMvc.perform(post("/genomic/variants:batchGet")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[\"" + id + "\"]}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].id").value(id.toString()))
+				.andExpect(jsonPath("$[0].status").value(200))
+				.andExpect(jsonPath("$[0].error").doesNotExist());
+	}
+
+	@Test
+	void rejectsEmptyBatches() throws Exception {
+		mockMvc.perform(post("/genomic/reports:batchGet")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[]}"))
+				.andExpect(status().isBadRequest());
+	}
+}
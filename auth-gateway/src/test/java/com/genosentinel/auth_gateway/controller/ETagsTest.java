@@ -0,0 +1,37 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.dto.genomic.GeneDto;
+import com.genosentinel.auth_gateway.dto.nestjs.TumorTypeDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+	@Test
+	void versionETagChangesOnlyWhenAnItemChanges() {
+		GeneDto brca1 = GeneDto.builder().id(1L).symbol("BRCA1").updatedAt("2025-01-01T00:00:00Z").build();
+		GeneDto tp53 = GeneDto.builder().id(2L).symbol("TP53").updatedAt("2025-01-01T00:00:00Z").build();
+		String etag = ETags.fromVersions(List.of(brca1, tp53), GeneDto::getId, GeneDto::getUpdatedAt);
+
+		assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+		assertEquals(etag, ETags.fromVersions(List.of(brca1, tp53), GeneDto::getId, GeneDto::getUpdatedAt));
+		assertNotEquals(etag, ETags.fromVersions(List.of(brca1), GeneDto::getId, GeneDto::getUpdatedAt));
+
+		tp53.setUpdatedAt("2025-01-02T00:00:00Z");
+		assertNotEquals(etag, ETags.fromVersions(List.of(brca1, tp53), GeneDto::getId, GeneDto::getUpdatedAt));
+	}
+
+	@Test
+	void jsonETagFollowsTheSerializedBody() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		List<TumorTypeDto> tumorTypes = List.of(new TumorTypeDto(1, "Melanoma", "Piel", "Cáncer de piel"));
+		String etag = ETags.fromJson(objectMapper, tumorTypes);
+
+		assertEquals(etag, ETags.fromJson(objectMapper, List.of(new TumorTypeDto(1, "Melanoma", "Piel", "Cáncer de piel"))));
+		assertNotEquals(etag, ETags.fromJson(objectMapper, List.of(new TumorTypeDto(1, "Melanoma", "Piel", "Otro"))));
+	}
+}
@@ -0,0 +1,157 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.genosentinel.auth_gateway.entities.User;
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import com.genosentinel.auth_gateway.security.TokenRevocationRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rendimiento del alta de /auth/register contra H2 en modo MySQL:
+ * - legacy: COUNT por existsByUsername y después el INSERT (dos viajes a la BD)
+ * - single insert: solo el INSERT; los duplicados los detectan las restricciones únicas
+ * 5.000 altas desde 16 hilos, una de cada 10 con un username repetido. El hash BCrypt,
+ * igual en los dos caminos, no se incluye: se mide solo el acceso a la BD.
+ * No sigue el patrón *Test, así que no corre en el build; se ejecuta con:
+ * mvn test -Dtest=RegistrationBenchmark
+ */
+// El SQL y el DEBUG de application.properties dominarían la medida
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:registration;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"logging.level.org.hibernate=WARN",
+		"logging.level.org.springframework.jdbc=WARN",
+		"logging.level.com.genosentinel=INFO"
+})
+// Cada alta confirma su propia transacción, como en el controlador
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RegistrationBenchmark {
+
+	private static final int REGISTRATIONS = 5_000;
+	private static final int THREADS = 16;
+	private static final int DUPLICATE_EVERY = 10;
+	private static final String HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOa7QkL5uE6c5CXmU5dFQ5NqHqGm0T7bW";
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	// Dependencias del listener de la entidad User, que Hibernate crea con el contexto
+	@MockitoBean
+	private UserCache userCache;
+
+	@MockitoBean
+	private TokenRevocationRegistry revocationRegistry;
+
+	@Test
+	void singleInsertVersusExistsThenSave() throws Exception {
+		// Calentamiento: JIT, pool de conexiones y planes de consulta
+		run("warmup", this::registerWithSingleInsert);
+		run("warmup", this::registerWithExistsCheck);
+
+		report("legacy (exists + save)", run("legacy", this::registerWithExistsCheck));
+		report("single insert", run("single", this::registerWithSingleInsert));
+	}
+
+	/**
+	 * Camino actual: solo el INSERT.
+	 */
+	private Outcome registerWithSingleInsert(String username, String email) {
+		try {
+			userRepository.save(user(username, email));
+			return Outcome.CREATED;
+		} catch (DataIntegrityViolationException e) {
+			return Outcome.CONFLICT;
+		}
+	}
+
+	/**
+	 * Camino anterior: existsByUsername (un COUNT) y, si no existe, el INSERT.
+	 * Dos altas simultáneas del mismo nombre pueden pasar las dos el COUNT; la segunda
+	 * fallaba en el INSERT con un 500.
+	 */
+	private Outcome registerWithExistsCheck(String username, String email) {
+		Long existing = entityManager.createQuery(
+						"select count(u) from User u where u.username = :username", Long.class)
+				.setParameter("username", username)
+				.getSingleResult();
+		if (existing > 0) {
+			return Outcome.CONFLICT;
+		}
+		try {
+			userRepository.save(user(username, email));
+			return Outcome.CREATED;
+		} catch (DataIntegrityViolationException e) {
+			return Outcome.RACE;
+		}
+	}
+
+	private long[] run(String prefix, Registration registration) throws Exception {
+		userRepository.deleteAllInBatch();
+		AtomicInteger[] outcomes = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+		long start = System.nanoTime();
+		try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+			List<Future<?>> calls = new ArrayList<>(REGISTRATIONS);
+			for (int i = 0; i < REGISTRATIONS; i++) {
+				// Cada DUPLICATE_EVERY altas, una repite el username de la anterior
+				int id = i % DUPLICATE_EVERY == DUPLICATE_EVERY - 1 ? i - 1 : i;
+				String username = prefix + id;
+				String email = prefix + i + "@example.com";
+				calls.add(executor.submit(() -> outcomes[registration.register(username, email).ordinal()].incrementAndGet()));
+			}
+			for (Future<?> call : calls) {
+				call.get();
+			}
+		}
+		long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+		assertEquals(REGISTRATIONS - REGISTRATIONS / DUPLICATE_EVERY, userRepository.count());
+		return new long[] {elapsed, outcomes[0].get(), outcomes[1].get(), outcomes[2].get()};
+	}
+
+	private static void report(String mode, long[] result) {
+		System.out.printf("%-24s total %5d ms  throughput %7.0f reg/s  created %d  conflict %d  race (500) %d%n",
+				mode, result[0], REGISTRATIONS * 1000.0 / result[0], result[1], result[2], result[3]);
+	}
+
+	private static User user(String username, String email) {
+		User user = new User();
+		user.setUsername(username);
+		user.setEmail(email);
+		user.setPassword(HASH);
+		user.setRole("USER");
+		user.setActive(true);
+		return user;
+	}
+
+	private enum Outcome { CREATED, CONFLICT, RACE }
+
+	@FunctionalInterface
+	private interface Registration {
+		Outcome register(String username, String email);
+	}
+}
@@ -0,0 +1,170 @@
+package com.genosentinel.auth_gateway.controller;
+
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.config.StreamingConfig;
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import com.genosentinel.auth_gateway.security.JwtService;
+import com.genosentinel.auth_gateway.security.PasswordHashingExecutor;
+import com.genosentinel.auth_gateway.security.RefreshTokenStore;
+import com.genosentinel.auth_gateway.security.TokenIntrospector;
+import com.genosentinel.auth_gateway.service.BulkReportIngester;
+import com.genosentinel.auth_gateway.service.BulkUserProvisioner;
+import com.genosentinel.auth_gateway.service.VcfIngester;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los endpoints en streaming pasan por el despacho async con la configuración de StreamingConfig:
+ * hilo virtual propio y timeout explícito en lugar del de 30 s del contenedor.
+ */
+@SpringJUnitWebConfig(StreamingEndpointsTest.Endpoints.class)
+class StreamingEndpointsTest {
+
+	private static final long TIMEOUT_MILLIS = 60 * 60 * 1000L;
+
+	@Configuration
+	@EnableWebMvc
+	@Import(StreamingConfig.class)
+	static class Endpoints {
+		@Bean
+		BulkUserProvisioner bulkUserProvisioner() {
+			return mock(BulkUserProvisioner.class);
+		}
+
+		@Bean
+		AuthController authController(BulkUserProvisioner bulkUserProvisioner) {
+			return new AuthController(mock(AuthenticationManager.class), mock(UserRepository.class),
+					mock(PasswordEncoder.class), mock(JwtService.class), mock(TokenIntrospector.class),
+					mock(PasswordHashingExecutor.class), bulkUserProvisioner,
+					mock(RefreshTokenStore.class));
+		}
+
+		@Bean
+		BulkReportIngester bulkReportIngester() {
+			return mock(BulkReportIngester.class);
+		}
+
+		@Bean
+		VcfIngester vcfIngester() {
+			return mock(VcfIngester.class);
+		}
+
+		@Bean
+		GenomicController genomicController(BulkReportIngester bulkReportIngester, VcfIngester vcfIngester) {
+			return new GenomicController(mock(DjangoGenomicClient.class), bulkReportIngester, vcfIngester);
+		}
+	}
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private BulkUserProvisioner bulkUserProvisioner;
+
+	@Autowired
+	private BulkReportIngester bulkReportIngester;
+
+	@Autowired
+	private VcfIngester vcfIngester;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+	}
+
+	@Test
+	void bulkRegisterStreamsOnAVirtualThreadWithTheConfiguredTimeout() throws Exception {
+		AtomicReference<Thread> worker = new AtomicReference<>();
+		doAnswer(invocation -> {
+			worker.set(Thread.currentThread());
+			OutputStream out = invocation.getArgument(2);
+			out.write("{\"row\":1,\"status\":\"created\"}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(bulkUserProvisioner).provision(any(), eq(true), any());
+
+		MvcResult started = mockMvc.perform(post("/auth/users/bulk")
+						.contentType("text/csv")
+						.content("username,email,password\nalice,alice@example.com,secret1\n"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		assertStreamedOnAVirtualThread(started, worker);
+	}
+
+	@Test
+	void bulkReportsStreamOnAVirtualThreadWithTheConfiguredTimeout() throws Exception {
+		AtomicReference<Thread> worker = new AtomicReference<>();
+		doAnswer(invocation -> {
+			worker.set(Thread.currentThread());
+			OutputStream out = invocation.getArgument(1);
+			out.write("{\"row\":1,\"status\":\"created\"}\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(bulkReportIngester).ingest(any(), any());
+
+		MvcResult started = mockMvc.perform(post("/genomic/reports/bulk")
+						.contentType("application/x-ndjson")
+						.content("{\"patient_id\":\"p1\"}\n"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		assertStreamedOnAVirtualThread(started, worker);
+	}
+
+	@Test
+	void vcfUploadsStreamOnAVirtualThreadWithTheConfiguredTimeout() throws Exception {
+		AtomicReference<Thread> worker = new AtomicReference<>();
+		when(vcfIngester.open(any(), eq("P-1"), isNull(), isNull())).thenReturn(out -> {
+			worker.set(Thread.currentThread());
+			out.write("{\"row\":1,\"status\":\"created\"}\n".getBytes(StandardCharsets.UTF_8));
+		});
+
+		MvcResult started = mockMvc.perform(post("/genomic/reports/vcf")
+						.param("patientId", "P-1")
+						.contentType("text/x-vcf")
+						.content("##fileformat=VCFv4.2\n#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\n"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		assertStreamedOnAVirtualThread(started, worker);
+	}
+
+	private void assertStreamedOnAVirtualThread(MvcResult started, AtomicReference<Thread> worker) throws Exception {
+		assertEquals(TIMEOUT_MILLIS, started.getRequest().getAsyncContext().getTimeout());
+
+		mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson"))
+				.andExpect(content().string("{\"row\":1,\"status\":\"created\"}\n"));
+		assertTrue(worker.get().isVirtual());
+		assertTrue(worker.get().getName().startsWith("streaming-"), worker.get().getName());
+	}
+}
@@ -0,0 +1,94 @@
+package com.genosentinel.auth_gateway.entities;
+
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import com.genosentinel.auth_gateway.security.CaffeineUserCache;
+import com.genosentinel.auth_gateway.security.TokenRevocationRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Invalidación del UserCache a través de los callbacks JPA de User, con H2 en lugar de MySQL.
+ */
+@DataJpaTest
+@Import({CaffeineUserCache.class, UserChangeListener.class, UserChangeListenerTest.Metrics.class})
+class UserChangeListenerTest {
+
+	@TestConfiguration
+	static class Metrics {
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserCache userCache;
+
+	@MockitoBean
+	private TokenRevocationRegistry revocationRegistry;
+
+	@Test
+	void registrationEvictsAStaleEntry() {
+		userCache.putUserInCache(user("alice"));
+
+		userRepository.saveAndFlush(user("alice"));
+
+		assertNull(userCache.getUserFromCache("alice"));
+		verify(revocationRegistry).apply(argThat(state -> state.username().equals("alice")));
+	}
+
+	@Test
+	void deactivationEvictsTheCachedUser() {
+		User alice = userRepository.saveAndFlush(user("alice"));
+		userCache.putUserInCache(alice);
+
+		alice.setActive(false);
+		userRepository.saveAndFlush(alice);
+
+		assertNull(userCache.getUserFromCache("alice"));
+	}
+
+	@Test
+	void passwordChangeEvictsTheCachedUser() {
+		User alice = userRepository.saveAndFlush(user("alice"));
+		userCache.putUserInCache(alice);
+
+		alice.setPassword("{bcrypt}new-hash");
+		userRepository.saveAndFlush(alice);
+
+		assertNull(userCache.getUserFromCache("alice"));
+	}
+
+	@Test
+	void otherUsersStayCached() {
+		User bob = user("bob");
+		userCache.putUserInCache(bob);
+
+		userRepository.saveAndFlush(user("alice"));
+
+		assertSame(bob, userCache.getUserFromCache("bob"));
+	}
+
+	private static User user(String username) {
+		User user = new User();
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setPassword("{bcrypt}hash");
+		return user;
+	}
+}
@@ -0,0 +1,56 @@
+package com.genosentinel.auth_gateway.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CaffeineUserCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CaffeineUserCache cache = new CaffeineUserCache(meterRegistry, 100, 300);
+
+	@Test
+	void storesAndEvictsByUsername() {
+		UserDetails alice = user("alice", "secret");
+
+		cache.putUserInCache(alice);
+		assertSame(alice, cache.getUserFromCache("alice"));
+		assertNull(cache.getUserFromCache("bob"));
+
+		cache.removeUserFromCache("alice");
+		assertNull(cache.getUserFromCache("alice"));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void sparesTheUserLookupOnRepeatedLogins() {
+		UserDetailsService users = mock(UserDetailsService.class);
+		when(users.loadUserByUsername("alice")).thenReturn(user("alice", "secret"));
+		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+		provider.setUserDetailsService(users);
+		provider.setPasswordEncoder(NoOpPasswordEncoder.getInstance());
+		provider.setUserCache(cache);
+
+		provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+		provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+		verify(users, times(1)).loadUserByUsername("alice");
+
+		cache.removeUserFromCache("alice");
+		provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+		verify(users, times(2)).loadUserByUsername("alice");
+		assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "auth.users").tag("result", "hit")
+				.functionCounter().count());
+	}
+
+	private static UserDetails user(String username, String password) {
+		return User.withUsername(username).password(password).roles("USER").build();
+	}
+}
@@ -0,0 +1,38 @@
+package com.genosentinel.auth_gateway.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalibratedPasswordEncoderTest {
+
+	private final CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(6, 1);
+
+	@Test
+	void matchesLegacyHashesAndMarksThemForUpgrade() {
+		String legacy = new BCryptPasswordEncoder(6).encode("secret123");
+
+		assertTrue(encoder.matches("secret123", legacy));
+		assertTrue(encoder.upgradeEncoding(legacy));
+	}
+
+	@Test
+	void onlyUpgradesHashesOutsideTheCostBand() {
+		assertFalse(encoder.upgradeEncoding(encoder.encode("secret123")));
+		assertFalse(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(5).encode("secret123")));
+		assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret123")));
+		assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(8).encode("secret123")));
+	}
+
+	@Test
+	void calibrationStaysWithinConfiguredBounds() {
+		CalibratedPasswordEncoder calibrated =
+				CalibratedPasswordEncoder.calibrate(Duration.ofMillis(5), 4, 8, 1);
+
+		assertTrue(calibrated.getCost() >= 4 && calibrated.getCost() <= 8);
+		assertTrue(calibrated.matches("secret123", calibrated.encode("secret123")));
+	}
+}
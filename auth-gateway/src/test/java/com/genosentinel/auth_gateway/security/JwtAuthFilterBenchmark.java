@@ -0,0 +1,160 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Coste por petición de la autenticación JWT, con perfil de asignaciones (-prof gc):
+ * - legacyDoubleParse / verify: el parseo anterior (parser jjwt nuevo y dos parseos por petición,
+ *   uno para el usuario y otro para el rol) frente a JwtService.verify (un solo paso HS256)
+ * - legacyFilter / filterColdCache / filterWarmCache: el filtro anterior frente a JwtAuthFilter
+ *   con la caché de tokens fría (cada token es nuevo) y caliente (el mismo token se repite)
+ * No sigue el patrón *Test, así que no corre en el build; se ejecuta con:
+ * mvn test -Dtest=JwtAuthFilterBenchmark
+ * El informe incluye gc.alloc.rate.norm (bytes asignados por operación).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+	private static final String SECRET = "benchmark-secret-with-at-least-256-bits-of-key";
+	/** Tokens distintos de la caché fría: muchos más que su tamaño, nunca se repiten a tiempo. */
+	private static final int COLD_TOKENS = 8_192;
+
+	private static final FilterChain CHAIN = (request, response) -> { };
+
+	private SecretKey legacyKey;
+	private JwtService jwtService;
+	private String token;
+	private MockHttpServletRequest warmRequest;
+	private MockHttpServletRequest[] coldRequests;
+	private int next;
+	private MockHttpServletResponse response;
+	private JwtAuthFilter warmFilter;
+	private JwtAuthFilter coldFilter;
+
+	@Test
+	void run() throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(JwtAuthFilterBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+
+	@Setup
+	public void setUp() {
+		legacyKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+		jwtService = new JwtService(SECRET, TimeUnit.HOURS.toMillis(1));
+		token = jwtService.generateToken("alice", "USER", 0);
+		warmRequest = request(token);
+		coldRequests = new MockHttpServletRequest[COLD_TOKENS];
+		for (int i = 0; i < COLD_TOKENS; i++) {
+			coldRequests[i] = request(jwtService.generateToken("user" + i, "USER", 0));
+		}
+		response = new MockHttpServletResponse();
+
+		UserRepository users = mock(UserRepository.class);
+		when(users.findTokenStatesUpdatedSince(any())).thenReturn(List.of());
+		TokenRevocationRegistry registry = new TokenRevocationRegistry(users, mock(UserCache.class), 30);
+		registry.refresh();
+		warmFilter = new JwtAuthFilter(new TokenAuthenticationCache(jwtService, registry, new SimpleMeterRegistry(), 10_000));
+		coldFilter = new JwtAuthFilter(new TokenAuthenticationCache(jwtService, registry, new SimpleMeterRegistry(), 16));
+	}
+
+	@Benchmark
+	public void legacyDoubleParse(Blackhole blackhole) {
+		blackhole.consume(legacyParse(token).getSubject());
+		blackhole.consume(legacyParse(token).get("role", String.class));
+	}
+
+	@Benchmark
+	public VerifiedToken verify() {
+		return jwtService.verify(token);
+	}
+
+	@Benchmark
+	public Object legacyFilter() {
+		// JwtAuthFilter antes del camino rápido: dos parseos, autoridad y details por petición
+		String authHeader = warmRequest.getHeader("Authorization");
+		String jwt = authHeader.substring(7);
+		String username = legacyParse(jwt).getSubject();
+		String role = legacyParse(jwt).get("role", String.class);
+		UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+				username, null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+		authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(warmRequest));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+		return clearContext();
+	}
+
+	@Benchmark
+	public Object filterColdCache() throws Exception {
+		MockHttpServletRequest request = coldRequests[next];
+		next = (next + 1) % COLD_TOKENS;
+		coldFilter.doFilterInternal(request, response, CHAIN);
+		return clearContext();
+	}
+
+	@Benchmark
+	public Object filterWarmCache() throws Exception {
+		warmFilter.doFilterInternal(warmRequest, response, CHAIN);
+		return clearContext();
+	}
+
+	private Claims legacyParse(String jwt) {
+		return Jwts.parser().verifyWith(legacyKey).build().parseSignedClaims(jwt).getPayload();
+	}
+
+	/**
+	 * Vacía el contexto para que la siguiente operación autentique de nuevo; devuelve lo autenticado.
+	 */
+	private static Object clearContext() {
+		Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+		SecurityContextHolder.clearContext();
+		return principal;
+	}
+
+	private static MockHttpServletRequest request(String jwt) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/genomic/genes");
+		request.addHeader("Authorization", "Bearer " + jwt);
+		return request;
+	}
+}
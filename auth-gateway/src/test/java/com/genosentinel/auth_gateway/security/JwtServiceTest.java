@@ -0,0 +1,110 @@
+package com.genosentinel.auth_gateway.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+	private static final String SECRET = "MySuperSecretKeyForJWTs1234567890!@#";
+
+	private final JwtService jwtService = new JwtService(SECRET, 60_000);
+
+	@Test
+	void verifiesTokensIssuedByJwtService() {
+		String token = jwtService.generateToken("alice", "ADMIN");
+
+		VerifiedToken verified = jwtService.verify(token);
+
+		assertEquals("alice", verified.username());
+		assertEquals("ADMIN", verified.role());
+		assertEquals(jwtService.parseToken(token).getExpiration().toInstant(), verified.expiresAt());
+	}
+
+	@Test
+	void rejectsTamperedPayload() {
+		String[] parts = jwtService.generateToken("alice", "USER").split("\\.");
+		String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+				("{\"sub\":\"alice\",\"role\":\"ADMIN\",\"exp\":" + (Instant.now().getEpochSecond() + 60) + "}")
+						.getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(SignatureException.class,
+				() -> jwtService.verify(parts[0] + "." + forged + "." + parts[2]));
+	}
+
+	@Test
+	void rejectsUnsignedTokens() {
+		String token = Jwts.builder().subject("alice").claim("role", "ADMIN")
+				.expiration(Date.from(Instant.now().plusSeconds(60)))
+				.compact();
+
+		assertThrows(JwtException.class, () -> jwtService.verify(token));
+	}
+
+	@Test
+	void rejectsExpiredTokens() {
+		String token = new JwtService(SECRET, -1_000).generateToken("alice", "USER");
+
+		assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+	}
+
+	@Test
+	void verifiesEs256TokensAndKeepsAcceptingHs256DuringMigration() {
+		JwtService hs256 = new JwtService(SECRET, 60_000);
+		JwtService es256 = new JwtService(SECRET, 60_000, 60_000,
+				new JwtSigningKeys(JwtSigningKeys.ES256, true, "", "", ""));
+
+		String token = es256.generateToken("alice", "USER");
+
+		assertEquals("alice", es256.verify(token).username());
+		assertEquals("alice", es256.verify(hs256.generateToken("alice", "USER")).username());
+		assertThrows(JwtException.class, () -> hs256.verify(token));
+	}
+
+	@Test
+	void rejectsHs256OnceMigrationIsComplete() {
+		JwtService es256Only = new JwtService(SECRET, 60_000, 60_000,
+				new JwtSigningKeys(JwtSigningKeys.ES256, false, "", "", ""));
+
+		assertThrows(JwtException.class,
+				() -> es256Only.verify(jwtService.generateToken("alice", "USER")));
+	}
+
+	@Test
+	void publishesAnEmptyJwksWithoutGeneratingAKeyInHs256Mode() {
+		JwtSigningKeys keys = new JwtSigningKeys(JwtSigningKeys.HS256, true, "", "", "");
+
+		assertFalse(keys.hasEcKey());
+		assertNull(keys.getKeyId());
+		assertEquals(Map.of("keys", List.of()), keys.getJwks());
+	}
+
+	@Test
+	void carriesEpochRefreshTypeAndTokenIdOnBothVerificationPaths() {
+		JwtService es256 = new JwtService(SECRET, 60_000, 60_000,
+				new JwtSigningKeys(JwtSigningKeys.ES256, true, "", "", ""));
+
+		for (JwtService service : new JwtService[] {jwtService, es256}) {
+			VerifiedToken access = service.verify(service.generateToken("alice", "USER", 3));
+			VerifiedToken refresh = service.verify(service.generateRefreshToken("alice", 3, "token-1"));
+
+			assertEquals(3, access.epoch());
+			assertFalse(access.refresh());
+			assertEquals(3, refresh.epoch());
+			assertTrue(refresh.refresh());
+			assertEquals("token-1", refresh.tokenId());
+			assertNull(access.tokenId());
+		}
+	}
+}
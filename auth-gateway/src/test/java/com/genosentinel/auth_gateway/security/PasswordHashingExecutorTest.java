@@ -0,0 +1,93 @@
+package com.genosentinel.auth_gateway.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final PasswordHashingExecutor executor = new PasswordHashingExecutor(meterRegistry, 1, 1, 7);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void runsOnlyTheHashOnThePool() {
+		String[] threads = executor.submit("login", () -> new String[] {
+				Thread.currentThread().getName(),
+				executor.hash("login", () -> Thread.currentThread().getName())
+		}).join();
+
+		assertTrue(threads[0].startsWith("auth-operation-"), threads[0]);
+		assertTrue(threads[1].startsWith("password-hash-"), threads[1]);
+	}
+
+	@Test
+	void rejectsWith429AndRetryAfterOnceThreadsPlusQueueOperationsAreInFlight() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(2);
+		CompletableFuture<?> first = executor.submit("login", () -> block(started, release));
+		CompletableFuture<?> second = executor.submit("login", () -> block(started, release));
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		PasswordHashingRejectedException rejected = assertThrows(PasswordHashingRejectedException.class,
+				() -> executor.submit("login", () -> "third"));
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+		assertEquals("7", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+		release.countDown();
+		CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+		assertEquals("fourth", executor.submit("login", () -> "fourth").get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void boundsTheHashingQueue() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch running = new CountDownLatch(1);
+		CompletableFuture<?> busy = CompletableFuture.runAsync(
+				() -> executor.hash("register", () -> block(running, release)));
+		assertTrue(running.await(5, TimeUnit.SECONDS));
+		CompletableFuture<String> queued = CompletableFuture.supplyAsync(
+				() -> executor.hash("register", () -> "queued"));
+		waitForQueued();
+
+		assertThrows(PasswordHashingRejectedException.class, () -> executor.hash("register", () -> "rejected"));
+
+		release.countDown();
+		assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+		busy.get(5, TimeUnit.SECONDS);
+	}
+
+	private void waitForQueued() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (queuedHashes() == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(1, queuedHashes());
+	}
+
+	private double queuedHashes() {
+		return meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge().value();
+	}
+
+	private static String block(CountDownLatch started, CountDownLatch release) {
+		started.countDown();
+		try {
+			release.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return "done";
+	}
+}
@@ -0,0 +1,74 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rotación de refresh tokens contra H2: canje único, detección de reutilización y purga.
+ */
+@DataJpaTest
+class RefreshTokenStoreTest {
+
+	private static final long WEEK_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+
+	@Autowired
+	private RefreshTokenRepository repository;
+
+	// Dependencias del listener de la entidad User, que Hibernate crea con el contexto
+	@MockitoBean
+	private UserCache userCache;
+
+	@MockitoBean
+	private TokenRevocationRegistry revocationRegistry;
+
+	@Test
+	void redeemsATokenOnlyOnce() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, WEEK_MILLIS, 0);
+		VerifiedToken token = refresh(store.issue("alice"));
+
+		assertEquals(RefreshTokenStore.Redemption.REDEEMED, store.redeem(token));
+		assertEquals(RefreshTokenStore.Redemption.REUSED, store.redeem(token));
+	}
+
+	@Test
+	void aReplayWithinTheGracePeriodIsOnlyRejected() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, WEEK_MILLIS, 10);
+		VerifiedToken token = refresh(store.issue("alice"));
+
+		assertEquals(RefreshTokenStore.Redemption.REDEEMED, store.redeem(token));
+		assertEquals(RefreshTokenStore.Redemption.REJECTED, store.redeem(token));
+	}
+
+	@Test
+	void rejectsUnknownExpiredAndLegacyTokens() {
+		RefreshTokenStore expired = new RefreshTokenStore(repository, -1_000, 0);
+
+		assertEquals(RefreshTokenStore.Redemption.REJECTED, expired.redeem(refresh("unknown")));
+		assertEquals(RefreshTokenStore.Redemption.REJECTED, expired.redeem(refresh(expired.issue("alice"))));
+		assertEquals(RefreshTokenStore.Redemption.REJECTED, expired.redeem(refresh(null)));
+	}
+
+	@Test
+	void purgesOnlyExpiredTokens() {
+		String live = new RefreshTokenStore(repository, WEEK_MILLIS, 0).issue("alice");
+		RefreshTokenStore expired = new RefreshTokenStore(repository, -1_000, 0);
+		String stale = expired.issue("alice");
+
+		expired.purgeExpired();
+
+		assertTrue(repository.existsById(live));
+		assertFalse(repository.existsById(stale));
+	}
+
+	private static VerifiedToken refresh(String tokenId) {
+		return new VerifiedToken("alice", null, Instant.now().plusSeconds(60), 0, true, tokenId);
+	}
+}
@@ -0,0 +1,177 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenAuthenticationCacheTest {
+
+	private static final String SECRET = "MySuperSecretKeyForJWTs1234567890!@#";
+
+	private JwtService jwtService;
+	private SimpleMeterRegistry registry;
+	private TokenRevocationRegistry revocations;
+	private TokenAuthenticationCache cache;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = new JwtService(SECRET, 60_000);
+		registry = new SimpleMeterRegistry();
+		revocations = new TokenRevocationRegistry(mock(UserRepository.class), mock(UserCache.class), 30);
+		cache = new TokenAuthenticationCache(jwtService, revocations, registry, 100);
+	}
+
+	@Test
+	void repeatedTokenIsServedFromCache() {
+		String token = jwtService.generateToken("alice", "USER");
+
+		Authentication first = cache.authenticate(token);
+		Authentication second = cache.authenticate(token);
+
+		assertSame(first, second);
+		assertEquals("alice", first.getName());
+		assertTrue(first.getAuthorities().stream()
+				.anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
+		assertEquals(1.0, gets("hit"));
+		assertEquals(1.0, gets("miss"));
+	}
+
+	@Test
+	void invalidTokenIsRejectedAndNotCached() {
+		String token = new JwtService("AnotherSecretKeyForJWTs1234567890!@#", 60_000)
+				.generateToken("mallory", "USER");
+
+		assertThrows(JwtException.class, () -> cache.authenticate(token));
+		assertThrows(JwtException.class, () -> cache.authenticate(token));
+		assertEquals(0.0, gets("hit"));
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		String token = new JwtService(SECRET, -1_000).generateToken("alice", "USER");
+
+		assertThrows(JwtException.class, () -> cache.authenticate(token));
+	}
+
+	@Test
+	void cachedTokenIsRejectedOnceRevoked() {
+		String token = jwtService.generateToken("alice", "USER", 0);
+		cache.authenticate(token);
+
+		revocations.apply(new UserTokenState("alice", 1L, true, Instant.now()));
+
+		assertThrows(JwtException.class, () -> cache.authenticate(token));
+		assertNotNull(cache.authenticate(jwtService.generateToken("alice", "USER", 1)));
+	}
+
+	@Test
+	void deactivatedUserAndRefreshTokensAreRejected() {
+		revocations.apply(new UserTokenState("bob", 0L, false, Instant.now()));
+
+		assertThrows(JwtException.class, () -> cache.authenticate(jwtService.generateToken("bob", "USER", 0)));
+		assertThrows(JwtException.class, () -> cache.authenticate(jwtService.generateRefreshToken("alice", 0, "token-1")));
+	}
+
+	@Test
+	void rejectsTokensUntilTheRegistryHasLoadedOnce() {
+		UserRepository users = mock(UserRepository.class);
+		when(users.findTokenStatesUpdatedSince(any()))
+				.thenThrow(new DataAccessResourceFailureException("MySQL down"))
+				.thenReturn(List.of());
+		TokenRevocationRegistry unloaded = new TokenRevocationRegistry(users, mock(UserCache.class), 30);
+		TokenAuthenticationCache failClosed = new TokenAuthenticationCache(jwtService, unloaded, registry, 100);
+		String token = jwtService.generateToken("alice", "USER", 0);
+
+		assertThrows(JwtException.class, () -> failClosed.authenticate(token));
+		// Reintento acotado: la segunda petición no vuelve a consultar MySQL de inmediato
+		assertThrows(JwtException.class, () -> failClosed.authenticate(token));
+		verify(users, times(1)).findTokenStatesUpdatedSince(any());
+
+		unloaded.refresh();
+		assertEquals("alice", failClosed.authenticate(token).getName());
+	}
+
+	@Test
+	void requestsDoNotWaitForAnInitialLoadAlreadyInProgress() throws Exception {
+		UserRepository users = mock(UserRepository.class);
+		CountDownLatch querying = new CountDownLatch(1);
+		CompletableFuture<Void> release = new CompletableFuture<>();
+		when(users.findTokenStatesUpdatedSince(any())).thenAnswer(invocation -> {
+			querying.countDown();
+			release.orTimeout(5, TimeUnit.SECONDS).join();
+			return List.of();
+		});
+		TokenRevocationRegistry loading = new TokenRevocationRegistry(users, mock(UserCache.class), 30);
+		TokenAuthenticationCache failClosed = new TokenAuthenticationCache(jwtService, loading, registry, 100);
+		String token = jwtService.generateToken("alice", "USER", 0);
+
+		CompletableFuture<Void> refresh = CompletableFuture.runAsync(loading::refresh);
+		assertTrue(querying.await(5, TimeUnit.SECONDS));
+
+		// Con la carga en curso la petición se rechaza enseguida y no lanza otra consulta
+		try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+			Future<Boolean> rejected = requests.submit(() -> {
+				try {
+					failClosed.authenticate(token);
+					return false;
+				} catch (JwtException e) {
+					return true;
+				}
+			});
+			assertTrue(rejected.get(1, TimeUnit.SECONDS));
+		}
+		verify(users, times(1)).findTokenStatesUpdatedSince(any());
+
+		release.complete(null);
+		refresh.get(5, TimeUnit.SECONDS);
+		assertEquals("alice", failClosed.authenticate(token).getName());
+	}
+
+	@Test
+	void aChangeSeenByTheRefreshEvictsTheCachedLoginPrincipal() {
+		// Logout en otra réplica: solo llega por el refresco, sin pasar por el listener JPA local
+		UserRepository users = mock(UserRepository.class);
+		Instant loggedOutAt = Instant.parse("2024-05-01T10:00:00Z");
+		UserTokenState loggedOut = new UserTokenState("alice", 1L, true, loggedOutAt);
+		when(users.findTokenStatesUpdatedSince(any()))
+				.thenReturn(List.of(new UserTokenState("alice", 0L, true, loggedOutAt.minusSeconds(60))))
+				.thenReturn(List.of(loggedOut))
+				.thenReturn(List.of(new UserTokenState("alice", 1L, true, loggedOutAt)));
+		UserCache userCache = new CaffeineUserCache(registry, 100, 300);
+		TokenRevocationRegistry refreshed = new TokenRevocationRegistry(users, userCache, 30);
+		refreshed.refresh();
+		userCache.putUserInCache(User.withUsername("alice").password("{noop}x").roles("USER").build());
+
+		refreshed.refresh();
+		assertNull(userCache.getUserFromCache("alice"));
+
+		// El solape vuelve a leer la misma fila: no invalida de nuevo
+		userCache.putUserInCache(User.withUsername("alice").password("{noop}x").roles("USER").build());
+		refreshed.refresh();
+		assertNotNull(userCache.getUserFromCache("alice"));
+	}
+
+	private double gets(String result) {
+		return registry.get("cache.gets").tag("cache", "jwt.tokens").tag("result", result)
+				.functionCounter().count();
+	}
+}
@@ -0,0 +1,68 @@
+package com.genosentinel.auth_gateway.security;
+
+import com.genosentinel.auth_gateway.dto.TokenIntrospection;
+import com.genosentinel.auth_gateway.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class TokenIntrospectorTest {
+
+	private static final String SECRET = "MySuperSecretKeyForJWTs1234567890!@#";
+
+	private JwtService jwtService;
+	private TokenAuthenticationCache cache;
+	private TokenIntrospector introspector;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = new JwtService(SECRET, 60_000);
+		cache = new TokenAuthenticationCache(jwtService,
+				new TokenRevocationRegistry(mock(UserRepository.class), mock(UserCache.class), 30), new SimpleMeterRegistry(), 100);
+		introspector = new TokenIntrospector(cache, 300, 300_000);
+	}
+
+	@Test
+	void validTokenIsActiveWithClaims() {
+		TokenIntrospection result = introspector.introspect(jwtService.generateToken("alice", "ADMIN"));
+
+		assertTrue(result.active());
+		assertEquals("alice", result.username());
+		assertEquals("ADMIN", result.role());
+		assertNotNull(result.exp());
+	}
+
+	@Test
+	void invalidTokenIsInactive() {
+		assertFalse(introspector.introspect("not-a-token").active());
+		assertFalse(introspector.introspect(new JwtService(SECRET, -1_000).generateToken("alice", "USER")).active());
+	}
+
+	@Test
+	void maxAgeIsBoundedByShortestActiveToken() {
+		TokenIntrospection shortLived = introspector.introspect(new JwtService(SECRET, 30_000).generateToken("bob", "USER"));
+		TokenIntrospection longLived = introspector.introspect(jwtService.generateToken("alice", "USER"));
+
+		String header = introspector.cacheControl(List.of(longLived, shortLived, TokenIntrospection.inactive()))
+				.getHeaderValue();
+		long maxAge = Long.parseLong(header.substring("max-age=".length()));
+
+		assertTrue(maxAge > 0 && maxAge <= 30, header);
+		assertEquals("no-store", introspector.cacheControl(List.of(TokenIntrospection.inactive())).getHeaderValue());
+	}
+
+	@Test
+	void maxAgeNeverOutlivesTheRevocationRefreshInterval() {
+		TokenIntrospector boundedByRevocations = new TokenIntrospector(cache, 300, 5_000);
+
+		TokenIntrospection active = boundedByRevocations.introspect(jwtService.generateToken("alice", "USER"));
+
+		assertEquals("max-age=5", boundedByRevocations.cacheControl(List.of(active)).getHeaderValue());
+	}
+}
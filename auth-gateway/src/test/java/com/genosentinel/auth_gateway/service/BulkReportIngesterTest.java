@@ -0,0 +1,183 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.dto.genomic.CreatePatientVariantReportDto;
+import com.genosentinel.auth_gateway.dto.genomic.PatientVariantReportDto;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BulkReportIngesterTest {
+
+	private static final UUID MISSING_VARIANT = UUID.fromString("00000000-0000-0000-0000-000000000404");
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final DjangoGenomicClient genomicClient = mock(DjangoGenomicClient.class);
+	private final GenomicWritePermits writePermits = new GenomicWritePermits(4);
+	private final BulkReportIngester ingester = new BulkReportIngester(genomicClient,
+			Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, writePermits, 3, 200);
+
+	@AfterEach
+	void tearDown() {
+		ingester.shutdown();
+	}
+
+	@Test
+	void writesOneResultPerRowInInputOrder() throws Exception {
+		when(genomicClient.createPatientVariantReport(any())).thenAnswer(invocation -> {
+			CreatePatientVariantReportDto report = invocation.getArgument(0);
+			if (MISSING_VARIANT.equals(report.getVariant())) {
+				throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null,
+						"{\"variant\":[\"Invalid pk\"]}".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+			}
+			// Las primeras filas tardan más: el orden de salida no depende del orden de llegada
+			Thread.sleep(report.getPatientId().equals("p1") ? 60 : 5);
+			PatientVariantReportDto created = new PatientVariantReportDto();
+			created.setId(UUID.randomUUID());
+			return created;
+		});
+
+		String body = row("p1", UUID.randomUUID()) + "\n"
+				+ "{not json\n"
+				+ "\n"
+				+ "{\"patient_id\":\"p3\"}\n"
+				+ row("p4", MISSING_VARIANT) + "\n"
+				+ row("p5", UUID.randomUUID()) + "\n";
+
+		List<JsonNode> results = ingest(body);
+
+		assertEquals(List.of(1, 2, 3, 4, 5), results.stream().map(result -> result.get("row").asInt()).toList());
+		assertEquals(List.of("created", "invalid", "invalid", "failed", "created"),
+				results.stream().map(result -> result.get("status").asText()).toList());
+		assertTrue(results.get(0).hasNonNull("id"));
+		assertEquals("Malformed row", results.get(1).get("error").asText());
+		assertTrue(results.get(2).get("error").asText().contains("Variant is required"));
+		assertEquals(400, results.get(3).get("httpStatus").asInt());
+		assertTrue(results.get(3).get("error").asText().contains("Invalid pk"));
+	}
+
+	@Test
+	void keepsAtMostMaxInFlightCreatesRunning() throws Exception {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		when(genomicClient.createPatientVariantReport(any())).thenAnswer(invocation -> {
+			peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			Thread.sleep(10);
+			inFlight.decrementAndGet();
+			PatientVariantReportDto created = new PatientVariantReportDto();
+			created.setId(UUID.randomUUID());
+			return created;
+		});
+
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			body.append(row("p" + i, UUID.randomUUID())).append('\n');
+		}
+
+		List<JsonNode> results = ingest(body.toString());
+
+		assertEquals(20, results.size());
+		assertTrue(peak.get() <= 3);
+		verify(genomicClient, times(20)).createPatientVariantReport(any());
+	}
+
+	@Test
+	void concurrentUploadsShareTheWritePermits() throws Exception {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+		when(genomicClient.createPatientVariantReport(any())).thenAnswer(invocation -> {
+			peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			Thread.sleep(10);
+			inFlight.decrementAndGet();
+			PatientVariantReportDto created = new PatientVariantReportDto();
+			created.setId(UUID.randomUUID());
+			return created;
+		});
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			body.append(row("p" + i, UUID.randomUUID())).append('\n');
+		}
+
+		// Tres cargas con ventana de 3 podrían tener 9 filas en vuelo; los permisos compartidos son 4
+		try (ExecutorService uploads = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<List<JsonNode>>> results = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				results.add(uploads.submit(() -> ingest(body.toString())));
+			}
+			for (Future<List<JsonNode>> result : results) {
+				assertEquals(20, result.get().size());
+			}
+		}
+
+		assertTrue(peak.get() <= 4, "peak " + peak.get());
+		assertEquals(4, writePermits.available());
+	}
+
+	@Test
+	void reportsBreakerAndBulkheadRejectionsAsServiceUnavailable() throws Exception {
+		when(genomicClient.createPatientVariantReport(any())).thenAnswer(invocation -> {
+			CreatePatientVariantReportDto report = invocation.getArgument(0);
+			throw report.getPatientId().equals("p1")
+					? CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("django"))
+					: BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("django"));
+		});
+
+		List<JsonNode> results = ingest(row("p1", UUID.randomUUID()) + "\n" + row("p2", UUID.randomUUID()) + "\n");
+
+		assertEquals(List.of(503, 503), results.stream().map(result -> result.get("httpStatus").asInt()).toList());
+		assertEquals("Genomic service temporarily unavailable", results.get(0).get("error").asText());
+		assertEquals("Genomic service busy", results.get(1).get("error").asText());
+	}
+
+	@Test
+	void rejectsOverlongRowsAndKeepsReading() throws Exception {
+		when(genomicClient.createPatientVariantReport(any())).thenReturn(new PatientVariantReportDto());
+
+		List<JsonNode> results = ingest("{\"patient_id\":\"" + "x".repeat(300) + "\"}\n"
+				+ row("p2", UUID.randomUUID()) + "\n");
+
+		assertEquals(List.of("invalid", "created"), results.stream().map(result -> result.get("status").asText()).toList());
+		assertEquals("Line exceeds 200 characters", results.get(0).get("error").asText());
+		verify(genomicClient, times(1)).createPatientVariantReport(any());
+	}
+
+	private List<JsonNode> ingest(String body) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ingester.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+
+		List<JsonNode> results = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			results.add(objectMapper.readTree(line));
+		}
+		return results;
+	}
+
+	private static String row(String patientId, UUID variant) {
+		return "{\"patient_id\":\"" + patientId + "\",\"variant\":\"" + variant
+				+ "\",\"detection_date\":\"2024-05-01\",\"allele_frequency\":0.42}";
+	}
+}
@@ -0,0 +1,152 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Alta masiva contra H2 en modo MySQL (INSERT ... ON DUPLICATE KEY UPDATE y batch JDBC reales).
+ */
+class BulkUserProvisionerTest {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+	private JdbcTemplate jdbcTemplate;
+	private BulkUserProvisioner provisioner;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("""
+				CREATE TABLE users (
+				    user_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+				    username VARCHAR(100) NOT NULL,
+				    email VARCHAR(100) NOT NULL,
+				    password VARCHAR(255) NOT NULL,
+				    role VARCHAR(50) NOT NULL,
+				    active BOOLEAN NOT NULL,
+				    token_epoch BIGINT NOT NULL DEFAULT 0,
+				    updated_at TIMESTAMP(3) NOT NULL,
+				    CONSTRAINT uc_users_username UNIQUE (username),
+				    CONSTRAINT uc_users_email UNIQUE (email)
+				)""");
+		jdbcTemplate.update("INSERT INTO users (username, email, password, role, active, updated_at) "
+				+ "VALUES ('taken', 'taken@example.com', 'x', 'USER', TRUE, CURRENT_TIMESTAMP)");
+		provisioner = provisioner(2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.execute("SHUTDOWN");
+		provisioner.shutdown();
+	}
+
+	@Test
+	void createsNewUsersAndReportsDuplicatesAcrossAndWithinBatches() throws Exception {
+		List<JsonNode> results = provision(false, """
+				{"username":"alice","email":"alice@example.com","password":"secret1"}
+				{"username":"taken","email":"other@example.com","password":"secret1"}
+
+				{"username":"carol","email":"carol@example.com","password":"secret1"}
+				{"username":"carol","email":"carol2@example.com","password":"secret2"}
+				{"username":"bob","email":"taken@example.com","password":"secret1"}
+				""");
+
+		// Lotes de 2: [alice, taken] [carol, carol] [bob]
+		assertEquals(List.of("created", "conflict", "created", "conflict", "conflict"), statuses(results));
+		assertEquals(List.of(1, 2, 3, 4, 5), results.stream().map(r -> r.get("row").asInt()).toList());
+		assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+		String hash = jdbcTemplate.queryForObject("SELECT password FROM users WHERE username = 'alice'", String.class);
+		assertTrue(passwordEncoder.matches("secret1", hash));
+		assertEquals("x", jdbcTemplate.queryForObject(
+				"SELECT password FROM users WHERE username = 'taken'", String.class));
+	}
+
+	@Test
+	void reportsMalformedAndInvalidRowsWithoutInsertingThem() throws Exception {
+		List<JsonNode> results = provision(false, """
+				{not json
+				{"username":"al","email":"not-an-email","password":"secret1"}
+				{"username":"dave","email":"dave@example.com","password":"secret1"}
+				""");
+
+		assertEquals(List.of("invalid", "invalid", "created"), statuses(results));
+		assertEquals("Malformed row", results.get(0).get("error").asText());
+		assertEquals("Email must be valid; Username must be between 3 and 100 characters",
+				results.get(1).get("error").asText());
+	}
+
+	@Test
+	void parsesQuotedCsvColumnsAndSkipsTheHeader() throws Exception {
+		List<JsonNode> results = provision(true, """
+				username,email,password
+				"erin","erin@example.com","pa""ss,word"
+				frank , frank@example.com ,has,commas
+				"gina,"unterminated
+				""");
+
+		assertEquals(List.of("created", "created", "invalid"), statuses(results));
+		assertTrue(passwordEncoder.matches("pa\"ss,word", jdbcTemplate.queryForObject(
+				"SELECT password FROM users WHERE username = 'erin'", String.class)));
+		assertTrue(passwordEncoder.matches("has,commas", jdbcTemplate.queryForObject(
+				"SELECT password FROM users WHERE username = 'frank'", String.class)));
+	}
+
+	@Test
+	void splitsCsvColumnsHonouringQuotes() {
+		assertEquals(List.of("a,b", "c", "d"), BulkUserProvisioner.csvColumns("\"a,b\",c,d"));
+		assertEquals(List.of("a", "b", " p,w "), BulkUserProvisioner.csvColumns(" a , b , p,w "));
+		assertEquals(List.of("a", "", "\"q\""), BulkUserProvisioner.csvColumns("a,\"\",\"\"\"q\"\"\""));
+		assertThrows(IllegalArgumentException.class, () -> BulkUserProvisioner.csvColumns("\"a\"x,b,c"));
+		assertThrows(IllegalArgumentException.class, () -> BulkUserProvisioner.csvColumns("a,b,\"c"));
+	}
+
+	@Test
+	void rejectsOverlongRowsAndKeepsReading() throws Exception {
+		String longRow = "{\"username\":\"" + "x".repeat(300) + "\"}";
+
+		List<JsonNode> results = provision(false, longRow + "\n"
+				+ "{\"username\":\"hank\",\"email\":\"hank@example.com\",\"password\":\"secret1\"}\n");
+
+		assertEquals(List.of("invalid", "created"), statuses(results));
+		assertEquals("Line exceeds 200 characters", results.get(0).get("error").asText());
+	}
+
+	private BulkUserProvisioner provisioner(int batchSize) {
+		return new BulkUserProvisioner(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate), passwordEncoder,
+				Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, 2, batchSize, 200);
+	}
+
+	private List<JsonNode> provision(boolean csv, String body) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		provisioner.provision(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), csv, out);
+		List<JsonNode> results = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			results.add(objectMapper.readTree(line));
+		}
+		return results;
+	}
+
+	private static List<String> statuses(List<JsonNode> results) {
+		return results.stream().map(result -> result.get("status").asText()).toList();
+	}
+}
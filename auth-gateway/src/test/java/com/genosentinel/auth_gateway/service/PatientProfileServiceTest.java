@@ -0,0 +1,104 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.client.NestJsClient;
+import com.genosentinel.auth_gateway.dto.PatientProfileResponse;
+import com.genosentinel.auth_gateway.dto.PatientProfileResponse.SourceStatus;
+import com.genosentinel.auth_gateway.dto.genomic.PatientVariantReportDto;
+import com.genosentinel.auth_gateway.dto.nestjs.ClinicalRecordDto;
+import com.genosentinel.auth_gateway.dto.nestjs.PatientResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PatientProfileServiceTest {
+
+	private final NestJsClient nestJsClient = mock(NestJsClient.class);
+	private final DjangoGenomicClient genomicClient = mock(DjangoGenomicClient.class);
+	private final PatientProfileService service = new PatientProfileService(nestJsClient, genomicClient, 300);
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void mergesSourcesRequestedByPatient() {
+		PatientResponseDto patient = patient(7);
+		when(nestJsClient.getPatientById(7)).thenReturn(patient);
+		when(nestJsClient.getClinicalRecordsByPatient(7)).thenReturn(List.of(record(1, patient)));
+		when(genomicClient.getPatientVariantReportsByPatient("7")).thenReturn(List.of(report("7"), report("7")));
+
+		PatientProfileResponse profile = service.getProfile(7);
+
+		assertEquals(7, profile.patient().getId());
+		assertEquals(1, profile.clinicalRecords().size());
+		assertEquals(2, profile.variantReports().size());
+		assertTrue(profile.sources().values().stream().allMatch(source -> SourceStatus.OK.equals(source.status())));
+		// Nunca se recorren los listados completos
+		verify(nestJsClient, never()).streamClinicalRecords();
+		verify(genomicClient, never()).streamPatientVariantReports();
+	}
+
+	@Test
+	void returnsPartialProfileWhenASourceMissesTheDeadline() throws InterruptedException {
+		CountDownLatch cancelled = new CountDownLatch(1);
+		when(nestJsClient.getPatientById(7)).thenReturn(patient(7));
+		when(nestJsClient.getClinicalRecordsByPatient(7)).thenReturn(List.of());
+		when(genomicClient.getPatientVariantReportsByPatient("7")).thenAnswer(invocation -> {
+			try {
+				Thread.sleep(10_000);
+			} catch (InterruptedException e) {
+				cancelled.countDown();
+				throw e;
+			}
+			return List.of();
+		});
+
+		long start = System.nanoTime();
+		PatientProfileResponse profile = service.getProfile(7);
+
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+		assertEquals(SourceStatus.TIMEOUT, profile.sources().get("variantReports").status());
+		assertEquals(SourceStatus.OK, profile.sources().get("clinicalRecords").status());
+		assertTrue(profile.variantReports().isEmpty());
+		assertTrue(cancelled.await(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void unknownPatientIsNotFound() {
+		when(nestJsClient.getPatientById(7)).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+		when(nestJsClient.getClinicalRecordsByPatient(7)).thenReturn(List.of());
+		when(genomicClient.getPatientVariantReportsByPatient("7")).thenReturn(List.of());
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> service.getProfile(7));
+		assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+	}
+
+	private static PatientResponseDto patient(int id) {
+		PatientResponseDto patient = new PatientResponseDto();
+		patient.setId(id);
+		return patient;
+	}
+
+	private static ClinicalRecordDto record(int id, PatientResponseDto patient) {
+		ClinicalRecordDto record = new ClinicalRecordDto();
+		record.setId(id);
+		record.setPatient(patient);
+		return record;
+	}
+
+	private static PatientVariantReportDto report(String patientId) {
+		PatientVariantReportDto report = new PatientVariantReportDto();
+		report.setPatientId(patientId);
+		return report;
+	}
+}
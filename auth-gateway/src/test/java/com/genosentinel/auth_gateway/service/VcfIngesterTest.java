@@ -0,0 +1,165 @@
+package com.genosentinel.auth_gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.genosentinel.auth_gateway.client.DjangoGenomicClient;
+import com.genosentinel.auth_gateway.dto.genomic.CreateGeneticVariantDto;
+import com.genosentinel.auth_gateway.dto.genomic.CreatePatientVariantReportDto;
+import com.genosentinel.auth_gateway.dto.genomic.GeneDto;
+import com.genosentinel.auth_gateway.dto.genomic.GeneticVariantDto;
+import com.genosentinel.auth_gateway.dto.genomic.PatientVariantReportDto;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class VcfIngesterTest {
+
+	private static final UUID KNOWN_VARIANT = UUID.randomUUID();
+	private static final UUID NEW_VARIANT = UUID.randomUUID();
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final DjangoGenomicClient genomicClient = mock(DjangoGenomicClient.class);
+	private final GenomicWritePermits writePermits = new GenomicWritePermits(2);
+	private final VcfIngester ingester = new VcfIngester(genomicClient,
+			Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, meterRegistry, writePermits, 4);
+
+	@AfterEach
+	void tearDown() {
+		ingester.shutdown();
+	}
+
+	@Test
+	void reusesKnownVariantsAndCreatesNewOnes() throws Exception {
+		when(genomicClient.isGeneticVariantIndexLoaded()).thenReturn(true);
+		when(genomicClient.getAllGenes()).thenReturn(List.of(GeneDto.builder().id(1L).symbol("BRCA1").build()));
+		when(genomicClient.findGeneticVariant("chr17", 100L, "G", "A")).thenReturn(GeneticVariantDto.builder()
+				.id(KNOWN_VARIANT).chromosome("chr17").position(100L).referenceBase("G").alternateBase("A").build());
+		when(genomicClient.findOrCreateGeneticVariant(any()))
+				.thenReturn(GeneticVariantDto.builder().id(NEW_VARIANT).build());
+		when(genomicClient.createPatientVariantReport(any()))
+				.thenAnswer(invocation -> PatientVariantReportDto.builder().id(UUID.randomUUID()).build());
+
+		String vcf = """
+				##fileformat=VCFv4.2
+				##fileDate=20240501
+				#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO
+				chr17\t100\t.\tG\tA\t.\tPASS\tGENE=BRCA1;IMPACT=MISSENSE;AF=0.25
+				chr17\t200\t.\tC\tT,G\t.\tPASS\tAF=0.5,0.123456;ANN=T|synonymous_variant|LOW|BRCA1|,G|intron_variant|MODIFIER|BRCA1|
+				chr17\t200\t.\tC\tT\t.\tPASS\tGENE=BRCA1;IMPACT=SILENT;AF=0.4
+				chr17\t300\t.\tA\tC\t.\tq10\tGENE=BRCA1;IMPACT=MISSENSE;AF=0.3
+				chr2\t400\t.\tA\tC\t.\tPASS\tGENE=MSH2;IMPACT=MISSENSE;AF=0.3
+				chr17\t500\t.\tA\tC\t.\tPASS\tGENE=BRCA1;IMPACT=MISSENSE;AF=1.5
+				""";
+
+		List<JsonNode> results = ingest(vcf);
+
+		assertEquals(List.of("created", "created", "skipped", "created", "skipped", "skipped", "invalid"),
+				results.stream().map(result -> result.get("status").asText()).toList());
+		assertEquals(KNOWN_VARIANT.toString(), results.get(0).get("variant").asText());
+		assertEquals(NEW_VARIANT.toString(), results.get(1).get("variant").asText());
+		assertEquals(NEW_VARIANT.toString(), results.get(3).get("variant").asText());
+		assertEquals("Missing or unsupported impact", results.get(2).get("error").asText());
+		assertEquals("Filtered: q10", results.get(4).get("error").asText());
+		assertEquals("Unknown gene: MSH2", results.get(5).get("error").asText());
+		// Las dos apariciones de chr17:200 C>T se resuelven en el cliente, que agrupa las altas
+		ArgumentCaptor<CreateGeneticVariantDto> variants = ArgumentCaptor.forClass(CreateGeneticVariantDto.class);
+		verify(genomicClient, times(2)).findOrCreateGeneticVariant(variants.capture());
+		assertTrue(variants.getAllValues().stream().allMatch(variant -> variant.getPosition() == 200L
+				&& variant.getAlternateBase().equals("T")));
+
+		ArgumentCaptor<CreatePatientVariantReportDto> reports = ArgumentCaptor.forClass(CreatePatientVariantReportDto.class);
+		verify(genomicClient, times(3)).createPatientVariantReport(reports.capture());
+		assertTrue(reports.getAllValues().stream().allMatch(report -> report.getPatientId().equals("P-1")
+				&& report.getDetectionDate().equals(LocalDate.of(2024, 5, 1))));
+		assertTrue(reports.getAllValues().stream().anyMatch(report -> report.getAlleleFrequency().equals(new BigDecimal("0.5000"))));
+
+		assertEquals(7, meterRegistry.get("vcf.ingest.records").tag("stage", "parsed").counter().count());
+		assertEquals(3, meterRegistry.get("vcf.ingest.records").tag("stage", "report-created").counter().count());
+	}
+
+	@Test
+	void reportsBreakerAndBulkheadRejectionsAsServiceUnavailable() throws Exception {
+		when(genomicClient.isGeneticVariantIndexLoaded()).thenReturn(true);
+		when(genomicClient.getAllGenes()).thenReturn(List.of(GeneDto.builder().id(1L).symbol("BRCA1").build()));
+		when(genomicClient.findOrCreateGeneticVariant(any())).thenAnswer(invocation -> {
+			CreateGeneticVariantDto variant = invocation.getArgument(0);
+			if (variant.getPosition() == 100L) {
+				throw CallNotPermittedException.createCallNotPermittedException(CircuitBreaker.ofDefaults("django"));
+			}
+			return GeneticVariantDto.builder().id(NEW_VARIANT).build();
+		});
+		when(genomicClient.createPatientVariantReport(any()))
+				.thenThrow(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("django")));
+
+		List<JsonNode> results = ingest("""
+				##fileformat=VCFv4.2
+				#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO
+				chr17\t100\t.\tG\tA\t.\tPASS\tGENE=BRCA1;IMPACT=MISSENSE;AF=0.25
+				chr17\t200\t.\tC\tT\t.\tPASS\tGENE=BRCA1;IMPACT=SILENT;AF=0.4
+				chr17\t300\t.\tA\tC\t.\tPASS\tGENE=BRCA1;IMPACT=MISSENSE;AF=0.3
+				""");
+
+		assertEquals(List.of(503, 503, 503), results.stream().map(result -> result.get("httpStatus").asInt()).toList());
+		assertEquals("Genomic service temporarily unavailable", results.get(0).get("error").asText());
+		assertEquals("Genomic service busy", results.get(1).get("error").asText());
+		// Cada alelo devolvió su permiso compartido, también los rechazados
+		assertEquals(2, writePermits.available());
+	}
+
+	@Test
+	void rejectsUnreadableFilesBeforeStreaming() {
+		byte[] body = "not a vcf\n".getBytes(StandardCharsets.US_ASCII);
+
+		when(genomicClient.isGeneticVariantIndexLoaded()).thenReturn(true);
+
+		assertThrows(ResponseStatusException.class,
+				() -> ingester.open(new ByteArrayInputStream(body), "P-1", null, null));
+		verify(genomicClient, never()).getAllGenes();
+	}
+
+	@Test
+	void answersServiceUnavailableUntilTheVariantIndexIsLoaded() {
+		byte[] body = "##fileformat=VCFv4.2\n#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\n"
+				.getBytes(StandardCharsets.US_ASCII);
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> ingester.open(new ByteArrayInputStream(body), "P-1", null, null));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+		verify(genomicClient, never()).getAllGenes();
+	}
+
+	private List<JsonNode> ingest(String vcf) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ingester.open(new ByteArrayInputStream(vcf.getBytes(StandardCharsets.US_ASCII)), "P-1", null, null)
+				.writeTo(out);
+
+		List<JsonNode> results = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			results.add(objectMapper.readTree(line));
+		}
+		return results;
+	}
+}
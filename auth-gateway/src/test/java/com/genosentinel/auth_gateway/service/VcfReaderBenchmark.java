@@ -0,0 +1,69 @@
+package com.genosentinel.auth_gateway.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mide el lector de VCF sobre un archivo sintético comprimido con gzip de varios cientos de MB
+ * (300 MB sin comprimir por defecto; se cambia con -Dvcf.benchmark.mb).
+ * No sigue el patrón *Test, así que no corre en el build; se ejecuta con:
+ * mvn test -Dtest=VcfReaderBenchmark
+ */
+class VcfReaderBenchmark {
+
+	private static final String[] BASES = {"A", "C", "G", "T"};
+	private static final String[] ANNOTATIONS = {"missense_variant", "stop_gained", "synonymous_variant", "intron_variant"};
+
+	@Test
+	void parsesSyntheticGzippedVcf(@TempDir Path directory) throws IOException {
+		long targetBytes = Long.getLong("vcf.benchmark.mb", 300) * 1024 * 1024;
+		Path file = directory.resolve("synthetic.vcf.gz");
+		long written = 0;
+		long lines = 0;
+
+		Random random = new Random(42);
+		try (Writer writer = new OutputStreamWriter(
+				new GZIPOutputStream(Files.newOutputStream(file), 1 << 16), StandardCharsets.US_ASCII)) {
+			writer.write("##fileformat=VCFv4.2\n#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tTUMOR\n");
+			while (written < targetBytes) {
+				String line = "chr" + (1 + random.nextInt(22)) + '\t' + (1 + random.nextInt(250_000_000))
+						+ "\t.\t" + BASES[random.nextInt(4)] + '\t' + BASES[random.nextInt(4)]
+						+ "\t60\tPASS\tDP=120;AF=0.5;ANN=A|" + ANNOTATIONS[random.nextInt(4)] + "|MODERATE|BRCA1|ENSG01|"
+						+ "transcript|ENST01|protein_coding|5/12|c.100A>G|p.Lys34Glu\tGT:AD:DP:AF\t0/1:60,60:120:"
+						+ random.nextInt(1000) / 1000.0 + '\n';
+				writer.write(line);
+				written += line.length();
+				lines++;
+			}
+		}
+
+		long records = 0;
+		long started = System.nanoTime();
+		try (InputStream body = new BufferedInputStream(Files.newInputStream(file));
+			 VcfReader reader = VcfReader.open(body, null)) {
+			List<VcfRecord> next;
+			while ((next = reader.next()) != null) {
+				records += next.size();
+			}
+		}
+		double seconds = (System.nanoTime() - started) / 1e9;
+
+		assertEquals(lines, records);
+		System.out.printf("VCF reader: %d MB uncompressed (%d MB gzip), %d records in %.2f s: %.1f MB/s, %.0f records/s%n",
+				written >> 20, Files.size(file) >> 20, records, seconds, (written >> 20) / seconds, records / seconds);
+	}
+}
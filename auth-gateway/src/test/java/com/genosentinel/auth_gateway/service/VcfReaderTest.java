@@ -0,0 +1,134 @@
+package com.genosentinel.auth_gateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VcfReaderTest {
+
+	private static final String HEADER = """
+			##fileformat=VCFv4.2
+			##fileDate=20240501
+			#CHROM\tPOS\tID\tREF\tALT\tQUAL\tFILTER\tINFO\tFORMAT\tTUMOR\tNORMAL
+			""";
+
+	@Test
+	void mapsAnnotationsAndFrequenciesPerAlternateAllele() throws IOException {
+		String vcf = HEADER
+				+ "chr17\t43044295\t.\tG\tA,T\t50\tPASS\tAF=0.1,0.2;ANN=A|missense_variant|MODERATE|BRCA1|,T|stop_gained|HIGH|BRCA1|\tGT:AF\t0/1:0.35,0.05\t0/0:0,0\n"
+				+ "chr13\t32340300\t.\tC\tCT\t50\tLowQual\tGENE=BRCA2;IMPACT=frameshift;AF=0.5\tGT\t0/1\t0/0\n"
+				+ "chr7\tnot-a-position\t.\tA\tG\t.\t.\t.\n";
+
+		try (VcfReader reader = VcfReader.open(stream(vcf.getBytes(StandardCharsets.US_ASCII)), null)) {
+			assertEquals(LocalDate.of(2024, 5, 1), reader.fileDate());
+
+			List<VcfRecord> first = reader.next();
+			assertEquals(2, first.size());
+			assertEquals(new VcfRecord(4, "chr17", 43044295, "G", "A", null, "BRCA1", "MISSENSE",
+					new BigDecimal("0.35"), null), first.get(0));
+			assertEquals("NONSENSE", first.get(1).impact());
+			assertEquals(new BigDecimal("0.05"), first.get(1).alleleFrequency());
+
+			VcfRecord second = reader.next().get(0);
+			assertEquals("LowQual", second.filter());
+			assertEquals("BRCA2", second.gene());
+			assertEquals("FRAMESHIFT", second.impact());
+			assertEquals(new BigDecimal("0.5"), second.alleleFrequency());
+
+			assertEquals("Invalid POS: not-a-position", reader.next().get(0).error());
+			assertNull(reader.next());
+		}
+	}
+
+	@Test
+	void readsTheRequestedSample() throws IOException {
+		String vcf = HEADER + "chr1\t100\t.\tA\tG\t.\tPASS\tGENEINFO=TP53:7157\tGT:VAF\t0/1:0.4\t0/1:0.1\n";
+
+		try (VcfReader reader = VcfReader.open(stream(vcf.getBytes(StandardCharsets.US_ASCII)), "NORMAL")) {
+			VcfRecord record = reader.next().get(0);
+			assertEquals("TP53", record.gene());
+			assertEquals(new BigDecimal("0.1"), record.alleleFrequency());
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> VcfReader.open(stream(vcf.getBytes(StandardCharsets.US_ASCII)), "GERMLINE"));
+	}
+
+	@Test
+	void readsEveryMemberOfABgzipStream() throws IOException {
+		// bgzip: un miembro gzip por bloque; el cuerpo HTTP no anuncia bytes disponibles
+		ByteArrayOutputStream bgzip = new ByteArrayOutputStream();
+		bgzip.write(gzip(HEADER));
+		int lines = 0;
+		for (int block = 0; block < 5; block++) {
+			StringBuilder data = new StringBuilder();
+			for (int i = 0; i < 1000; i++, lines++) {
+				data.append("chr1\t").append(lines + 1).append("\t.\tA\tG\t.\tPASS\tAF=0.5\n");
+			}
+			bgzip.write(gzip(data.toString()));
+		}
+
+		List<VcfRecord> records = new ArrayList<>();
+		try (VcfReader reader = VcfReader.open(stream(bgzip.toByteArray()), null)) {
+			List<VcfRecord> next;
+			while ((next = reader.next()) != null) {
+				records.addAll(next);
+			}
+		}
+
+		assertEquals(lines, records.size());
+		assertEquals(lines, records.get(records.size() - 1).position());
+	}
+
+	@Test
+	void rejectsFilesWithoutColumnHeader() {
+		byte[] vcf = "chr1\t100\t.\tA\tG\t.\tPASS\t.\n".getBytes(StandardCharsets.US_ASCII);
+
+		assertThrows(IllegalArgumentException.class, () -> VcfReader.open(stream(vcf), null));
+	}
+
+	@Test
+	void reportsOverlongLinesAndKeepsReading() throws IOException {
+		String longInfo = "GENE=" + "X".repeat(VcfReader.MAX_LINE_LENGTH);
+		String vcf = HEADER + "chr1\t100\t.\tA\tG\t.\tPASS\t" + longInfo + "\n"
+				+ "chr1\t200\t.\tC\tT\t.\tPASS\tGENE=TP53;AF=0.5\n";
+
+		try (VcfReader reader = VcfReader.open(stream(vcf.getBytes(StandardCharsets.US_ASCII)), null)) {
+			VcfRecord tooLong = reader.next().get(0);
+			assertEquals(4, tooLong.line());
+			assertEquals("Line exceeds " + VcfReader.MAX_LINE_LENGTH + " characters", tooLong.error());
+			VcfRecord next = reader.next().get(0);
+			assertEquals(5, next.line());
+			assertEquals(200, next.position());
+			assertNull(reader.next());
+		}
+	}
+
+	private static byte[] gzip(String text) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(text.getBytes(StandardCharsets.US_ASCII));
+		}
+		return out.toByteArray();
+	}
+
+	private static InputStream stream(byte[] bytes) {
+		return new FilterInputStream(new ByteArrayInputStream(bytes)) {
+			@Override
+			public int available() {
+				return 0;
+			}
+		};
+	}
+}
@@ -1,5 +1,5 @@
-import {Body,Controller,Delete,Get,Param,ParseIntPipe,Patch,Post,HttpCode,HttpStatus,} from '@nestjs/common';
-import {ApiOperation,ApiTags,ApiResponse,ApiParam,ApiBody,} from '@nestjs/swagger';
+import {Body,Controller,Delete,Get,Param,ParseIntPipe,Patch,Post,HttpCode,HttpStatus,Query,} from '@nestjs/common';
+import {ApiOperation,ApiTags,ApiResponse,ApiParam,ApiBody,ApiQuery,} from '@nestjs/swagger';
 import { ClinicalRecordsService } from './clinical-records.service';
 import { CreateClinicalRecordDto } from './dto/create-clinical-record.dto';
 import { UpdateClinicalRecordDto } from './dto/update-clinical-record.dto';
@@ -44,13 +44,19 @@ export class ClinicalRecordsController {
     description:
       'Obtiene todas las historias clínicas con información de pacientes y tipos de tumor',
   })
+  @ApiQuery({
+    name: 'patientId',
+    description: 'Solo las historias clínicas de este paciente',
+    required: false,
+    type: Number,
+  })
   @ApiResponse({
     status: 200,
     description: 'Lista de historias clínicas obtenida exitosamente',
     type: [ClinicalRecord],
   })
-  findAll(){
-    return this.clinicalRecordsService.findAll();
+  findAll(@Query('patientId', new ParseIntPipe({ optional: true })) patientId?: number){
+    return this.clinicalRecordsService.findAll(patientId);
   }
 
   @Get(':id')
@@ -69,10 +69,11 @@ export class ClinicalRecordsService {
   }
 
   /**
-   * Obtiene todas las historias clínicas con sus relaciones
+   * Obtiene todas las historias clínicas con sus relaciones, opcionalmente de un solo paciente
    */
-  async findAll(){
+  async findAll(patientId?: number){
     return this.recordRepo.find({
+      where: patientId !== undefined ? { patient: { id: patientId } } : undefined,
       relations: ['patient', 'tumorType'],
       order: { diagnosisDate: 'DESC' },
     });
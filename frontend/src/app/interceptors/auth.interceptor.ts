@@ -1,25 +1,45 @@
-import { HttpInterceptorFn } from '@angular/common/http';
+import { HttpErrorResponse, HttpInterceptorFn } from '@angular/common/http';
 import { inject } from '@angular/core';
+import { Router } from '@angular/router';
+import { catchError, switchMap, throwError } from 'rxjs';
 import { AuthService } from '../services/auth.service';
 
 export const authInterceptor: HttpInterceptorFn = (req, next) => {
   const authService = inject(AuthService);
+  const router = inject(Router);
   const token = authService.getToken();
 
   console.log('Interceptor: Request URL:', req.url);
   console.log('Interceptor: Token exists:', !!token);
 
-  // Clone request and add authorization header if token exists
-  if (token && !req.url.includes('/auth/login')) {
-    const clonedRequest = req.clone({
-      setHeaders: {
-        Authorization: `Bearer ${token}`
-      }
-    });
-    console.log('Interceptor: Added auth header');
-    return next(clonedRequest);
+  // Las rutas /auth/ (login, refresh, logout) no se reintentan: el 401 es la respuesta definitiva
+  if (!token || req.url.includes('/auth/')) {
+    if (token && !req.url.includes('/auth/login')) {
+      console.log('Interceptor: Added auth header');
+      return next(req.clone({ setHeaders: { Authorization: `Bearer ${token}` } }));
+    }
+    console.log('Interceptor: No token, sending request as-is');
+    return next(req);
   }
 
-  console.log('Interceptor: No token, sending request as-is');
-  return next(req);
-};
\ No newline at end of file
+  // Clone request and add authorization header if token exists
+  console.log('Interceptor: Added auth header');
+  return next(req.clone({ setHeaders: { Authorization: `Bearer ${token}` } })).pipe(
+    catchError(error => {
+      if (!(error instanceof HttpErrorResponse) || error.status !== 401) {
+        return throwError(() => error);
+      }
+      // Access token expirado o revocado: se renueva una vez y se repite la petición
+      console.log('Interceptor: 401, refreshing access token');
+      return authService.refresh().pipe(
+        catchError(refreshError => {
+          console.log('Interceptor: Refresh failed, redirecting to login');
+          authService.clearSession();
+          router.navigate(['/login']);
+          return throwError(() => refreshError);
+        }),
+        switchMap(newToken => next(req.clone({ setHeaders: { Authorization: `Bearer ${newToken}` } })))
+      );
+    })
+  );
+};
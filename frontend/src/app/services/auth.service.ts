@@ -1,7 +1,7 @@
 import { Injectable, PLATFORM_ID, Inject } from '@angular/core';
 import { isPlatformBrowser } from '@angular/common';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
-import { Observable, BehaviorSubject, tap } from 'rxjs';
+import { Observable, BehaviorSubject, finalize, map, shareReplay, tap } from 'rxjs';
 
 export interface LoginRequest {
   username: string;
@@ -9,8 +9,12 @@ export interface LoginRequest {
 }
 
 export interface AuthResponse {
-  token: string;
+  accessToken: string;
+  refreshToken: string;
+  tokenType: string;
   username: string;
+  email: string;
+  role: string;
 }
 
 @Injectable({
@@ -21,6 +25,9 @@ export class AuthService {
   private tokenSubject: BehaviorSubject<string | null>;
   public token$: Observable<string | null>;
   private isBrowser: boolean;
+  // Renovación en curso, compartida por todas las peticiones que reciben 401 a la vez:
+  // el refresh token solo se puede canjear una vez
+  private refreshInFlight: Observable<string> | null = null;
 
   constructor(
     private http: HttpClient,
@@ -37,15 +44,48 @@ export class AuthService {
     return this.http.post<AuthResponse>(`${this.baseUrl}/login`, credentials).pipe(
       tap(response => {
         console.log('Login successful, storing token');
-        this.setToken(response.token);
+        this.storeSession(response);
       })
     );
   }
 
+  /**
+   * Canjea el refresh token por un nuevo par de tokens y devuelve el access token nuevo.
+   * Las llamadas concurrentes comparten la misma petición.
+   */
+  refresh(): Observable<string> {
+    if (!this.refreshInFlight) {
+      const refreshToken = this.getRefreshToken();
+      console.log('Refreshing access token. Refresh token exists:', !!refreshToken);
+      this.refreshInFlight = this.http.post<AuthResponse>(`${this.baseUrl}/refresh`, { refreshToken }).pipe(
+        tap(response => this.storeSession(response)),
+        map(response => response.accessToken),
+        finalize(() => this.refreshInFlight = null),
+        shareReplay(1)
+      );
+    }
+    return this.refreshInFlight;
+  }
+
   logout(): void {
-    console.log('Logging out, removing token');
+    console.log('Logging out, revoking tokens');
+    const token = this.getToken();
+    if (token) {
+      // Revoca en el servidor los access y refresh tokens emitidos; la sesión local se borra igualmente
+      this.http.post<void>(`${this.baseUrl}/logout`, null, {
+        headers: new HttpHeaders({ 'Authorization': `Bearer ${token}` })
+      }).subscribe({
+        error: err => console.warn('Logout request failed:', err.status)
+      });
+    }
+    this.clearSession();
+  }
+
+  clearSession(): void {
+    console.log('Clearing session, removing tokens');
     if (this.isBrowser) {
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
     }
     this.tokenSubject.next(null);
   }
@@ -59,12 +99,17 @@ export class AuthService {
     return null;
   }
 
-  private setToken(token: string): void {
-    console.log('Setting token in localStorage');
+  private getRefreshToken(): string | null {
+    return this.isBrowser ? localStorage.getItem('refreshToken') : null;
+  }
+
+  private storeSession(response: AuthResponse): void {
+    console.log('Setting tokens in localStorage');
     if (this.isBrowser) {
-      localStorage.setItem('token', token);
+      localStorage.setItem('token', response.accessToken);
+      localStorage.setItem('refreshToken', response.refreshToken);
     }
-    this.tokenSubject.next(token);
+    this.tokenSubject.next(response.accessToken);
   }
 
   isAuthenticated(): boolean {
@@ -0,0 +1,15 @@
+from django.db import migrations
+
+
+class Migration(migrations.Migration):
+
+    dependencies = [
+        ('genetic_variants', '0001_initial'),
+    ]
+
+    operations = [
+        migrations.AlterModelOptions(
+            name='geneticvariant',
+            options={'ordering': ['chromosome', 'position', 'id']},
+        ),
+    ]
@@ -53,7 +53,8 @@ class GeneticVariant(models.Model):
 
     class Meta:
         db_table = 'genetic_variants'
-        ordering = ['chromosome', 'position']
+        # Variants can share a position; id makes the order total for offset pagination
+        ordering = ['chromosome', 'position', 'id']
 
     def __str__(self):
         return f"{self.gene.symbol} - {self.chromosome}:{self.position}"
\ No newline at end of file
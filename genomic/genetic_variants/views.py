@@ -1,4 +1,6 @@
+from django.utils.dateparse import parse_datetime
 from rest_framework import viewsets
+from rest_framework.exceptions import ValidationError
 from drf_spectacular.utils import extend_schema, extend_schema_view
 from .models import GeneticVariant
 from .serializers import GeneticVariantSerializer
@@ -15,7 +17,7 @@ class GeneticVariantViewSet(viewsets.ModelViewSet):
     """
     Genetic variant management
     Endpoints:
-    - GET /api/variants/ - List all variants
+    - GET /api/variants/ - List all variants (?updated_since=<ISO 8601> for recent changes only)
     - POST /api/variants/ - Create variant
     - GET /api/variants/{id}/ - Get variant by ID
     - PATCH /api/variants/{id}/ - Update variant
@@ -23,4 +25,15 @@ class GeneticVariantViewSet(viewsets.ModelViewSet):
     """
     queryset = GeneticVariant.objects.select_related('gene').all()
     serializer_class = GeneticVariantSerializer
-    http_method_names = ['get', 'post', 'patch', 'delete', 'head', 'options']
\ No newline at end of file
+    http_method_names = ['get', 'post', 'patch', 'delete', 'head', 'options']
+
+    def get_queryset(self):
+        queryset = super().get_queryset()
+        updated_since = self.request.query_params.get('updated_since')
+        if updated_since:
+            # Used by the gateway region index for incremental refreshes
+            since = parse_datetime(updated_since)
+            if since is None:
+                raise ValidationError({'updated_since': 'Expected an ISO 8601 datetime'})
+            queryset = queryset.filter(updated_at__gte=since)
+        return queryset
\ No newline at end of file
@@ -0,0 +1,16 @@
+from django.db import migrations, models
+
+
+class Migration(migrations.Migration):
+
+    dependencies = [
+        ('patient_reports', '0001_initial'),
+    ]
+
+    operations = [
+        migrations.AlterField(
+            model_name='patientvariantreport',
+            name='patient_id',
+            field=models.CharField(db_index=True, help_text='Patient ID from Clinical Microservice', max_length=50),
+        ),
+    ]
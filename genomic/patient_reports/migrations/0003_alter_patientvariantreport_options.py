@@ -0,0 +1,15 @@
+from django.db import migrations
+
+
+class Migration(migrations.Migration):
+
+    dependencies = [
+        ('patient_reports', '0002_patientvariantreport_patient_id_index'),
+    ]
+
+    operations = [
+        migrations.AlterModelOptions(
+            name='patientvariantreport',
+            options={'ordering': ['-detection_date', 'id']},
+        ),
+    ]
@@ -14,6 +14,7 @@ class PatientVariantReport(models.Model):
     )
     patient_id = models.CharField(
         max_length=50,
+        db_index=True,
         help_text='Patient ID from Clinical Microservice'
     )
     variant = models.ForeignKey(
@@ -35,7 +36,8 @@ class PatientVariantReport(models.Model):
 
     class Meta:
         db_table = 'patient_variant_reports'
-        ordering = ['-detection_date']
+        # Many reports share a detection date: without id, offset pages could repeat or skip rows
+        ordering = ['-detection_date', 'id']
 
     def __str__(self):
         return f"Patient {self.patient_id} - {self.variant}"
\ No newline at end of file
@@ -15,7 +15,7 @@ class PatientVariantReportViewSet(viewsets.ModelViewSet):
     """
     Patient variant report management
     Endpoints:
-    - GET /api/reports/ - List all reports
+    - GET /api/reports/ - List all reports (?patient_id=<id> for one patient's reports)
     - POST /api/reports/ - Create report
     - GET /api/reports/{id}/ - Get report by ID
     - PATCH /api/reports/{id}/ - Update report
@@ -23,4 +23,12 @@ class PatientVariantReportViewSet(viewsets.ModelViewSet):
     """
     queryset = PatientVariantReport.objects.select_related('variant__gene').all()
     serializer_class = PatientVariantReportSerializer
-    http_method_names = ['get', 'post', 'patch', 'delete', 'head', 'options']
\ No newline at end of file
+    http_method_names = ['get', 'post', 'patch', 'delete', 'head', 'options']
+
+    def get_queryset(self):
+        queryset = super().get_queryset()
+        patient_id = self.request.query_params.get('patient_id')
+        if patient_id:
+            # Used by the gateway patient profile instead of scanning every report
+            queryset = queryset.filter(patient_id=patient_id)
+        return queryset